@@ -0,0 +1,31 @@
+package com.netease.hbase.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * benchmarks.jar的入口，参数与JMH命令行一致（如 "FieldCount.*" -t 8 -p fields=100），
+ * 结果总是以JSON格式写入文件，便于不同提交之间对比，文件路径通过 -Dbenchmark.result 指定，默认为 jmh-result.json
+ * 例如：java -Dbenchmark.result=result-$(git rev-parse --short HEAD).json -jar target/benchmarks.jar
+ *
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_PROPERTY = "benchmark.result";
+    private static final String DEFAULT_RESULT = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty(RESULT_PROPERTY, DEFAULT_RESULT))
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,200 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValueUtil;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HBaseCompress的CPU开销和写入字节数对比：同样的body分别存为原始值和压缩值
+ * 字节数在setup中打印（Put中所有KeyValue的序列化长度），吞吐量由JMH统计
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+    //消息长度，覆盖短消息、普通消息和长文本
+    @Param({"64", "256", "1024", "4096", "16384"})
+    public int bodyLength;
+
+    //压缩级别，1为Deflater.BEST_SPEED
+    @Param({"1", "6"})
+    public int level;
+
+    private PlainMessage plain;
+    private AbstractHBaseModel compressed;
+    private Cell[] plainCells;
+    private Cell[] compressedCells;
+
+    @Setup
+    public void setup() {
+        String body = message(bodyLength, 42);
+        plain = fill(new PlainMessage(), body);
+        compressed = level == 1 ? fill(new FastCompressedMessage(), body) : fill(new CompressedMessage(), body);
+        Put plainPut = plain.toPut();
+        Put compressedPut = compressed.toPut();
+        plainCells = ModelMappingBenchmark.toCells(plainPut);
+        compressedCells = ModelMappingBenchmark.toCells(compressedPut);
+        System.out.println(String.format("%nbodyLength=%d level=%d plainBytes=%d compressedBytes=%d ratio=%.2f",
+                bodyLength, level, bytes(plainPut), bytes(compressedPut), (double) bytes(compressedPut) / bytes(plainPut)));
+    }
+
+    @Benchmark
+    public Put plainToPut() {
+        return plain.toPut();
+    }
+
+    @Benchmark
+    public Put compressedToPut() {
+        return compressed.toPut();
+    }
+
+    @Benchmark
+    public PlainMessage plainParseResult() {
+        PlainMessage m = new PlainMessage();
+        m.parseResult(Result.create(plainCells));
+        return m;
+    }
+
+    @Benchmark
+    public AbstractHBaseModel compressedParseResult() {
+        AbstractHBaseModel m = level == 1 ? new FastCompressedMessage() : new CompressedMessage();
+        m.parseResult(Result.create(compressedCells));
+        return m;
+    }
+
+    //模拟聊天消息：常用词随机组合，中英文混排
+    static String message(int length, long seed) {
+        String[] words = {"hello", "好的", "明天", "meeting", "ok", "收到", "谢谢", "the", "report", "已经",
+                "发给你了", "please", "check", "今天下午", "3点", "会议室", "项目", "进度", "update", ",", "。", " "};
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (Bytes.toBytes(sb.toString()).length < length) {
+            sb.append(words[random.nextInt(words.length)]);
+            if (random.nextInt(8) == 0) {
+                sb.append(random.nextInt(100000));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static <T extends BaseMessage> T fill(T m, String body) {
+        m.fromUid = 10086L;
+        m.toUid = 10010L;
+        m.timestamp = 1493712000000L;
+        m.setBody(body);
+        return m;
+    }
+
+    private static long bytes(Put put) {
+        long bytes = 0;
+        for (List<Cell> cells : put.getFamilyCellMap().values()) {
+            for (Cell cell : cells) {
+                bytes += KeyValueUtil.length(cell);
+            }
+        }
+        return bytes;
+    }
+
+    public static abstract class BaseMessage extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        @HBaseRowKeyField(order = 1)
+        public Long fromUid;
+
+        @HBaseField(id = 2)
+        @HBaseRowKeyField(order = 2)
+        public Long toUid;
+
+        @HBaseField(id = 4)
+        @HBaseRowKeyField(order = 3)
+        public Long timestamp;
+
+        @HBaseColumnFamily
+        private static final byte[] CF_D = Bytes.toBytes("d");
+
+        @HBaseColumn(id = 1)
+        private static final byte[] COL_D_FROM_UID = Bytes.toBytes("fromUid");
+
+        @HBaseColumn(id = 2)
+        private static final byte[] COL_D_TO_UID = Bytes.toBytes("toUid");
+
+        @HBaseColumn(id = 3)
+        private static final byte[] COL_D_BODY = Bytes.toBytes("body");
+
+        @HBaseColumn(id = 4)
+        private static final byte[] COL_D_TIMESTAMP = Bytes.toBytes("timestamp");
+
+        abstract void setBody(String body);
+
+        @Override
+        public byte[] getRowKey() {
+            return encodeRowKey();
+        }
+    }
+
+    @HBaseTableName(name = "message")
+    @HBaseRowKey(strategy = HBaseRowKey.Strategy.HASH_PREFIX, hashFields = 2, hashLength = 4)
+    public static class PlainMessage extends BaseMessage {
+
+        @HBaseField(id = 3)
+        public String body;
+
+        @Override
+        void setBody(String body) {
+            this.body = body;
+        }
+    }
+
+    @HBaseTableName(name = "message")
+    @HBaseRowKey(strategy = HBaseRowKey.Strategy.HASH_PREFIX, hashFields = 2, hashLength = 4)
+    public static class FastCompressedMessage extends BaseMessage {
+
+        @HBaseField(id = 3)
+        @HBaseCompress(threshold = 128, level = 1)
+        public String body;
+
+        @Override
+        void setBody(String body) {
+            this.body = body;
+        }
+    }
+
+    @HBaseTableName(name = "message")
+    @HBaseRowKey(strategy = HBaseRowKey.Strategy.HASH_PREFIX, hashFields = 2, hashLength = 4)
+    public static class CompressedMessage extends BaseMessage {
+
+        @HBaseField(id = 3)
+        @HBaseCompress(threshold = 128, level = 6)
+        public String body;
+
+        @Override
+        void setBody(String body) {
+            this.body = body;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CompressionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
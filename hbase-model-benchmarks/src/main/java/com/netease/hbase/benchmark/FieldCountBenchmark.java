@@ -0,0 +1,86 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同字段数（5/20/100）的model的toPut/parseResult/toGet速度
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldCountBenchmark {
+
+    @Param({"5", "20", "100"})
+    private int fields;
+
+    private AbstractHBaseModel model;
+    private Cell[] cells;
+
+    @Setup
+    public void setup() {
+        model = _fill(_newModel());
+        cells = ModelMappingBenchmark.toCells(model.toPut());
+    }
+
+    @Benchmark
+    public Put toPut() {
+        return model.toPut();
+    }
+
+    @Benchmark
+    public AbstractHBaseModel parseResult() {
+        AbstractHBaseModel m = _newModel();
+        m.parseResult(Result.create(cells));
+        return m;
+    }
+
+    @Benchmark
+    public Get toGet() {
+        return model.toGet();
+    }
+
+    private AbstractHBaseModel _newModel() {
+        switch (fields) {
+            case 5:
+                return new WideModel5();
+            case 20:
+                return new WideModel20();
+            case 100:
+                return new WideModel100();
+            default:
+                throw new IllegalArgumentException("unsupported fields = " + fields);
+        }
+    }
+
+    private static AbstractHBaseModel _fill(AbstractHBaseModel model) {
+        if (model instanceof WideModel5) {
+            return ((WideModel5) model).fill(10086L);
+        } else if (model instanceof WideModel20) {
+            return ((WideModel20) model).fill(10086L);
+        } else {
+            return ((WideModel100) model).fill(10086L);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FieldCountBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,208 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 改造前AbstractHBaseModel中基于反射的toPut/parseResult实现，原样保留作为benchmark的对照组
+ *
+ */
+public final class LegacyModelMapper {
+
+    private static final String SEPARATOR = "|";
+
+    private static final Map<Class, Map<Integer, Field>> cacheFieldMap = new ConcurrentHashMap<>();
+    private static final Map<Class, Map<Integer, byte[]>> cacheColumnMap = new ConcurrentHashMap<>();
+    private static final Map<Class, byte[]> familyMap = new ConcurrentHashMap<>();
+    private static final Map<Class, byte[]> mapColumnMap = new ConcurrentHashMap<>();
+    private static final Map<Class, Field> mapFieldMap = new ConcurrentHashMap<>();
+
+    private LegacyModelMapper() {
+    }
+
+    public static Put toPut(AbstractHBaseModel model) throws Exception {
+        model.check();
+        Map<Integer, Field> fieldMap = _getFieldMap(model);
+        Map<Integer, byte[]> columnMap = _getColumnMap(model);
+        byte[] family = _getFamily(model);
+
+        byte[] rowKey = model.getRowKey();
+        if (rowKey == null) {
+            throw new RuntimeException("rowKey is null");
+        }
+        Put put = new Put(rowKey);
+        for (Map.Entry<Integer, Field> entry : fieldMap.entrySet()) {
+            Integer index = entry.getKey();
+            Field field = entry.getValue();
+            field.setAccessible(true);
+            Object o = field.get(model);
+            if (o == null) continue;
+            byte[] columnRaw = columnMap.get(index);
+            if (columnRaw == null) continue;
+            if (o instanceof Long) {
+                put.add(family, columnRaw, Bytes.toBytes((Long) o));
+            } else if (o instanceof Integer) {
+                put.add(family, columnRaw, Bytes.toBytes((Integer) o));
+            } else if (o instanceof Short) {
+                put.add(family, columnRaw, Bytes.toBytes((Short) o));
+            } else if (o instanceof String) {
+                put.add(family, columnRaw, Bytes.toBytes((String) o));
+            } else if (o instanceof Float) {
+                put.add(family, columnRaw, Bytes.toBytes((Float) o));
+            } else if (o instanceof Double) {
+                put.add(family, columnRaw, Bytes.toBytes((Double) o));
+            } else if (o instanceof BigDecimal) {
+                put.add(family, columnRaw, Bytes.toBytes((BigDecimal) o));
+            } else if (o instanceof Map) {
+                Map map = ((Map) o);
+                for (Object key : map.keySet()) {
+                    if (key instanceof String) {
+                        Object value = map.get(key);
+                        if (value instanceof String) {
+                            byte[] raw = Bytes.add(columnRaw, Bytes.toBytes(SEPARATOR), Bytes.toBytes((String) key));
+                            put.add(family, raw, Bytes.toBytes((String) value));
+                        }
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("not support field type");
+            }
+        }
+        return put;
+    }
+
+    public static boolean parseResult(AbstractHBaseModel model, Result result) throws Exception {
+        if (result == null) {
+            return false;
+        }
+        Map<Integer, Field> fieldMap = _getFieldMap(model);
+        byte[] family = _getFamily(model);
+        Map<Integer, byte[]> columnMap = _getColumnMap(model);
+        boolean res = false;
+        for (Map.Entry<Integer, Field> entry : fieldMap.entrySet()) {
+            Integer index = entry.getKey();
+            Field field = entry.getValue();
+            field.setAccessible(true);
+            if (field.get(model) != null) {
+                continue;
+            }
+            byte[] columnRaw = columnMap.get(index);
+            if (columnRaw == null) continue;
+            byte[] raw = result.getValue(family, columnRaw);
+            if (raw == null) continue;
+            Class<?> type = field.getType();
+            if (type == Long.class) {
+                field.set(model, Bytes.toLong(raw));
+            } else if (type == Integer.class) {
+                field.set(model, Bytes.toInt(raw));
+            } else if (type == Short.class) {
+                field.set(model, Bytes.toShort(raw));
+            } else if (type == String.class) {
+                field.set(model, Bytes.toString(raw));
+            } else {
+                throw new IllegalArgumentException("not support field type");
+            }
+            res = true;
+        }
+        byte[] mapColumn = mapColumnMap.get(model.getClass());
+        Field field = mapFieldMap.get(model.getClass());
+        if (mapColumn != null && field != null) {
+            byte[] prefix = Bytes.add(mapColumn, Bytes.toBytes(SEPARATOR));
+            while (result.advance()) {
+                Cell cell = result.current();
+                if (cell != null) {
+                    byte[] qualifierArray = cell.getQualifierArray();
+                    if (qualifierArray != null && Bytes.contains(qualifierArray, prefix)) {
+                        byte[] keyRaw = Bytes.copy(qualifierArray,
+                                cell.getQualifierOffset() + prefix.length, cell.getQualifierLength() - prefix.length);
+                        String key = Bytes.toString(keyRaw);
+                        Object o = field.get(model);
+                        if (o == null) {
+                            o = new HashMap<>();
+                            field.set(model, o);
+                        }
+                        ((Map) o).put(key, Bytes.toString(CellUtil.cloneValue(cell)));
+                        res = true;
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    private static void _getFields(List<Field> list, Class clazz) {
+        Collections.addAll(list, clazz.getDeclaredFields());
+        Class superClazz = clazz.getSuperclass();
+        if (!Objects.equals(superClazz.getName(), "java.lang.Object")) {
+            _getFields(list, superClazz);
+        }
+    }
+
+    private static Map<Integer, Field> _getFieldMap(AbstractHBaseModel model) {
+        Map<Integer, Field> subMap = cacheFieldMap.get(model.getClass());
+        if (subMap == null) {
+            subMap = new ConcurrentHashMap<>();
+            List<Field> fields = new ArrayList<>();
+            _getFields(fields, model.getClass());
+            for (Field field : fields) {
+                HBaseField annotation = field.getAnnotation(HBaseField.class);
+                if (annotation != null) {
+                    subMap.put(annotation.id(), field);
+                    if (field.getAnnotation(HBaseMapField.class) != null && !mapFieldMap.containsKey(model.getClass())) {
+                        mapFieldMap.put(model.getClass(), field);
+                    }
+                }
+            }
+            cacheFieldMap.put(model.getClass(), subMap);
+        }
+        return subMap;
+    }
+
+    private static Map<Integer, byte[]> _getColumnMap(AbstractHBaseModel model) throws IllegalAccessException {
+        Map<Integer, byte[]> subMap = cacheColumnMap.get(model.getClass());
+        if (subMap == null) {
+            subMap = new ConcurrentHashMap<>();
+            List<Field> fields = new ArrayList<>();
+            _getFields(fields, model.getClass());
+            for (Field field : fields) {
+                HBaseColumn annotation = field.getAnnotation(HBaseColumn.class);
+                if (annotation != null) {
+                    field.setAccessible(true);
+                    byte[] bytes = (byte[]) field.get(model);
+                    subMap.put(annotation.id(), bytes);
+                    if (field.getAnnotation(HBaseMapColumn.class) != null) {
+                        mapColumnMap.put(model.getClass(), bytes);
+                    }
+                }
+            }
+            cacheColumnMap.put(model.getClass(), subMap);
+        }
+        return subMap;
+    }
+
+    private static byte[] _getFamily(AbstractHBaseModel model) throws IllegalAccessException {
+        byte[] familyRaw = familyMap.get(model.getClass());
+        if (familyRaw == null) {
+            List<Field> fields = new ArrayList<>();
+            _getFields(fields, model.getClass());
+            for (Field field : fields) {
+                if (field.getAnnotation(HBaseColumnFamily.class) != null) {
+                    field.setAccessible(true);
+                    familyRaw = (byte[]) field.get(model);
+                    familyMap.put(model.getClass(), familyRaw);
+                }
+            }
+        }
+        return familyRaw;
+    }
+}
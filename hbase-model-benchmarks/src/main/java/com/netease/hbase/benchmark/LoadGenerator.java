@@ -0,0 +1,271 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.dao.CRUDDao;
+import com.netease.hbase.dao.GetCoalescingConfig;
+import com.netease.hbase.dao.InMemoryTableProvider;
+import com.netease.hbase.dao.PutAggregationConfig;
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.metrics.LatencyHistogram;
+import com.netease.hbase.sample.MessageModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多线程压测工具：按比例混合put/get/scan，在指定并发下持续运行，输出每种操作的吞吐和延迟分位数
+ * 默认使用进程内的InMemoryTable（可以注入延迟），--cluster时使用hbase.xml配置的集群
+ *
+ * 参数（都是可选的）：
+ *   --threads 16          并发线程数
+ *   --duration 30         测量时间，秒
+ *   --warmup 5            预热时间，秒，预热期间的数据不计入结果
+ *   --mix put=20,get=70,scan=10   操作比例
+ *   --rows 100000         数据行数，put/get在这个范围内随机选择rowKey
+ *   --conversations 1000  会话数，每个会话是一对fromUid/toUid
+ *   --scan-rows 20        每次scan大约读取的行数
+ *   --latency-us 0        InMemoryTable每次RPC的固定延迟，微秒
+ *   --jitter-us 0         InMemoryTable每次RPC的随机延迟上限，微秒
+ *   --preload true        开始前是否先写入rows行数据
+ *   --coalesce-us         开启get合并，参数为最大额外延迟，微秒
+ *   --aggregate-puts      开启put合并，参数为后台写入线程数
+ *   --cluster             使用真实集群
+ *
+ */
+public class LoadGenerator {
+
+    private enum Op {
+        PUT,
+        GET,
+        SCAN,
+        ;
+    }
+
+    private static final long TO_UID_OFFSET = 1000000L;
+    private static final int PRELOAD_BATCH = 1000;
+
+    private final int threads;
+    private final long durationMs;
+    private final long warmupMs;
+    private final int[] weights = new int[Op.values().length];
+    private final int totalWeight;
+    private final long rows;
+    private final int conversations;
+    private final int scanRows;
+    private final boolean preload;
+    private final CRUDDao<MessageModel> dao;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+    private final LongAdder[] errors = new LongAdder[Op.values().length];
+    private final LongAdder scanned = new LongAdder();
+
+    private LoadGenerator(Map<String, String> options) {
+        this.threads = Integer.parseInt(_get(options, "threads", "16"));
+        this.durationMs = TimeUnit.SECONDS.toMillis(Long.parseLong(_get(options, "duration", "30")));
+        this.warmupMs = TimeUnit.SECONDS.toMillis(Long.parseLong(_get(options, "warmup", "5")));
+        this.rows = Long.parseLong(_get(options, "rows", "100000"));
+        this.conversations = Integer.parseInt(_get(options, "conversations", "1000"));
+        this.scanRows = Integer.parseInt(_get(options, "scan-rows", "20"));
+        this.preload = Boolean.parseBoolean(_get(options, "preload", "true"));
+        if (threads <= 0 || rows <= 0 || conversations <= 0 || scanRows <= 0) {
+            throw new IllegalArgumentException("threads/rows/conversations/scan-rows should be positive");
+        }
+        int total = 0;
+        for (String part : _get(options, "mix", "put=20,get=70,scan=10").split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("illegal mix = " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            weights[Op.valueOf(kv[0].trim().toUpperCase()).ordinal()] = weight;
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("mix should have a positive weight");
+        }
+        this.totalWeight = total;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+        }
+        if (!options.containsKey("cluster")) {
+            long latency = Long.parseLong(_get(options, "latency-us", "0"));
+            long jitter = Long.parseLong(_get(options, "jitter-us", "0"));
+            CRUDDao.setTableProvider(new InMemoryTableProvider().setLatency(latency, jitter, TimeUnit.MICROSECONDS));
+        }
+        this.dao = new CRUDDao<>(MessageModel.class);
+        if (options.containsKey("coalesce-us")) {
+            dao.enableGetCoalescing(new GetCoalescingConfig()
+                    .setMaxDelayMicros(Long.parseLong(options.get("coalesce-us"))));
+        }
+        if (options.containsKey("aggregate-puts")) {
+            dao.enablePutAggregation(new PutAggregationConfig()
+                    .setDispatcherThreads(Integer.parseInt(options.get("aggregate-puts"))));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(_parse(args));
+        if (generator.preload) {
+            generator.preload();
+        }
+        generator.run();
+    }
+
+    private static Map<String, String> _parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("illegal argument = " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+
+    private static String _get(Map<String, String> options, String key, String defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    private void preload() throws CRUDException {
+        long start = System.nanoTime();
+        List<MessageModel> batch = new ArrayList<>(PRELOAD_BATCH);
+        for (long i = 0; i < rows; i++) {
+            batch.add(_message(i));
+            if (batch.size() == PRELOAD_BATCH || i == rows - 1) {
+                dao.batchPut(batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("preload %d rows in %d ms%n", rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void run() throws InterruptedException {
+        final long warmupEnd = System.currentTimeMillis() + warmupMs;
+        final long end = warmupEnd + durationMs;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        _loop(end);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "load-generator-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long sleep = warmupEnd - System.currentTimeMillis();
+        if (sleep > 0) {
+            Thread.sleep(sleep);
+        }
+        //预热结束，丢弃之前的数据
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].reset();
+            errors[i].reset();
+        }
+        scanned.reset();
+        long measureStart = System.nanoTime();
+        done.await();
+        _report(System.nanoTime() - measureStart);
+    }
+
+    private void _loop(long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.currentTimeMillis() < end) {
+            Op op = _pick(random.nextInt(totalWeight));
+            long start = System.nanoTime();
+            try {
+                switch (op) {
+                    case PUT:
+                        dao.put(_message(random.nextLong(rows)));
+                        break;
+                    case GET:
+                        dao.get(_key(random.nextLong(rows)));
+                        break;
+                    case SCAN:
+                        long from = random.nextLong(rows);
+                        long conversation = from % conversations;
+                        //同一个会话的timestamp间隔为conversations
+                        List<MessageModel> list = dao.getList(MessageModel.class, MessageModel.getScan(
+                                conversation, conversation + TO_UID_OFFSET, from, from + (long) scanRows * conversations));
+                        scanned.add(list.size());
+                        break;
+                }
+            } catch (CRUDException e) {
+                errors[op.ordinal()].increment();
+            }
+            latencies[op.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+    }
+
+    private Op _pick(int value) {
+        for (Op op : Op.values()) {
+            value -= weights[op.ordinal()];
+            if (value < 0) {
+                return op;
+            }
+        }
+        return Op.GET;
+    }
+
+    private void _report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("threads = %d, duration = %.1f s%n", threads, seconds);
+        System.out.printf("%-6s %12s %12s %8s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "ops/s", "errors", "mean(us)", "p50(us)", "p95(us)", "p99(us)", "p999(us)", "max(us)");
+        long total = 0;
+        for (Op op : Op.values()) {
+            LatencyHistogram.Snapshot snapshot = latencies[op.ordinal()].snapshot();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            total += snapshot.getCount();
+            System.out.printf("%-6s %12d %12.1f %8d %10.1f %10d %10d %10d %10d %10d%n",
+                    op, snapshot.getCount(), snapshot.getCount() / seconds, errors[op.ordinal()].sum(), snapshot.getMean(),
+                    snapshot.percentile(0.5), snapshot.percentile(0.95), snapshot.percentile(0.99),
+                    snapshot.percentile(0.999), snapshot.getMax());
+        }
+        System.out.printf("total  %12d %12.1f%n", total, total / seconds);
+        if (dao.getGetCoalescingStats() != null) {
+            System.out.println(dao.getGetCoalescingStats());
+        }
+        if (dao.getPutAggregationStats() != null) {
+            System.out.println(dao.getPutAggregationStats());
+        }
+        if (latencies[Op.SCAN.ordinal()].getCount() > 0) {
+            System.out.printf("scanned rows per scan = %.1f%n", (double) scanned.sum() / latencies[Op.SCAN.ordinal()].getCount());
+        }
+    }
+
+    private MessageModel _key(long i) {
+        long conversation = i % conversations;
+        MessageModel model = new MessageModel();
+        model.fromUid = conversation;
+        model.toUid = conversation + TO_UID_OFFSET;
+        model.timestamp = i;
+        return model;
+    }
+
+    private MessageModel _message(long i) {
+        MessageModel model = _key(i);
+        model.body = "load generator message " + i;
+        model.extra = new HashMap<>();
+        model.extra.put("key1", "value1");
+        return model;
+    }
+}
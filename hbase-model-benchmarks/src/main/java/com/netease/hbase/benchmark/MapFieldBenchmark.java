@@ -0,0 +1,72 @@
+package com.netease.hbase.benchmark;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * map字段在不同大小下的toPut/parseResult速度，对比每个entry一列和整个map打包成一列
+ * parseAndGetOne只读取其中一个key，packed时不需要展开整个map
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapFieldBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int mapSize;
+
+    @Param({"false", "true"})
+    private boolean packed;
+
+    private MapModel model;
+    private Cell[] cells;
+    private String key;
+
+    @Setup
+    public void setup() {
+        model = new MapModel().fill(10086L, mapSize, packed);
+        cells = ModelMappingBenchmark.toCells(model.toPut());
+        key = "key-" + (mapSize / 2);
+    }
+
+    @Benchmark
+    public Put toPut() {
+        return model.toPut();
+    }
+
+    @Benchmark
+    public int parseResult() {
+        MapModel m = new MapModel();
+        m.parseResult(Result.create(cells));
+        Map<String, String> map = packed ? m.packedAttrs : m.attrs;
+        return map.size();
+    }
+
+    @Benchmark
+    public String parseAndGetOne() {
+        MapModel m = new MapModel();
+        m.parseResult(Result.create(cells));
+        Map<String, String> map = packed ? m.packedAttrs : m.attrs;
+        return map.get(key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MapFieldBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 带map字段的model，attrs每个entry一列，packedAttrs整个map一列
+ *
+ */
+@HBaseTableName(name = "map")
+@HBaseRowKey
+public class MapModel extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    @HBaseMapField
+    public Map<String, String> attrs;
+
+    @HBaseField(id = 3)
+    @HBaseMapField(packed = true)
+    public Map<String, String> packedAttrs;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_ATTRS = Bytes.toBytes("attrs");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_PACKED_ATTRS = Bytes.toBytes("packedAttrs");
+
+    /**
+     * 填充map字段
+     * @param id rowKey
+     * @param size map的大小
+     * @param packed true时填充packedAttrs，否则填充attrs
+     * @return this
+     */
+    public MapModel fill(long id, int size, boolean packed) {
+        this.id = id;
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put("key-" + i, "value-" + i + "-" + id);
+        }
+        if (packed) {
+            packedAttrs = map;
+        } else {
+            attrs = map;
+        }
+        return this;
+    }
+
+    @Override
+    public void check() {
+        if (id == null) {
+            throw new RuntimeException("id not be null");
+        }
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        check();
+        return encodeRowKey();
+    }
+}
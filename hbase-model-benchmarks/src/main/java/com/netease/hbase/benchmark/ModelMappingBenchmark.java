@@ -0,0 +1,88 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.sample.MessageModel;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageModel的toPut/parseResult对比：反射实现(legacy) vs 预编译的ModelCodec
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelMappingBenchmark {
+
+    private MessageModel model;
+    private Cell[] cells;
+
+    @Setup
+    public void setup() {
+        model = new MessageModel();
+        model.fromUid = 10086L;
+        model.toUid = 10010L;
+        model.timestamp = 1493712000000L;
+        model.body = "hello, this is a message body of moderate length";
+        model.extra = new HashMap<>();
+        model.extra.put("key1", "value1");
+        model.extra.put("key2", "value2");
+        cells = toCells(model.toPut());
+    }
+
+    @Benchmark
+    public Put legacyToPut() throws Exception {
+        return LegacyModelMapper.toPut(model);
+    }
+
+    @Benchmark
+    public Put codecToPut() {
+        return model.toPut();
+    }
+
+    @Benchmark
+    public MessageModel legacyParseResult() throws Exception {
+        MessageModel m = new MessageModel();
+        LegacyModelMapper.parseResult(m, Result.create(cells));
+        return m;
+    }
+
+    @Benchmark
+    public MessageModel codecParseResult() {
+        MessageModel m = new MessageModel();
+        m.parseResult(Result.create(cells));
+        return m;
+    }
+
+    //模拟服务端返回的Result，cell按KeyValue顺序排列
+    static Cell[] toCells(Put put) {
+        List<Cell> list = new ArrayList<>();
+        for (List<Cell> familyCells : put.getFamilyCellMap().values()) {
+            list.addAll(familyCells);
+        }
+        Collections.sort(list, KeyValue.COMPARATOR);
+        return list.toArray(new Cell[list.size()]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ModelMappingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
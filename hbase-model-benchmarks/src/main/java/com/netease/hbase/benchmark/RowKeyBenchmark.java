@@ -0,0 +1,103 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.RowKeyBuilder;
+import com.netease.hbase.sample.HashedMessageModel;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * rowKey的生成速度（keys/s）：改造前的md5Bytes + Bytes.add vs RowKeyBuilder vs RowKeyCodec，以及当前的AbstractHBaseModel.md5Bytes
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowKeyBenchmark {
+
+    private static final int ROW_KEY_LENGTH = RowKeyBuilder.MD5_LENGTH * 2 + Bytes.SIZEOF_LONG;
+
+    private long fromUid = 10086L;
+    private long toUid = 10010L;
+    private long timestamp = 1493712000000L;
+    private HashedMessageModel model;
+
+    @Setup
+    public void setup() {
+        model = new HashedMessageModel();
+        model.fromUid = fromUid;
+        model.toUid = toUid;
+    }
+
+    @Benchmark
+    public byte[] legacyRowKey() {
+        timestamp++;
+        return Bytes.add(legacyMd5Bytes(fromUid), legacyMd5Bytes(toUid), Bytes.toBytes(timestamp));
+    }
+
+    @Benchmark
+    public byte[] builderRowKey() {
+        timestamp++;
+        return new RowKeyBuilder(ROW_KEY_LENGTH).md5(fromUid).md5(toUid).putLong(timestamp).build();
+    }
+
+    //@HBaseRowKey(HASH_PREFIX)生成的28字节rowKey
+    @Benchmark
+    public byte[] hashPrefixRowKey() {
+        model.timestamp = ++timestamp;
+        return model.getRowKey();
+    }
+
+    @Benchmark
+    public byte[] legacyMd5() {
+        return legacyMd5Bytes(++fromUid);
+    }
+
+    @Benchmark
+    public byte[] builderMd5() {
+        return new RowKeyBuilder(RowKeyBuilder.MD5_LENGTH).md5(++fromUid).build();
+    }
+
+    @Benchmark
+    public byte[] md5Bytes() {
+        return Md5Model.md5(++fromUid);
+    }
+
+    //改造前AbstractHBaseModel.md5Bytes的实现
+    static byte[] legacyMd5Bytes(Object obj) {
+        try {
+            byte[] bytes = String.valueOf(obj).getBytes();
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            md.update(bytes, 0, bytes.length);
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("error while md5 hash");
+        }
+    }
+
+    //md5Bytes是protected的，通过子类调用
+    private static abstract class Md5Model extends AbstractHBaseModel {
+
+        static byte[] md5(Object obj) {
+            return md5Bytes(obj);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RowKeyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
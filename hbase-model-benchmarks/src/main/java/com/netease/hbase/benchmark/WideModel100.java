@@ -0,0 +1,740 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 100个字段的model，字段类型在Long/Integer/String之间轮换，rowKey为id
+ *
+ */
+@HBaseTableName(name = "wide100")
+@HBaseRowKey
+public class WideModel100 extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    public Integer f2;
+
+    @HBaseField(id = 3)
+    public String f3;
+
+    @HBaseField(id = 4)
+    public Long f4;
+
+    @HBaseField(id = 5)
+    public Integer f5;
+
+    @HBaseField(id = 6)
+    public String f6;
+
+    @HBaseField(id = 7)
+    public Long f7;
+
+    @HBaseField(id = 8)
+    public Integer f8;
+
+    @HBaseField(id = 9)
+    public String f9;
+
+    @HBaseField(id = 10)
+    public Long f10;
+
+    @HBaseField(id = 11)
+    public Integer f11;
+
+    @HBaseField(id = 12)
+    public String f12;
+
+    @HBaseField(id = 13)
+    public Long f13;
+
+    @HBaseField(id = 14)
+    public Integer f14;
+
+    @HBaseField(id = 15)
+    public String f15;
+
+    @HBaseField(id = 16)
+    public Long f16;
+
+    @HBaseField(id = 17)
+    public Integer f17;
+
+    @HBaseField(id = 18)
+    public String f18;
+
+    @HBaseField(id = 19)
+    public Long f19;
+
+    @HBaseField(id = 20)
+    public Integer f20;
+
+    @HBaseField(id = 21)
+    public String f21;
+
+    @HBaseField(id = 22)
+    public Long f22;
+
+    @HBaseField(id = 23)
+    public Integer f23;
+
+    @HBaseField(id = 24)
+    public String f24;
+
+    @HBaseField(id = 25)
+    public Long f25;
+
+    @HBaseField(id = 26)
+    public Integer f26;
+
+    @HBaseField(id = 27)
+    public String f27;
+
+    @HBaseField(id = 28)
+    public Long f28;
+
+    @HBaseField(id = 29)
+    public Integer f29;
+
+    @HBaseField(id = 30)
+    public String f30;
+
+    @HBaseField(id = 31)
+    public Long f31;
+
+    @HBaseField(id = 32)
+    public Integer f32;
+
+    @HBaseField(id = 33)
+    public String f33;
+
+    @HBaseField(id = 34)
+    public Long f34;
+
+    @HBaseField(id = 35)
+    public Integer f35;
+
+    @HBaseField(id = 36)
+    public String f36;
+
+    @HBaseField(id = 37)
+    public Long f37;
+
+    @HBaseField(id = 38)
+    public Integer f38;
+
+    @HBaseField(id = 39)
+    public String f39;
+
+    @HBaseField(id = 40)
+    public Long f40;
+
+    @HBaseField(id = 41)
+    public Integer f41;
+
+    @HBaseField(id = 42)
+    public String f42;
+
+    @HBaseField(id = 43)
+    public Long f43;
+
+    @HBaseField(id = 44)
+    public Integer f44;
+
+    @HBaseField(id = 45)
+    public String f45;
+
+    @HBaseField(id = 46)
+    public Long f46;
+
+    @HBaseField(id = 47)
+    public Integer f47;
+
+    @HBaseField(id = 48)
+    public String f48;
+
+    @HBaseField(id = 49)
+    public Long f49;
+
+    @HBaseField(id = 50)
+    public Integer f50;
+
+    @HBaseField(id = 51)
+    public String f51;
+
+    @HBaseField(id = 52)
+    public Long f52;
+
+    @HBaseField(id = 53)
+    public Integer f53;
+
+    @HBaseField(id = 54)
+    public String f54;
+
+    @HBaseField(id = 55)
+    public Long f55;
+
+    @HBaseField(id = 56)
+    public Integer f56;
+
+    @HBaseField(id = 57)
+    public String f57;
+
+    @HBaseField(id = 58)
+    public Long f58;
+
+    @HBaseField(id = 59)
+    public Integer f59;
+
+    @HBaseField(id = 60)
+    public String f60;
+
+    @HBaseField(id = 61)
+    public Long f61;
+
+    @HBaseField(id = 62)
+    public Integer f62;
+
+    @HBaseField(id = 63)
+    public String f63;
+
+    @HBaseField(id = 64)
+    public Long f64;
+
+    @HBaseField(id = 65)
+    public Integer f65;
+
+    @HBaseField(id = 66)
+    public String f66;
+
+    @HBaseField(id = 67)
+    public Long f67;
+
+    @HBaseField(id = 68)
+    public Integer f68;
+
+    @HBaseField(id = 69)
+    public String f69;
+
+    @HBaseField(id = 70)
+    public Long f70;
+
+    @HBaseField(id = 71)
+    public Integer f71;
+
+    @HBaseField(id = 72)
+    public String f72;
+
+    @HBaseField(id = 73)
+    public Long f73;
+
+    @HBaseField(id = 74)
+    public Integer f74;
+
+    @HBaseField(id = 75)
+    public String f75;
+
+    @HBaseField(id = 76)
+    public Long f76;
+
+    @HBaseField(id = 77)
+    public Integer f77;
+
+    @HBaseField(id = 78)
+    public String f78;
+
+    @HBaseField(id = 79)
+    public Long f79;
+
+    @HBaseField(id = 80)
+    public Integer f80;
+
+    @HBaseField(id = 81)
+    public String f81;
+
+    @HBaseField(id = 82)
+    public Long f82;
+
+    @HBaseField(id = 83)
+    public Integer f83;
+
+    @HBaseField(id = 84)
+    public String f84;
+
+    @HBaseField(id = 85)
+    public Long f85;
+
+    @HBaseField(id = 86)
+    public Integer f86;
+
+    @HBaseField(id = 87)
+    public String f87;
+
+    @HBaseField(id = 88)
+    public Long f88;
+
+    @HBaseField(id = 89)
+    public Integer f89;
+
+    @HBaseField(id = 90)
+    public String f90;
+
+    @HBaseField(id = 91)
+    public Long f91;
+
+    @HBaseField(id = 92)
+    public Integer f92;
+
+    @HBaseField(id = 93)
+    public String f93;
+
+    @HBaseField(id = 94)
+    public Long f94;
+
+    @HBaseField(id = 95)
+    public Integer f95;
+
+    @HBaseField(id = 96)
+    public String f96;
+
+    @HBaseField(id = 97)
+    public Long f97;
+
+    @HBaseField(id = 98)
+    public Integer f98;
+
+    @HBaseField(id = 99)
+    public String f99;
+
+    @HBaseField(id = 100)
+    public Long f100;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_F2 = Bytes.toBytes("f2");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_F3 = Bytes.toBytes("f3");
+
+    @HBaseColumn(id = 4)
+    private static final byte[] COL_F4 = Bytes.toBytes("f4");
+
+    @HBaseColumn(id = 5)
+    private static final byte[] COL_F5 = Bytes.toBytes("f5");
+
+    @HBaseColumn(id = 6)
+    private static final byte[] COL_F6 = Bytes.toBytes("f6");
+
+    @HBaseColumn(id = 7)
+    private static final byte[] COL_F7 = Bytes.toBytes("f7");
+
+    @HBaseColumn(id = 8)
+    private static final byte[] COL_F8 = Bytes.toBytes("f8");
+
+    @HBaseColumn(id = 9)
+    private static final byte[] COL_F9 = Bytes.toBytes("f9");
+
+    @HBaseColumn(id = 10)
+    private static final byte[] COL_F10 = Bytes.toBytes("f10");
+
+    @HBaseColumn(id = 11)
+    private static final byte[] COL_F11 = Bytes.toBytes("f11");
+
+    @HBaseColumn(id = 12)
+    private static final byte[] COL_F12 = Bytes.toBytes("f12");
+
+    @HBaseColumn(id = 13)
+    private static final byte[] COL_F13 = Bytes.toBytes("f13");
+
+    @HBaseColumn(id = 14)
+    private static final byte[] COL_F14 = Bytes.toBytes("f14");
+
+    @HBaseColumn(id = 15)
+    private static final byte[] COL_F15 = Bytes.toBytes("f15");
+
+    @HBaseColumn(id = 16)
+    private static final byte[] COL_F16 = Bytes.toBytes("f16");
+
+    @HBaseColumn(id = 17)
+    private static final byte[] COL_F17 = Bytes.toBytes("f17");
+
+    @HBaseColumn(id = 18)
+    private static final byte[] COL_F18 = Bytes.toBytes("f18");
+
+    @HBaseColumn(id = 19)
+    private static final byte[] COL_F19 = Bytes.toBytes("f19");
+
+    @HBaseColumn(id = 20)
+    private static final byte[] COL_F20 = Bytes.toBytes("f20");
+
+    @HBaseColumn(id = 21)
+    private static final byte[] COL_F21 = Bytes.toBytes("f21");
+
+    @HBaseColumn(id = 22)
+    private static final byte[] COL_F22 = Bytes.toBytes("f22");
+
+    @HBaseColumn(id = 23)
+    private static final byte[] COL_F23 = Bytes.toBytes("f23");
+
+    @HBaseColumn(id = 24)
+    private static final byte[] COL_F24 = Bytes.toBytes("f24");
+
+    @HBaseColumn(id = 25)
+    private static final byte[] COL_F25 = Bytes.toBytes("f25");
+
+    @HBaseColumn(id = 26)
+    private static final byte[] COL_F26 = Bytes.toBytes("f26");
+
+    @HBaseColumn(id = 27)
+    private static final byte[] COL_F27 = Bytes.toBytes("f27");
+
+    @HBaseColumn(id = 28)
+    private static final byte[] COL_F28 = Bytes.toBytes("f28");
+
+    @HBaseColumn(id = 29)
+    private static final byte[] COL_F29 = Bytes.toBytes("f29");
+
+    @HBaseColumn(id = 30)
+    private static final byte[] COL_F30 = Bytes.toBytes("f30");
+
+    @HBaseColumn(id = 31)
+    private static final byte[] COL_F31 = Bytes.toBytes("f31");
+
+    @HBaseColumn(id = 32)
+    private static final byte[] COL_F32 = Bytes.toBytes("f32");
+
+    @HBaseColumn(id = 33)
+    private static final byte[] COL_F33 = Bytes.toBytes("f33");
+
+    @HBaseColumn(id = 34)
+    private static final byte[] COL_F34 = Bytes.toBytes("f34");
+
+    @HBaseColumn(id = 35)
+    private static final byte[] COL_F35 = Bytes.toBytes("f35");
+
+    @HBaseColumn(id = 36)
+    private static final byte[] COL_F36 = Bytes.toBytes("f36");
+
+    @HBaseColumn(id = 37)
+    private static final byte[] COL_F37 = Bytes.toBytes("f37");
+
+    @HBaseColumn(id = 38)
+    private static final byte[] COL_F38 = Bytes.toBytes("f38");
+
+    @HBaseColumn(id = 39)
+    private static final byte[] COL_F39 = Bytes.toBytes("f39");
+
+    @HBaseColumn(id = 40)
+    private static final byte[] COL_F40 = Bytes.toBytes("f40");
+
+    @HBaseColumn(id = 41)
+    private static final byte[] COL_F41 = Bytes.toBytes("f41");
+
+    @HBaseColumn(id = 42)
+    private static final byte[] COL_F42 = Bytes.toBytes("f42");
+
+    @HBaseColumn(id = 43)
+    private static final byte[] COL_F43 = Bytes.toBytes("f43");
+
+    @HBaseColumn(id = 44)
+    private static final byte[] COL_F44 = Bytes.toBytes("f44");
+
+    @HBaseColumn(id = 45)
+    private static final byte[] COL_F45 = Bytes.toBytes("f45");
+
+    @HBaseColumn(id = 46)
+    private static final byte[] COL_F46 = Bytes.toBytes("f46");
+
+    @HBaseColumn(id = 47)
+    private static final byte[] COL_F47 = Bytes.toBytes("f47");
+
+    @HBaseColumn(id = 48)
+    private static final byte[] COL_F48 = Bytes.toBytes("f48");
+
+    @HBaseColumn(id = 49)
+    private static final byte[] COL_F49 = Bytes.toBytes("f49");
+
+    @HBaseColumn(id = 50)
+    private static final byte[] COL_F50 = Bytes.toBytes("f50");
+
+    @HBaseColumn(id = 51)
+    private static final byte[] COL_F51 = Bytes.toBytes("f51");
+
+    @HBaseColumn(id = 52)
+    private static final byte[] COL_F52 = Bytes.toBytes("f52");
+
+    @HBaseColumn(id = 53)
+    private static final byte[] COL_F53 = Bytes.toBytes("f53");
+
+    @HBaseColumn(id = 54)
+    private static final byte[] COL_F54 = Bytes.toBytes("f54");
+
+    @HBaseColumn(id = 55)
+    private static final byte[] COL_F55 = Bytes.toBytes("f55");
+
+    @HBaseColumn(id = 56)
+    private static final byte[] COL_F56 = Bytes.toBytes("f56");
+
+    @HBaseColumn(id = 57)
+    private static final byte[] COL_F57 = Bytes.toBytes("f57");
+
+    @HBaseColumn(id = 58)
+    private static final byte[] COL_F58 = Bytes.toBytes("f58");
+
+    @HBaseColumn(id = 59)
+    private static final byte[] COL_F59 = Bytes.toBytes("f59");
+
+    @HBaseColumn(id = 60)
+    private static final byte[] COL_F60 = Bytes.toBytes("f60");
+
+    @HBaseColumn(id = 61)
+    private static final byte[] COL_F61 = Bytes.toBytes("f61");
+
+    @HBaseColumn(id = 62)
+    private static final byte[] COL_F62 = Bytes.toBytes("f62");
+
+    @HBaseColumn(id = 63)
+    private static final byte[] COL_F63 = Bytes.toBytes("f63");
+
+    @HBaseColumn(id = 64)
+    private static final byte[] COL_F64 = Bytes.toBytes("f64");
+
+    @HBaseColumn(id = 65)
+    private static final byte[] COL_F65 = Bytes.toBytes("f65");
+
+    @HBaseColumn(id = 66)
+    private static final byte[] COL_F66 = Bytes.toBytes("f66");
+
+    @HBaseColumn(id = 67)
+    private static final byte[] COL_F67 = Bytes.toBytes("f67");
+
+    @HBaseColumn(id = 68)
+    private static final byte[] COL_F68 = Bytes.toBytes("f68");
+
+    @HBaseColumn(id = 69)
+    private static final byte[] COL_F69 = Bytes.toBytes("f69");
+
+    @HBaseColumn(id = 70)
+    private static final byte[] COL_F70 = Bytes.toBytes("f70");
+
+    @HBaseColumn(id = 71)
+    private static final byte[] COL_F71 = Bytes.toBytes("f71");
+
+    @HBaseColumn(id = 72)
+    private static final byte[] COL_F72 = Bytes.toBytes("f72");
+
+    @HBaseColumn(id = 73)
+    private static final byte[] COL_F73 = Bytes.toBytes("f73");
+
+    @HBaseColumn(id = 74)
+    private static final byte[] COL_F74 = Bytes.toBytes("f74");
+
+    @HBaseColumn(id = 75)
+    private static final byte[] COL_F75 = Bytes.toBytes("f75");
+
+    @HBaseColumn(id = 76)
+    private static final byte[] COL_F76 = Bytes.toBytes("f76");
+
+    @HBaseColumn(id = 77)
+    private static final byte[] COL_F77 = Bytes.toBytes("f77");
+
+    @HBaseColumn(id = 78)
+    private static final byte[] COL_F78 = Bytes.toBytes("f78");
+
+    @HBaseColumn(id = 79)
+    private static final byte[] COL_F79 = Bytes.toBytes("f79");
+
+    @HBaseColumn(id = 80)
+    private static final byte[] COL_F80 = Bytes.toBytes("f80");
+
+    @HBaseColumn(id = 81)
+    private static final byte[] COL_F81 = Bytes.toBytes("f81");
+
+    @HBaseColumn(id = 82)
+    private static final byte[] COL_F82 = Bytes.toBytes("f82");
+
+    @HBaseColumn(id = 83)
+    private static final byte[] COL_F83 = Bytes.toBytes("f83");
+
+    @HBaseColumn(id = 84)
+    private static final byte[] COL_F84 = Bytes.toBytes("f84");
+
+    @HBaseColumn(id = 85)
+    private static final byte[] COL_F85 = Bytes.toBytes("f85");
+
+    @HBaseColumn(id = 86)
+    private static final byte[] COL_F86 = Bytes.toBytes("f86");
+
+    @HBaseColumn(id = 87)
+    private static final byte[] COL_F87 = Bytes.toBytes("f87");
+
+    @HBaseColumn(id = 88)
+    private static final byte[] COL_F88 = Bytes.toBytes("f88");
+
+    @HBaseColumn(id = 89)
+    private static final byte[] COL_F89 = Bytes.toBytes("f89");
+
+    @HBaseColumn(id = 90)
+    private static final byte[] COL_F90 = Bytes.toBytes("f90");
+
+    @HBaseColumn(id = 91)
+    private static final byte[] COL_F91 = Bytes.toBytes("f91");
+
+    @HBaseColumn(id = 92)
+    private static final byte[] COL_F92 = Bytes.toBytes("f92");
+
+    @HBaseColumn(id = 93)
+    private static final byte[] COL_F93 = Bytes.toBytes("f93");
+
+    @HBaseColumn(id = 94)
+    private static final byte[] COL_F94 = Bytes.toBytes("f94");
+
+    @HBaseColumn(id = 95)
+    private static final byte[] COL_F95 = Bytes.toBytes("f95");
+
+    @HBaseColumn(id = 96)
+    private static final byte[] COL_F96 = Bytes.toBytes("f96");
+
+    @HBaseColumn(id = 97)
+    private static final byte[] COL_F97 = Bytes.toBytes("f97");
+
+    @HBaseColumn(id = 98)
+    private static final byte[] COL_F98 = Bytes.toBytes("f98");
+
+    @HBaseColumn(id = 99)
+    private static final byte[] COL_F99 = Bytes.toBytes("f99");
+
+    @HBaseColumn(id = 100)
+    private static final byte[] COL_F100 = Bytes.toBytes("f100");
+
+    /**
+     * 填充所有字段
+     * @param id rowKey
+     * @return this
+     */
+    public WideModel100 fill(long id) {
+        this.id = id;
+        f2 = (int) id + 2;
+        f3 = "value-" + 3 + "-" + id;
+        f4 = id + 4L;
+        f5 = (int) id + 5;
+        f6 = "value-" + 6 + "-" + id;
+        f7 = id + 7L;
+        f8 = (int) id + 8;
+        f9 = "value-" + 9 + "-" + id;
+        f10 = id + 10L;
+        f11 = (int) id + 11;
+        f12 = "value-" + 12 + "-" + id;
+        f13 = id + 13L;
+        f14 = (int) id + 14;
+        f15 = "value-" + 15 + "-" + id;
+        f16 = id + 16L;
+        f17 = (int) id + 17;
+        f18 = "value-" + 18 + "-" + id;
+        f19 = id + 19L;
+        f20 = (int) id + 20;
+        f21 = "value-" + 21 + "-" + id;
+        f22 = id + 22L;
+        f23 = (int) id + 23;
+        f24 = "value-" + 24 + "-" + id;
+        f25 = id + 25L;
+        f26 = (int) id + 26;
+        f27 = "value-" + 27 + "-" + id;
+        f28 = id + 28L;
+        f29 = (int) id + 29;
+        f30 = "value-" + 30 + "-" + id;
+        f31 = id + 31L;
+        f32 = (int) id + 32;
+        f33 = "value-" + 33 + "-" + id;
+        f34 = id + 34L;
+        f35 = (int) id + 35;
+        f36 = "value-" + 36 + "-" + id;
+        f37 = id + 37L;
+        f38 = (int) id + 38;
+        f39 = "value-" + 39 + "-" + id;
+        f40 = id + 40L;
+        f41 = (int) id + 41;
+        f42 = "value-" + 42 + "-" + id;
+        f43 = id + 43L;
+        f44 = (int) id + 44;
+        f45 = "value-" + 45 + "-" + id;
+        f46 = id + 46L;
+        f47 = (int) id + 47;
+        f48 = "value-" + 48 + "-" + id;
+        f49 = id + 49L;
+        f50 = (int) id + 50;
+        f51 = "value-" + 51 + "-" + id;
+        f52 = id + 52L;
+        f53 = (int) id + 53;
+        f54 = "value-" + 54 + "-" + id;
+        f55 = id + 55L;
+        f56 = (int) id + 56;
+        f57 = "value-" + 57 + "-" + id;
+        f58 = id + 58L;
+        f59 = (int) id + 59;
+        f60 = "value-" + 60 + "-" + id;
+        f61 = id + 61L;
+        f62 = (int) id + 62;
+        f63 = "value-" + 63 + "-" + id;
+        f64 = id + 64L;
+        f65 = (int) id + 65;
+        f66 = "value-" + 66 + "-" + id;
+        f67 = id + 67L;
+        f68 = (int) id + 68;
+        f69 = "value-" + 69 + "-" + id;
+        f70 = id + 70L;
+        f71 = (int) id + 71;
+        f72 = "value-" + 72 + "-" + id;
+        f73 = id + 73L;
+        f74 = (int) id + 74;
+        f75 = "value-" + 75 + "-" + id;
+        f76 = id + 76L;
+        f77 = (int) id + 77;
+        f78 = "value-" + 78 + "-" + id;
+        f79 = id + 79L;
+        f80 = (int) id + 80;
+        f81 = "value-" + 81 + "-" + id;
+        f82 = id + 82L;
+        f83 = (int) id + 83;
+        f84 = "value-" + 84 + "-" + id;
+        f85 = id + 85L;
+        f86 = (int) id + 86;
+        f87 = "value-" + 87 + "-" + id;
+        f88 = id + 88L;
+        f89 = (int) id + 89;
+        f90 = "value-" + 90 + "-" + id;
+        f91 = id + 91L;
+        f92 = (int) id + 92;
+        f93 = "value-" + 93 + "-" + id;
+        f94 = id + 94L;
+        f95 = (int) id + 95;
+        f96 = "value-" + 96 + "-" + id;
+        f97 = id + 97L;
+        f98 = (int) id + 98;
+        f99 = "value-" + 99 + "-" + id;
+        f100 = id + 100L;
+        return this;
+    }
+
+    @Override
+    public void check() {
+        if (id == null) {
+            throw new RuntimeException("id not be null");
+        }
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        check();
+        return encodeRowKey();
+    }
+}
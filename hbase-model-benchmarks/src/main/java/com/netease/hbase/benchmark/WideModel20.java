@@ -0,0 +1,180 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 20个字段的model，字段类型在Long/Integer/String之间轮换，rowKey为id
+ *
+ */
+@HBaseTableName(name = "wide20")
+@HBaseRowKey
+public class WideModel20 extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    public Integer f2;
+
+    @HBaseField(id = 3)
+    public String f3;
+
+    @HBaseField(id = 4)
+    public Long f4;
+
+    @HBaseField(id = 5)
+    public Integer f5;
+
+    @HBaseField(id = 6)
+    public String f6;
+
+    @HBaseField(id = 7)
+    public Long f7;
+
+    @HBaseField(id = 8)
+    public Integer f8;
+
+    @HBaseField(id = 9)
+    public String f9;
+
+    @HBaseField(id = 10)
+    public Long f10;
+
+    @HBaseField(id = 11)
+    public Integer f11;
+
+    @HBaseField(id = 12)
+    public String f12;
+
+    @HBaseField(id = 13)
+    public Long f13;
+
+    @HBaseField(id = 14)
+    public Integer f14;
+
+    @HBaseField(id = 15)
+    public String f15;
+
+    @HBaseField(id = 16)
+    public Long f16;
+
+    @HBaseField(id = 17)
+    public Integer f17;
+
+    @HBaseField(id = 18)
+    public String f18;
+
+    @HBaseField(id = 19)
+    public Long f19;
+
+    @HBaseField(id = 20)
+    public Integer f20;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_F2 = Bytes.toBytes("f2");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_F3 = Bytes.toBytes("f3");
+
+    @HBaseColumn(id = 4)
+    private static final byte[] COL_F4 = Bytes.toBytes("f4");
+
+    @HBaseColumn(id = 5)
+    private static final byte[] COL_F5 = Bytes.toBytes("f5");
+
+    @HBaseColumn(id = 6)
+    private static final byte[] COL_F6 = Bytes.toBytes("f6");
+
+    @HBaseColumn(id = 7)
+    private static final byte[] COL_F7 = Bytes.toBytes("f7");
+
+    @HBaseColumn(id = 8)
+    private static final byte[] COL_F8 = Bytes.toBytes("f8");
+
+    @HBaseColumn(id = 9)
+    private static final byte[] COL_F9 = Bytes.toBytes("f9");
+
+    @HBaseColumn(id = 10)
+    private static final byte[] COL_F10 = Bytes.toBytes("f10");
+
+    @HBaseColumn(id = 11)
+    private static final byte[] COL_F11 = Bytes.toBytes("f11");
+
+    @HBaseColumn(id = 12)
+    private static final byte[] COL_F12 = Bytes.toBytes("f12");
+
+    @HBaseColumn(id = 13)
+    private static final byte[] COL_F13 = Bytes.toBytes("f13");
+
+    @HBaseColumn(id = 14)
+    private static final byte[] COL_F14 = Bytes.toBytes("f14");
+
+    @HBaseColumn(id = 15)
+    private static final byte[] COL_F15 = Bytes.toBytes("f15");
+
+    @HBaseColumn(id = 16)
+    private static final byte[] COL_F16 = Bytes.toBytes("f16");
+
+    @HBaseColumn(id = 17)
+    private static final byte[] COL_F17 = Bytes.toBytes("f17");
+
+    @HBaseColumn(id = 18)
+    private static final byte[] COL_F18 = Bytes.toBytes("f18");
+
+    @HBaseColumn(id = 19)
+    private static final byte[] COL_F19 = Bytes.toBytes("f19");
+
+    @HBaseColumn(id = 20)
+    private static final byte[] COL_F20 = Bytes.toBytes("f20");
+
+    /**
+     * 填充所有字段
+     * @param id rowKey
+     * @return this
+     */
+    public WideModel20 fill(long id) {
+        this.id = id;
+        f2 = (int) id + 2;
+        f3 = "value-" + 3 + "-" + id;
+        f4 = id + 4L;
+        f5 = (int) id + 5;
+        f6 = "value-" + 6 + "-" + id;
+        f7 = id + 7L;
+        f8 = (int) id + 8;
+        f9 = "value-" + 9 + "-" + id;
+        f10 = id + 10L;
+        f11 = (int) id + 11;
+        f12 = "value-" + 12 + "-" + id;
+        f13 = id + 13L;
+        f14 = (int) id + 14;
+        f15 = "value-" + 15 + "-" + id;
+        f16 = id + 16L;
+        f17 = (int) id + 17;
+        f18 = "value-" + 18 + "-" + id;
+        f19 = id + 19L;
+        f20 = (int) id + 20;
+        return this;
+    }
+
+    @Override
+    public void check() {
+        if (id == null) {
+            throw new RuntimeException("id not be null");
+        }
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        check();
+        return encodeRowKey();
+    }
+}
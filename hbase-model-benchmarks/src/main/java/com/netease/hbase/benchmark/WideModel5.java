@@ -0,0 +1,75 @@
+package com.netease.hbase.benchmark;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 5个字段的model，字段类型在Long/Integer/String之间轮换，rowKey为id
+ *
+ */
+@HBaseTableName(name = "wide5")
+@HBaseRowKey
+public class WideModel5 extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    public Integer f2;
+
+    @HBaseField(id = 3)
+    public String f3;
+
+    @HBaseField(id = 4)
+    public Long f4;
+
+    @HBaseField(id = 5)
+    public Integer f5;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_F2 = Bytes.toBytes("f2");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_F3 = Bytes.toBytes("f3");
+
+    @HBaseColumn(id = 4)
+    private static final byte[] COL_F4 = Bytes.toBytes("f4");
+
+    @HBaseColumn(id = 5)
+    private static final byte[] COL_F5 = Bytes.toBytes("f5");
+
+    /**
+     * 填充所有字段
+     * @param id rowKey
+     * @return this
+     */
+    public WideModel5 fill(long id) {
+        this.id = id;
+        f2 = (int) id + 2;
+        f3 = "value-" + 3 + "-" + id;
+        f4 = id + 4L;
+        f5 = (int) id + 5;
+        return this;
+    }
+
+    @Override
+    public void check() {
+        if (id == null) {
+            throw new RuntimeException("id not be null");
+        }
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        check();
+        return encodeRowKey();
+    }
+}
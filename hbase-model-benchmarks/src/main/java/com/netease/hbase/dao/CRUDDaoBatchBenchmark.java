@@ -0,0 +1,65 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.sample.MessageModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUDDao批量操作的吞吐（batches/s），表是InMemoryTable
+ * batchSize超过BatchConfig.maxBatchSize时会拆块并发执行
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CRUDDaoBatchBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int batchSize;
+
+    private CRUDDao<MessageModel> dao;
+    private List<MessageModel> messages;
+
+    //表由InMemoryTableState安装，预写入的ROWS行覆盖了batchGet读取的[0, batchSize)
+    @Setup
+    public void setup(InMemoryTableState table) {
+        dao = new CRUDDao<>(MessageModel.class);
+        messages = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            messages.add(CRUDDaoBenchmark.message(i));
+        }
+    }
+
+    @Benchmark
+    public boolean[] batchPut() throws CRUDException {
+        return dao.batchPut(messages);
+    }
+
+    @Benchmark
+    public boolean[] batchGet() throws CRUDException {
+        //每次都用新的对象，和调用方的用法一致，parseResult不会覆盖已经有值的字段
+        List<MessageModel> keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            keys.add(CRUDDaoBenchmark.key(i));
+        }
+        return dao.batchGet(keys);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CRUDDaoBatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.sample.MessageModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUDDao单条操作的吞吐（ops/s），表是InMemoryTable，测的是getHTable、model映射、缓存/统计等客户端开销
+ * 写入的rowKey在ROWS范围内循环，避免数据无限增长；多线程（-t N）时所有线程共享同一个表
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CRUDDaoBenchmark {
+
+    static final int ROWS = 10000;
+
+    private CRUDDao<MessageModel> dao;
+    private int next = 0;
+
+    //表由InMemoryTableState安装和预写入，每个线程只有自己的dao和游标
+    @Setup
+    public void setup(InMemoryTableState table) {
+        dao = new CRUDDao<>(MessageModel.class);
+    }
+
+    @Benchmark
+    public boolean put() throws CRUDException {
+        return dao.put(message(_next()));
+    }
+
+    @Benchmark
+    public boolean get() throws CRUDException {
+        return dao.get(key(_next()));
+    }
+
+    @Benchmark
+    public boolean getMissing() throws CRUDException {
+        return dao.get(key(ROWS + _next()));
+    }
+
+    //删除后写回，保持数据量不变
+    @Benchmark
+    public boolean deleteAndPut() throws CRUDException {
+        int i = _next();
+        return dao.delete(key(i)) && dao.put(message(i));
+    }
+
+    private int _next() {
+        if (++next >= ROWS) {
+            next = 0;
+        }
+        return next;
+    }
+
+    static MessageModel key(long timestamp) {
+        MessageModel model = new MessageModel();
+        model.fromUid = 10086L;
+        model.toUid = 10010L;
+        model.timestamp = timestamp;
+        return model;
+    }
+
+    static MessageModel message(long timestamp) {
+        MessageModel model = key(timestamp);
+        model.body = "hello, this is a message body of moderate length";
+        model.extra = new HashMap<>();
+        model.extra.put("key1", "value1");
+        model.extra.put("key2", "value2");
+        return model;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CRUDDaoBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,26 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.sample.MessageModel;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 所有benchmark线程共享的InMemoryTable：每个trial安装一次provider并预先写入CRUDDaoBenchmark.ROWS行
+ * setTableProvider是全局的，必须放在Scope.Benchmark的state中；线程级的state在@Setup方法参数中依赖它，JMH保证它先初始化
+ *
+ */
+@State(Scope.Benchmark)
+public class InMemoryTableState {
+
+    @Setup(Level.Trial)
+    public void setup() throws CRUDException {
+        CRUDDao.setTableProvider(new InMemoryTableProvider());
+        CRUDDao<MessageModel> dao = new CRUDDao<>(MessageModel.class);
+        for (int i = 0; i < CRUDDaoBenchmark.ROWS; i++) {
+            dao.put(CRUDDaoBenchmark.message(i));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次操作获取表句柄 -> get -> close的吞吐（ops/s），对比改造前synchronized的_getTable和ConnectionHolder
+ * 表是本地内存中的桩实现，创建时和HTable一样会读取Configuration，用于模拟多线程下的锁竞争
+ * 放在com.netease.hbase.dao包下以访问包内的ConnectionHolder
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableHandleBenchmark {
+
+    private static final String TABLE_NAME = "message";
+    private static final int[] THREADS = {1, 8, 32, 128};
+
+    private static final byte[] ROW = Bytes.toBytes("row");
+    private static final byte[] FAMILY = Bytes.toBytes("d");
+    private static final byte[] QUALIFIER = Bytes.toBytes("body");
+
+    private ConnectionHolder holder;
+    private LegacyTableSource legacy;
+    private Get get;
+
+    @Setup
+    public void setup() {
+        Configuration conf = new Configuration(false);
+        conf.setLong("hbase.client.write.buffer", 2097152L);
+        conf.setInt("hbase.client.scanner.caching", 100);
+        conf.setInt("hbase.client.keyvalue.maxsize", -1);
+        conf.setInt("hbase.client.operation.timeout", 60000);
+        final Result result = Result.create(new Cell[]{new KeyValue(ROW, FAMILY, QUALIFIER, Bytes.toBytes("hello"))});
+        final HConnection connection = stubConnection(conf, result);
+        holder = new ConnectionHolder() {
+            @Override
+            protected HConnection createConnection(Configuration configuration) {
+                return connection;
+            }
+        };
+        holder.setConfiguration(conf);
+        legacy = new LegacyTableSource(connection);
+        get = new Get(ROW);
+    }
+
+    @Benchmark
+    public Result legacySynchronized() throws IOException {
+        HTableInterface table = legacy.getTable(TABLE_NAME);
+        try {
+            return table.get(get);
+        } finally {
+            table.close();
+        }
+    }
+
+    @Benchmark
+    public Result connectionHolder() throws IOException {
+        HTableInterface table = holder.getTable(TABLE_NAME);
+        try {
+            return table.get(get);
+        } finally {
+            table.close();
+        }
+    }
+
+    //改造前AbstractDao._getTable的实现：全局锁 + 每次新建表
+    private static final class LegacyTableSource {
+
+        private final HConnection conn;
+
+        LegacyTableSource(HConnection conn) {
+            this.conn = conn;
+        }
+
+        synchronized HTableInterface getTable(String tableName) throws IOException {
+            return conn.getTable(tableName);
+        }
+    }
+
+    //内存中的连接桩，getTable时像HTable.finishSetup一样读取配置
+    static HConnection stubConnection(final Configuration conf, final Result result) {
+        return (HConnection) Proxy.newProxyInstance(TableHandleBenchmark.class.getClassLoader(),
+                new Class[]{HConnection.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getTable":
+                                return stubTable(conf, result);
+                            case "isClosed":
+                                return false;
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    static HTableInterface stubTable(Configuration conf, final Result result) {
+        final long writeBufferSize = conf.getLong("hbase.client.write.buffer", 2097152L);
+        conf.getInt("hbase.client.scanner.caching", 1);
+        conf.getInt("hbase.client.keyvalue.maxsize", -1);
+        conf.getInt("hbase.client.operation.timeout", Integer.MAX_VALUE);
+        return (HTableInterface) Proxy.newProxyInstance(TableHandleBenchmark.class.getClassLoader(),
+                new Class[]{HTableInterface.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "get":
+                                return result;
+                            case "isAutoFlush":
+                                return true;
+                            case "getWriteBufferSize":
+                                return writeBufferSize;
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .include(TableHandleBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -1,19 +1,38 @@
 package com.netease.hbase.dao;
 
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.metrics.DaoMetrics;
+import com.netease.hbase.metrics.Operation;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
 import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.MasterNotRunningException;
+import org.apache.hadoop.hbase.ZooKeeperConnectionException;
 import org.apache.hadoop.hbase.client.HConnection;
-import org.apache.hadoop.hbase.client.HConnectionManager;
 import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.RetriesExhaustedException;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.ipc.RpcClient;
+import org.apache.hadoop.hbase.ipc.ServerNotRunningYetException;
+import org.apache.hadoop.hbase.regionserver.RegionServerStoppedException;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -23,13 +42,34 @@ class AbstractDao {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractDao.class);
 
-    private static Configuration globalConf = null;
-    private static HConnection _conn = null;
-    private static boolean init = false;
+    //连接和配置都通过holder发布，获取表时不需要全局锁
+    private static final ConnectionHolder holder = new ConnectionHolder();
+    private static volatile TableProvider provider = holder;
+    private static volatile boolean init = false;
+    //init是否只是因为使用了非默认的provider而跳过了加载，恢复默认provider时需要重新加载
+    private static boolean initSkipped = false;
+
+    //连续5次连接失败后熔断，探测间隔从1秒开始翻倍，最长30秒
+    private static final CircuitBreaker breaker = new CircuitBreaker(5, 1000L, 30000L);
+    private static final long RECONNECT_BASE_DELAY_MS = 1000L;
+    private static final long RECONNECT_MAX_DELAY_MS = 30000L;
+    //后台重连，同一时间只有一个重连任务
+    private static final ScheduledExecutorService reconnectExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "hbase-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final AtomicBoolean reconnecting = new AtomicBoolean(false);
+    private static final AtomicInteger reconnectAttempts = new AtomicInteger(0);
 
     private static final String HBASE_CONF_FILE_LOCATION = "hbase.xml";
 
     AbstractDao() {
+        if (init)
+            return;
         synchronized (AbstractDao.class) {
             if (init)
                 return;
@@ -51,69 +91,155 @@ class AbstractDao {
     }
 
     /**
-     * 获取表，包含重试逻辑
+     * 替换获取表的来源，之后所有的CRUDDao都从provider获取表；使用非默认的provider时不读取hbase.xml，连接失败也不会触发重连
+     * @param tableProvider provider，为null时恢复为hbase.xml配置的集群
+     */
+    static void useTableProvider(TableProvider tableProvider) {
+        synchronized (AbstractDao.class) {
+            provider = tableProvider == null ? holder : tableProvider;
+            if (provider != holder) {
+                if (!init) {
+                    init = true;
+                    initSkipped = true;
+                }
+            } else if (initSkipped) {
+                //hbase.xml还没有加载过，下一个CRUDDao创建时加载
+                init = false;
+                initSkipped = false;
+            }
+        }
+    }
+
+    /**
+     * 获取表，不在调用线程中重试：熔断打开时直接失败，获取失败时触发后台重连
      * @param tableName 表名
      * @return 表
+     * @throws CRUDException 熔断打开或获取表失败
      */
-    HTableInterface getHTable(String tableName) throws Exception {
-        int tryCount = 0;
-        while (tryCount < 3) {
-            try {
-                return _getTable(tableName);
-            } catch (Exception ex) {
-                tryCount ++;
-                logger.error("get table fail at tryCount = {}, ex = {}, retry after 5 sec", tryCount, ex.toString(), ex);
-                try {
-                    Thread.sleep(5000L);
-                } catch (InterruptedException e) {
-                    logger.error("sleep error, ex = {}", e.toString(), e);
-                }
-                _reload();
+    HTableInterface getHTable(String tableName) throws CRUDException {
+        long start = System.nanoTime();
+        int code = 0;
+        try {
+            if (!breaker.allowRequest()) {
+                code = CRUDException.Code.CIRCUIT_OPEN;
+                throw new CRUDException(code, "HBase unavailable, circuit open, table = " + tableName);
             }
+            return _getTable(tableName);
+        } catch (IOException e) {
+            logger.error("getHTable from HBase fail! table = {}, ex = {}", tableName, e.toString(), e);
+            _onConnectionFail();
+            code = CRUDException.Code.IO_ERROR;
+            throw new CRUDException(code, "getHTable error", e);
+        } finally {
+            DaoMetrics.table(tableName).record(Operation.GET_TABLE, start, 0, 0, 0, code);
         }
-        logger.error("getHTable from HBase fail! table = {}", tableName);
-        throw new RuntimeException("getHTable error");
     }
 
     /**
-     * 处理失败时的逻辑
+     * 获取表所有region的startKey，用于切分scan
+     * @param tableName 表名
+     * @return 有序的startKey列表，第一个region的startKey为空数组
      */
-    void onHBaseConnectionFail(){
-        logger.warn("HBase: connection fail, trigger reconnect...");
-        _reload();
+    List<byte[]> getRegionStartKeys(String tableName) throws IOException {
+        return provider.getRegionStartKeys(tableName);
     }
 
-    //释放连接
-    private void _disposeConn() {
-        if (_conn != null && !_conn.isClosed()) {
-            try {
-                _conn.close();
-                logger.info("close HBase connection success!");
-            } catch (IOException e) {
-                logger.error("close HBase connection fail! ex = {}", e.toString(), e);
+    /**
+     * 处理失败时的逻辑，只有连接级别的异常才会计入熔断并触发重连
+     * @param e 异常
+     */
+    void onHBaseConnectionFail(Throwable e) {
+        if (isConnectionError(e)) {
+            _onConnectionFail();
+        }
+    }
+
+    /**
+     * 请求成功，关闭熔断
+     */
+    void onHBaseSuccess() {
+        breaker.onSuccess();
+    }
+
+    /**
+     * 判断是否是连接级别的异常（集群/节点不可达），数据或请求本身的错误不算
+     * @param e 异常
+     * @return 是否是连接级别的异常
+     */
+    static boolean isConnectionError(Throwable e) {
+        for (int depth = 0; e != null && depth < 8; depth++, e = e.getCause()) {
+            if (e instanceof DoNotRetryIOException) {
+                return false;
+            }
+            if (e instanceof RetriesExhaustedWithDetailsException) {
+                return ((RetriesExhaustedWithDetailsException) e).mayHaveClusterIssues();
             }
+            if (e instanceof ConnectException || e instanceof NoRouteToHostException
+                    || e instanceof SocketTimeoutException || e instanceof ClosedChannelException
+                    || e instanceof MasterNotRunningException || e instanceof ZooKeeperConnectionException
+                    || e instanceof ServerNotRunningYetException || e instanceof RegionServerStoppedException
+                    || e instanceof RpcClient.FailedServerException || e instanceof RetriesExhaustedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void _onConnectionFail() {
+        if (breaker.onFailure()) {
+            DaoMetrics.onCircuitOpen();
+            logger.warn("HBase: circuit open after continuous connection failures, probe after {} ms", breaker.getBackoffMs());
         }
+        _scheduleReconnect();
     }
 
-    //获取连接
-    private HConnection _getConn() throws IOException {
-        if (_conn == null || _conn.isClosed()) {
-            _conn = HConnectionManager.createConnection(globalConf);
+    //提交后台重连任务，已有任务在执行时忽略，非默认的provider不需要重连
+    private void _scheduleReconnect() {
+        if (provider != holder || !reconnecting.compareAndSet(false, true)) {
+            return;
         }
-        return _conn;
+        int attempts = reconnectAttempts.get();
+        long delay = attempts == 0 ? 0 : Math.min(RECONNECT_MAX_DELAY_MS, RECONNECT_BASE_DELAY_MS << Math.min(attempts - 1, 16));
+        logger.warn("HBase: connection fail, trigger reconnect after {} ms, attempts = {}", delay, attempts);
+        reconnectExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                _reconnect();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
-    //获取表（线程安全）
-    private synchronized HTableInterface _getTable(String tblName) throws IOException {
+    //重新加载配置、登录并替换连接，失败时按指数退避再次重连
+    private void _reconnect() {
+        boolean success = false;
         try {
-            return _getConn().getTable(tblName);
-        } catch (IOException e) {
-            logger.warn("get HTable from connection fail! ex = {}", e.toString(), e);
-            _disposeConn();
-            throw e;
+            HConnection old = holder.currentConnection();
+            _reload();
+            holder.dispose(old);
+            holder.getConnection();
+            success = true;
+            logger.info("HBase: reconnect success!");
+        } catch (Exception e) {
+            logger.error("HBase: reconnect fail! ex = {}", e.toString(), e);
+        } finally {
+            DaoMetrics.onReconnect(success);
+            if (success) {
+                reconnectAttempts.set(0);
+            } else {
+                reconnectAttempts.incrementAndGet();
+            }
+            reconnecting.set(false);
+        }
+        if (!success) {
+            _scheduleReconnect();
         }
     }
 
+    //获取表，默认由holder缓存复用表句柄，获取失败时holder会释放连接
+    private HTableInterface _getTable(String tblName) throws IOException {
+        return provider.getTable(tblName);
+    }
+
     //重新加载配置文件并且重新登录
     private void _reload() {
         try {
@@ -138,11 +264,12 @@ class AbstractDao {
         }
         conf.addResource(new Path(url.getPath()));
         logger.info("HBase: Get HBase configuration file from " + url.getPath());
-        globalConf = conf;
+        holder.setConfiguration(conf);
     }
 
     //登录
     private void _kerberosLogin() {
+        Configuration globalConf = holder.getConfiguration();
         String keytabFile = globalConf.get("nim.hbase.security.keytab.file", null);
         String principal =  globalConf.get("nim.hbase.kerberos.principal", null);
         if (keytabFile != null && keytabFile.trim().length() > 0) {
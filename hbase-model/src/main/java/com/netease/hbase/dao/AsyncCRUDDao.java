@@ -0,0 +1,282 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.Projection;
+import org.apache.hadoop.hbase.client.Scan;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CRUDDao的异步版本，所有操作在有界线程池中执行并返回CompletableFuture，调用方可以同时发起多个请求
+ * future失败时的异常为CRUDException，错误码与CRUDDao一致；超时为TIMEOUT，线程池满为REJECTED
+ * future超时或被cancel时还没有开始的请求不再执行，已经在执行的请求不会被中断（中断HBase RPC会被当作连接异常，触发熔断和重连），
+ * 会在后台执行完，结果丢弃
+ * get/batchGet在model的副本上执行，future成功时才把结果复制到传入的model上，超时之后不会再修改传入的model
+ * 没有提供scan/stream/scanPage以及并行scan的异步版本，这些接口按行回调或返回迭代器，需要在调用方的线程中使用同步dao
+ *
+ */
+public class AsyncCRUDDao<T extends AbstractHBaseModel> implements Closeable {
+
+    private static final AtomicInteger poolId = new AtomicInteger();
+
+    private final CRUDDao<T> dao;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final ScheduledExecutorService timer;
+    private final long defaultTimeoutMs;
+
+    /**
+     * @param dao 同步dao
+     * @param threads 线程数
+     * @param queueSize 等待队列长度，满了之后新的请求直接以REJECTED失败
+     * @param defaultTimeoutMs 默认超时时间，小于等于0表示不超时
+     */
+    public AsyncCRUDDao(CRUDDao<T> dao, int threads, int queueSize, long defaultTimeoutMs) {
+        this(dao, new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), _threadFactory("hbase-async-" + poolId.incrementAndGet())),
+                true, defaultTimeoutMs);
+    }
+
+    /**
+     * 使用外部的线程池，close时不会关闭该线程池
+     * @param dao 同步dao
+     * @param executor 线程池，应当是有界的
+     * @param defaultTimeoutMs 默认超时时间，小于等于0表示不超时
+     */
+    public AsyncCRUDDao(CRUDDao<T> dao, ExecutorService executor, long defaultTimeoutMs) {
+        this(dao, executor, false, defaultTimeoutMs);
+    }
+
+    private AsyncCRUDDao(CRUDDao<T> dao, ExecutorService executor, boolean ownExecutor, long defaultTimeoutMs) {
+        this.dao = dao;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.timer = Executors.newSingleThreadScheduledExecutor(_threadFactory("hbase-async-timer-" + poolId.incrementAndGet()));
+    }
+
+    public CompletableFuture<Boolean> put(T model) {
+        return put(model, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Boolean> put(T model, long timeout, TimeUnit unit) {
+        return _submit("put", () -> dao.put(model), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<Boolean> delete(T model) {
+        return delete(model, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Boolean> delete(T model, long timeout, TimeUnit unit) {
+        return _submit("delete", () -> dao.delete(model), unit.toMillis(timeout));
+    }
+
+    /**
+     * 异步get，结果解析到传入的model上
+     */
+    public CompletableFuture<Boolean> get(T model) {
+        return get(model, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Boolean> get(T model, long timeout, TimeUnit unit) {
+        return get(model, null, timeout, unit);
+    }
+
+    /**
+     * 异步get，只读取投影中的字段
+     */
+    public CompletableFuture<Boolean> get(T model, Projection projection) {
+        return get(model, projection, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Boolean> get(T model, Projection projection, long timeout, TimeUnit unit) {
+        if (model == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        T copy = _copy(model);
+        return _submit("get", () -> dao.get(copy, projection), () -> model.copyFrom(copy), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<boolean[]> batchPut(List<T> models) {
+        return batchPut(models, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<boolean[]> batchPut(List<T> models, long timeout, TimeUnit unit) {
+        return _submit("batchPut", () -> dao.batchPut(models), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<BatchResult> batchPutDetailed(List<T> models) {
+        return batchPutDetailed(models, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<BatchResult> batchPutDetailed(List<T> models, long timeout, TimeUnit unit) {
+        return _submit("batchPut", () -> dao.batchPutDetailed(models), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<boolean[]> batchDelete(List<T> models) {
+        return batchDelete(models, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<boolean[]> batchDelete(List<T> models, long timeout, TimeUnit unit) {
+        return _submit("batchDelete", () -> dao.batchDelete(models), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<BatchResult> batchDeleteDetailed(List<T> models) {
+        return batchDeleteDetailed(models, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<BatchResult> batchDeleteDetailed(List<T> models, long timeout, TimeUnit unit) {
+        return _submit("batchDelete", () -> dao.batchDeleteDetailed(models), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<boolean[]> batchGet(List<T> models) {
+        return batchGet(models, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<boolean[]> batchGet(List<T> models, long timeout, TimeUnit unit) {
+        return batchGet(models, null, timeout, unit);
+    }
+
+    /**
+     * 异步batchGet，只读取投影中的字段
+     */
+    public CompletableFuture<boolean[]> batchGet(List<T> models, Projection projection) {
+        return batchGet(models, projection, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<boolean[]> batchGet(List<T> models, Projection projection, long timeout, TimeUnit unit) {
+        if (models == null || models.isEmpty()) {
+            return CompletableFuture.completedFuture(new boolean[0]);
+        }
+        List<T> copies = new ArrayList<>(models.size());
+        for (T model : models) {
+            copies.add(model == null ? null : _copy(model));
+        }
+        return _submit("batchGet", () -> dao.batchGet(copies, projection), () -> {
+            for (int i = 0; i < models.size(); i++) {
+                if (models.get(i) != null) {
+                    models.get(i).copyFrom(copies.get(i));
+                }
+            }
+        }, unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<List<T>> getList(Class<T> clazz, Scan scan) {
+        return getList(clazz, scan, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<List<T>> getList(Class<T> clazz, Scan scan, long timeout, TimeUnit unit) {
+        return _submit("scan", () -> dao.getList(clazz, scan), unit.toMillis(timeout));
+    }
+
+    public CompletableFuture<Integer> rowCount(Class<T> clazz, Scan scan) {
+        return rowCount(clazz, scan, defaultTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public CompletableFuture<Integer> rowCount(Class<T> clazz, Scan scan, long timeout, TimeUnit unit) {
+        return _submit("rowCount", () -> dao.rowCount(clazz, scan), unit.toMillis(timeout));
+    }
+
+    /**
+     * 关闭定时器，以及构造时创建的线程池
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private <V> CompletableFuture<V> _submit(String desc, Callable<V> task, long timeoutMs) {
+        return _submit(desc, task, null, timeoutMs);
+    }
+
+    /**
+     * @param publish 请求成功、future完成之前执行，把副本上的结果复制给调用方；超时之后不会执行
+     */
+    private <V> CompletableFuture<V> _submit(String desc, Callable<V> task, Runnable publish, long timeoutMs) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        //请求线程和超时定时器谁先设置谁决定future的结果，请求线程赢了才执行publish
+        AtomicBoolean settled = new AtomicBoolean(false);
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                V value;
+                try {
+                    value = task.call();
+                } catch (CRUDException e) {
+                    future.completeExceptionally(e);
+                    return;
+                } catch (Exception e) {
+                    future.completeExceptionally(new CRUDException(CRUDException.Code.UNKNOW_ERROR, desc + " error", e));
+                    return;
+                }
+                if (!settled.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    if (publish != null) {
+                        publish.run();
+                    }
+                    future.complete(value);
+                } catch (Exception e) {
+                    future.completeExceptionally(new CRUDException(CRUDException.Code.UNKNOW_ERROR, desc + " error", e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new CRUDException(CRUDException.Code.REJECTED, desc + " rejected", e));
+            return future;
+        }
+        ScheduledFuture<?> timeout = null;
+        if (timeoutMs > 0) {
+            timeout = timer.schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    future.completeExceptionally(new CRUDException(CRUDException.Code.TIMEOUT, desc + " timeout after " + timeoutMs + "ms"));
+                }
+            }, timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        ScheduledFuture<?> timeoutFuture = timeout;
+        future.whenComplete((v, e) -> {
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
+            }
+            //超时或被cancel时取消还没有开始的请求；不中断正在执行的请求，被中断的RPC会被当作连接异常
+            if (e != null) {
+                settled.set(true);
+                running.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    //get在副本上执行，副本带有model的所有HBaseField字段，生成的Get与原model一致
+    @SuppressWarnings("unchecked")
+    private static <T extends AbstractHBaseModel> T _copy(T model) {
+        try {
+            T copy = (T) model.getClass().getDeclaredConstructor().newInstance();
+            copy.copyFrom(model);
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("instantiate " + model.getClass().getName() + " error", e);
+        }
+    }
+
+    private static ThreadFactory _threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
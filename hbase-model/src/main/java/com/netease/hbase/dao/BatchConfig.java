@@ -0,0 +1,114 @@
+package com.netease.hbase.dao;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * batchPut/batchGet/batchDelete的分块配置
+ * 输入按条数和字节数切成多个块，每块一次RPC，多个块并发执行
+ * 失败条目的重试在HBase客户端自身的重试（hbase.client.retries.number）之外：客户端对每一轮请求内部重试用完后才返回失败条目，
+ * 这里再把失败条目重新发送，所以一条写入最多会尝试 (maxRetries + 1) * hbase.client.retries.number 次，
+ * 最长耗时也按同样的倍数放大；对延迟敏感的场景应当调小其中一个（例如降低连接配置中的hbase.client.retries.number，或设置maxRetries为0）
+ *
+ */
+public class BatchConfig {
+
+    //单个块的最大条数
+    private int maxBatchSize = 1000;
+    //单个块的最大字节数（按mutation的heapSize估算，get按rowKey长度估算）
+    private long maxBatchBytes = 2L * 1024 * 1024;
+    //同时执行的块数，包括调用线程，1表示在调用线程中顺序执行
+    private int parallelism = 4;
+    //执行块的线程池，为null时使用内置的共享线程池
+    private ExecutorService executor = null;
+    //batchPut/batchDelete中失败条目的最大重试次数，只重试失败的部分；与hbase.client.retries.number是相乘的关系，0表示只依赖客户端的重试
+    private int maxRetries = 3;
+    //第一次重试的退避时间，之后每次翻倍，实际等待时间在[0, 退避时间)中随机
+    private long retryBackoffMs = 100;
+    //退避时间上限
+    private long maxRetryBackoffMs = 2000;
+    //重试预算：每条成功的写入允许之后重试多少条
+    private double retryBudgetRatio = 0.1;
+    //重试预算的令牌上限，也是初始令牌数
+    private int retryBudgetTokens = 1000;
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public BatchConfig setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public BatchConfig setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public BatchConfig setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public BatchConfig setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public BatchConfig setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public BatchConfig setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+        return this;
+    }
+
+    public long getMaxRetryBackoffMs() {
+        return maxRetryBackoffMs;
+    }
+
+    public BatchConfig setMaxRetryBackoffMs(long maxRetryBackoffMs) {
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        return this;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public BatchConfig setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+        return this;
+    }
+
+    public int getRetryBudgetTokens() {
+        return retryBudgetTokens;
+    }
+
+    public BatchConfig setRetryBudgetTokens(int retryBudgetTokens) {
+        this.retryBudgetTokens = retryBudgetTokens;
+        return this;
+    }
+}
@@ -0,0 +1,112 @@
+package com.netease.hbase.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * batchPut/batchDelete每一条的执行结果，下标与输入列表一致
+ *
+ */
+public final class BatchResult {
+
+    public enum Status {
+        //写入成功
+        SUCCESS,
+        //可重试的失败，重试次数或重试预算用完后仍然失败
+        RETRYABLE_FAILURE,
+        //不可重试的失败（DoNotRetryIOException，例如列族不存在、数据不合法）
+        NON_RETRYABLE_FAILURE,
+    }
+
+    private final Status[] statuses;
+    private final Throwable[] errors;
+    private final int[] attempts;
+
+    BatchResult(int size) {
+        this.statuses = new Status[size];
+        this.errors = new Throwable[size];
+        this.attempts = new int[size];
+    }
+
+    void success(int index, int attempt) {
+        statuses[index] = Status.SUCCESS;
+        errors[index] = null;
+        attempts[index] = attempt;
+    }
+
+    void fail(int index, Status status, Throwable error, int attempt) {
+        statuses[index] = status;
+        errors[index] = error;
+        attempts[index] = attempt;
+    }
+
+    public int size() {
+        return statuses.length;
+    }
+
+    public Status getStatus(int index) {
+        return statuses[index];
+    }
+
+    public boolean isSuccess(int index) {
+        return statuses[index] == Status.SUCCESS;
+    }
+
+    /**
+     * @param index 下标
+     * @return 最后一次失败的原因，成功时为null
+     */
+    public Throwable getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * @param index 下标
+     * @return 发送的次数，1表示没有重试
+     */
+    public int getAttempts(int index) {
+        return attempts[index];
+    }
+
+    public boolean isAllSuccess() {
+        for (Status status : statuses) {
+            if (status != Status.SUCCESS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (Status status : statuses) {
+            if (status == Status.SUCCESS) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<Integer> getFailedIndexes() {
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != Status.SUCCESS) {
+                failed.add(i);
+            }
+        }
+        return failed;
+    }
+
+    public boolean[] toBooleanArray() {
+        boolean[] res = new boolean[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            res[i] = statuses[i] == Status.SUCCESS;
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{size=" + statuses.length + ", failed=" + getFailedIndexes() + '}';
+    }
+}
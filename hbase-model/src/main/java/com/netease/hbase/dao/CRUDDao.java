@@ -1,17 +1,32 @@
 package com.netease.hbase.dao;
 
 import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.Projection;
 import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.metrics.DaoMetrics;
+import com.netease.hbase.metrics.Operation;
+import com.netease.hbase.metrics.TableMetrics;
+import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.DoNotRetryIOException;
 import org.apache.hadoop.hbase.HBaseIOException;
+import org.apache.hadoop.hbase.KeyValueUtil;
 import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.filter.*;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -21,31 +36,68 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
 
     private static final Logger logger = LoggerFactory.getLogger(CRUDDao.class);
     private static final boolean[] EMPTY_BOOLEAN_ARRAY = new boolean[0];
+    //计数时每次rpc返回的行数，只有rowKey所以可以很大
+    private static final int COUNT_CACHING = 5000;
+
+    private final Class<T> clazz;
+    private final String tableName;
+    private volatile WriteBehindBuffer<T> writeBuffer;
+    private volatile ModelCache<T> cache;
+    private final NegativeLookup negativeLookup;
+    private volatile GetCoalescer coalescer;
+    private volatile PutAggregator<T> putAggregator;
+    private volatile BatchConfig batchConfig = new BatchConfig();
+    private volatile RetryBudget retryBudget = _retryBudget(batchConfig);
+    private final TableMetrics metrics;
 
     public CRUDDao(Class<T> clazz) {
         super();
-        String tableName = AbstractHBaseModel.getTableName(clazz);
+        this.clazz = clazz;
+        this.tableName = AbstractHBaseModel.getTableName(clazz);
+        this.metrics = DaoMetrics.table(tableName);
+        this.negativeLookup = NegativeLookup.table(tableName);
         if (tableName != null) {
             try {
-                getHTable(tableName);
+                close(tableName, getHTable(tableName));
             } catch (Exception e) {
                 logger.error("init HTable connect fail, ex = {}", e.toString(), e);
             }
         }
     }
 
+    /**
+     * 替换所有CRUDDao获取表的来源，例如使用InMemoryTableProvider在没有集群时运行
+     * 使用非默认的provider时不读取hbase.xml，在创建第一个CRUDDao之前设置可以避免加载配置文件
+     * @param provider provider，为null时恢复为hbase.xml配置的集群
+     */
+    public static void setTableProvider(TableProvider provider) {
+        useTableProvider(provider);
+    }
+
     private enum Exec {
-        PUT,
-        GET,
-        DELETE,
+        PUT(Operation.PUT),
+        GET(Operation.GET),
+        DELETE(Operation.DELETE),
         ;
+
+        private final Operation operation;
+
+        Exec(Operation operation) {
+            this.operation = operation;
+        }
     }
 
     private enum BatchExec {
-        BATCH_PUT,
-        BATCH_GET,
-        BATCH_DELETE,
+        BATCH_PUT(Operation.BATCH_PUT),
+        BATCH_GET(Operation.BATCH_GET),
+        BATCH_DELETE(Operation.BATCH_DELETE),
         ;
+
+        private final Operation operation;
+
+        BatchExec(Operation operation) {
+            this.operation = operation;
+        }
     }
 
     /**
@@ -55,19 +107,64 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
      * @throws CRUDException 异常
      */
     public boolean put(T model) throws CRUDException {
-        return model != null && exec(model, Exec.PUT);
+        if (model == null) return false;
+        PutAggregator<T> aggregator = putAggregator;
+        if (aggregator != null) {
+            return _aggregatedPut(model, aggregator);
+        }
+        return exec(model, Exec.PUT, null);
+    }
+
+    //与其他线程的put合并写入，阻塞直到写入完成；合并已关闭时直接写入
+    private boolean _aggregatedPut(T t, PutAggregator<T> aggregator) throws CRUDException {
+        long start = System.nanoTime();
+        int code = 0;
+        boolean queued = false;
+        boolean fallback = false;
+        Put put = null;
+        try {
+            put = t.toPut();
+            if (put == null) return false;
+            queued = aggregator.put(t, put);
+            fallback = !queued;
+        } catch (CRUDException e) {
+            code = e.getCode();
+            throw e;
+        } catch (Exception e) {
+            CRUDException ex = convertException(t.getClass(), e, Exec.PUT.toString());
+            code = ex.getCode();
+            throw ex;
+        } finally {
+            if (!fallback) {
+                metrics.record(Operation.PUT, start, queued ? 1 : 0, 0, queued ? sizeOf(put) : 0, code);
+            }
+        }
+        return queued || exec(t, Exec.PUT, null);
     }
 
     /**
-     * batchPut方法，一次性put多个对象
+     * batchPut方法，一次性put多个对象，失败的条目按batchConfig重试
      * @param models 对象列表
      * @return 返回一个boolean数组，true代表对应的对象put成功，false代表失败
-     * @throws CRUDException 异常
+     * @throws CRUDException 整个请求失败（例如连接异常）
      */
     public boolean[] batchPut(List<T> models) throws CRUDException {
         if (models == null || models.isEmpty()) {
             return EMPTY_BOOLEAN_ARRAY;
         }
+        return exec(models, BatchExec.BATCH_PUT).toBooleanArray();
+    }
+
+    /**
+     * batchPut方法，返回每一条的详细结果
+     * @param models 对象列表
+     * @return 每一条的结果，下标与models一致
+     * @throws CRUDException 整个请求失败（例如连接异常）
+     */
+    public BatchResult batchPutDetailed(List<T> models) throws CRUDException {
+        if (models == null || models.isEmpty()) {
+            return new BatchResult(0);
+        }
         return exec(models, BatchExec.BATCH_PUT);
     }
 
@@ -78,19 +175,32 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
      * @throws CRUDException 异常
      */
     public boolean delete(T model) throws CRUDException {
-        return model != null && exec(model, Exec.DELETE);
+        return model != null && exec(model, Exec.DELETE, null);
     }
 
     /**
-     * batchDelete方法，一次性删除多个对象
+     * batchDelete方法，一次性删除多个对象，失败的条目按batchConfig重试
      * @param models 对象列表
      * @return 返回一个boolean数组，true代表对象的对象put成功，false代表失败
-     * @throws CRUDException 异常
+     * @throws CRUDException 整个请求失败（例如连接异常）
      */
     public boolean[] batchDelete(List<T> models) throws CRUDException {
         if (models == null || models.isEmpty()) {
             return EMPTY_BOOLEAN_ARRAY;
         }
+        return exec(models, BatchExec.BATCH_DELETE).toBooleanArray();
+    }
+
+    /**
+     * batchDelete方法，返回每一条的详细结果
+     * @param models 对象列表
+     * @return 每一条的结果，下标与models一致
+     * @throws CRUDException 整个请求失败（例如连接异常）
+     */
+    public BatchResult batchDeleteDetailed(List<T> models) throws CRUDException {
+        if (models == null || models.isEmpty()) {
+            return new BatchResult(0);
+        }
         return exec(models, BatchExec.BATCH_DELETE);
     }
 
@@ -101,7 +211,84 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
      * @throws CRUDException 异常
      */
     public boolean get(T model) throws CRUDException {
-        return model != null && exec(model, Exec.GET);
+        return get(model, null);
+    }
+
+    /**
+     * get方法，只读取投影中的字段
+     * @param model model
+     * @param projection 投影，为null时读取整行
+     * @return 成功 or 失败
+     * @throws CRUDException 异常
+     */
+    public boolean get(T model, Projection projection) throws CRUDException {
+        if (model == null) return false;
+        boolean lookup = negativeLookup.isEnabled();
+        ModelCache<T> cache = projection == null ? this.cache : null;
+        if (lookup || cache != null) {
+            byte[] rowKey = _rowKey(model);
+            if (lookup && negativeLookup.isAbsent(rowKey)) {
+                return false;
+            }
+            if (cache != null) {
+                T cached = cache.get(rowKey);
+                if (cached != null) {
+                    return model.copyFrom(cached);
+                }
+            }
+        }
+        GetCoalescer coalescer = projection == null ? this.coalescer : null;
+        if (coalescer != null) {
+            return _coalescedGet(model, coalescer);
+        }
+        return exec(model, Exec.GET, projection);
+    }
+
+    //与其他线程的get合并读取，结果处理与exec中的GET一致
+    private boolean _coalescedGet(T t, GetCoalescer coalescer) throws CRUDException {
+        long start = System.nanoTime();
+        int rows = 0;
+        long bytes = 0;
+        int code = 0;
+        try {
+            Get get = t.toGet();
+            if (get == null) return false;
+            ModelCache<T> cache = this.cache;
+            long stamp = cache == null ? 0 : cache.stamp(get.getRow());
+            long absentStamp = _absentStamp(get, null);
+            Result result = coalescer.get(get);
+            rows = result == null || result.isEmpty() ? 0 : 1;
+            bytes = sizeOf(result);
+            if (cache != null) {
+                _cacheResult(cache, get.getRow(), result, stamp);
+            }
+            _recordAbsent(get, result, absentStamp);
+            return t.parseResult(result);
+        } catch (CRUDException e) {
+            code = e.getCode();
+            throw e;
+        } catch (Exception e) {
+            CRUDException ex = convertException(t.getClass(), e, Exec.GET.toString());
+            code = ex.getCode();
+            throw ex;
+        } finally {
+            metrics.record(Operation.GET, start, rows, 0, bytes, code);
+        }
+    }
+
+    //一次RPC读取多行，供合并get使用，统计由每个调用方自己记录
+    Result[] multiGet(List<Get> gets) throws CRUDException {
+        HTableInterface table = null;
+        try {
+            table = getHTable(tableName);
+            Result[] results = table.get(gets);
+            onHBaseSuccess();
+            return results;
+        } catch (Exception e) {
+            throw convertException(clazz, e, BatchExec.BATCH_GET.toString());
+        } finally {
+            close(tableName, table);
+        }
     }
 
     /**
@@ -111,14 +298,310 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
      * @throws CRUDException 异常
      */
     public boolean[] batchGet(List<T> models) throws CRUDException {
+        return batchGet(models, null);
+    }
+
+    /**
+     * batchGet方法，只读取投影中的字段
+     * @param models 对象列表
+     * @param projection 投影，为null时读取整行
+     * @return 返回一个boolean数组，true代表对应的对象get成功，false代表失败
+     * @throws CRUDException 异常
+     */
+    public boolean[] batchGet(List<T> models, Projection projection) throws CRUDException {
         if (models == null || models.isEmpty()) {
             return EMPTY_BOOLEAN_ARRAY;
         }
-        return exec(models, BatchExec.BATCH_GET);
+        boolean lookup = negativeLookup.isEnabled();
+        ModelCache<T> cache = projection == null ? this.cache : null;
+        if (!lookup && cache == null) {
+            return _batchGet(models, projection);
+        }
+        //一定不存在的和缓存命中的不再查HBase
+        boolean[] res = new boolean[models.size()];
+        List<T> misses = new ArrayList<>();
+        List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < models.size(); i++) {
+            T model = models.get(i);
+            byte[] rowKey = _rowKey(model);
+            if (lookup && negativeLookup.isAbsent(rowKey)) {
+                continue;
+            }
+            T cached = cache == null ? null : cache.get(rowKey);
+            if (cached != null) {
+                res[i] = model.copyFrom(cached);
+            } else {
+                misses.add(model);
+                missIndexes.add(i);
+            }
+        }
+        if (!misses.isEmpty()) {
+            boolean[] missRes = _batchGet(misses, projection);
+            for (int i = 0; i < missRes.length; i++) {
+                res[missIndexes.get(i)] = missRes[i];
+            }
+        }
+        return res;
+    }
+
+    /**
+     * 设置batchPut/batchGet/batchDelete的分块配置，超过单块上限的输入会拆成多次RPC并发执行
+     * 分块执行时某一块失败会抛出异常，其他已经完成的块不会回滚
+     * 失败条目的重试叠加在HBase客户端的hbase.client.retries.number之上，两者相乘，见{@link BatchConfig}
+     * @param config 配置
+     */
+    public void setBatchConfig(BatchConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config is null");
+        }
+        this.batchConfig = config;
+        this.retryBudget = _retryBudget(config);
+    }
+
+    private static RetryBudget _retryBudget(BatchConfig config) {
+        return new RetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetTokens());
+    }
+
+    public BatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    /**
+     * 开启读缓存，get/batchGet（不带投影时）先查缓存，未命中时查HBase并写入缓存
+     * 通过当前dao的put/delete/batchPut/batchDelete以及缓冲写入修改的行会失效，其他进程或其他dao的写入只能等待过期
+     * @param config 配置
+     */
+    public synchronized void enableCache(ModelCacheConfig config) {
+        if (cache != null) {
+            throw new IllegalStateException("cache already enabled");
+        }
+        cache = new ModelCache<>(config);
+    }
+
+    /**
+     * @return 缓存的统计数据，没有开启缓存时返回null
+     */
+    public CacheStats getCacheStats() {
+        ModelCache<T> cache = this.cache;
+        return cache == null ? null : cache.stats();
+    }
+
+    /**
+     * 使缓存中的一个对象失效
+     * @param model model，用于计算rowKey
+     */
+    public void invalidate(T model) {
+        if (model != null && cache != null) {
+            invalidateRow(model.getRowKey());
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clearCache() {
+        ModelCache<T> cache = this.cache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    //写入RPC完成（或失败）后调用，使缓存中的一行失效，该行也不再判定为不存在
+    void invalidateRow(byte[] row) {
+        if (row == null) {
+            return;
+        }
+        ModelCache<T> cache = this.cache;
+        if (cache != null) {
+            cache.invalidate(row);
+        }
+        negativeLookup.invalidate(row);
+    }
+
+    private byte[] _rowKey(T model) throws CRUDException {
+        try {
+            return model.getRowKey();
+        } catch (Exception e) {
+            throw convertException(model.getClass(), e, "GET");
+        }
+    }
+
+    //把HBase返回的结果解码到一个新的对象上写入缓存，调用方的model可能已经带有部分字段，不能直接缓存
+    private void _cacheResult(ModelCache<T> cache, byte[] row, Result result, long stamp) throws Exception {
+        if (result == null || result.isEmpty()) {
+            return;
+        }
+        T model = clazz.getDeclaredConstructor().newInstance();
+        if (model.parseResult(result)) {
+            cache.put(row, model, stamp);
+        }
+    }
+
+    /**
+     * 开启并发get的合并：同一个rowKey的并发get共享一次读取，窗口内不同rowKey的get合并成一次multi-get
+     * 只对不带投影的get生效，缓存命中和判定不存在的行不进入合并；每次get最多增加maxDelayMicros的延迟，
+     * 适合大量线程同时读取的场景，并发很低时只会增加延迟
+     * @param config 配置
+     */
+    public synchronized void enableGetCoalescing(GetCoalescingConfig config) {
+        if (coalescer != null) {
+            throw new IllegalStateException("get coalescing already enabled");
+        }
+        coalescer = new GetCoalescer(this, config);
+    }
+
+    /**
+     * @return 合并get的统计数据，没有开启时返回null
+     */
+    public GetCoalescingStats getGetCoalescingStats() {
+        GetCoalescer coalescer = this.coalescer;
+        return coalescer == null ? null : coalescer.stats();
+    }
+
+    /**
+     * 开启不存在行的负缓存：不带投影和filter的get读到空结果时记录该rowKey，ttl内get/batchGet这一行直接返回false，不发RPC
+     * 负缓存按表在进程内共享，对同一个表的所有CRUDDao生效；任意CRUDDao的put/delete/batch/缓冲写入/合并写入完成后该行立即失效，
+     * 其他进程写入的行在记录过期前仍会被判定为不存在，最长为ttl
+     * @param config 配置
+     */
+    public void enableNegativeLookup(NegativeLookupConfig config) {
+        negativeLookup.enable(config);
+    }
+
+    /**
+     * 清空负缓存，例如已知其他进程写入了大量数据时
+     */
+    public void clearNegativeLookup() {
+        negativeLookup.clear();
     }
 
     /**
-     * 查询scan出来的result数量
+     * @return 负缓存的统计数据（hit为本地判定不存在、跳过RPC的次数），没有开启时返回null
+     */
+    public CacheStats getNegativeLookupStats() {
+        return negativeLookup.stats();
+    }
+
+    //get发RPC前调用，只有读取整行且没有filter的get，空结果才能说明行不存在
+    private long _absentStamp(Get get, Projection projection) {
+        if (projection != null || get.getFilter() != null) {
+            return NegativeLookup.NO_STAMP;
+        }
+        return negativeLookup.stamp(get.getRow());
+    }
+
+    //get读到空结果时记录为不存在
+    private void _recordAbsent(Get get, Result result, long stamp) {
+        if (stamp != NegativeLookup.NO_STAMP && (result == null || result.isEmpty())) {
+            negativeLookup.putAbsent(get.getRow(), stamp);
+        }
+    }
+
+    /**
+     * 开启缓冲写入模式，之后可以通过putBuffered/deleteBuffered提交写入
+     * @param config 配置
+     */
+    public synchronized void enableWriteBuffer(WriteBufferConfig config) {
+        if (writeBuffer != null) {
+            throw new IllegalStateException("write buffer already enabled");
+        }
+        writeBuffer = new WriteBehindBuffer<>(this, tableName, config);
+    }
+
+    /**
+     * 缓冲写入put，返回时数据不一定已经写入，写入结果通过callback通知
+     * @param model model
+     * @param callback 完成回调，可以为null
+     * @return 是否成功进入缓冲区
+     * @throws CRUDException 缓冲区已关闭或已满
+     */
+    public boolean putBuffered(T model, MutationCallback<T> callback) throws CRUDException {
+        if (model == null) return false;
+        Put put = model.toPut();
+        if (put == null) return false;
+        _getWriteBuffer().submit(model, put, callback);
+        return true;
+    }
+
+    /**
+     * 缓冲写入delete，返回时数据不一定已经删除，结果通过callback通知
+     * @param model model
+     * @param callback 完成回调，可以为null
+     * @return 是否成功进入缓冲区
+     * @throws CRUDException 缓冲区已关闭或已满
+     */
+    public boolean deleteBuffered(T model, MutationCallback<T> callback) throws CRUDException {
+        if (model == null) return false;
+        Delete delete = model.toDelete();
+        if (delete == null) return false;
+        _getWriteBuffer().submit(model, delete, callback);
+        return true;
+    }
+
+    /**
+     * 阻塞直到之前缓冲的写入全部完成
+     * @throws CRUDException 异常
+     */
+    public void flush() throws CRUDException {
+        WriteBehindBuffer<T> buffer = writeBuffer;
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * 写完缓冲区中的数据并关闭缓冲写入模式
+     * @throws CRUDException 异常
+     */
+    public synchronized void closeWriteBuffer() throws CRUDException {
+        if (writeBuffer != null) {
+            writeBuffer.close();
+            writeBuffer = null;
+        }
+    }
+
+    /**
+     * 开启并发put的合并（group commit）：put仍然阻塞直到写入完成、返回各自的结果或异常，
+     * 但多个线程同时提交的put由后台线程合并成一次table.batch写入，适合大量线程各自写入一行的场景
+     * 只影响put(model)，batchPut/缓冲写入不变；同一行的并发put之间的先后顺序与直接写入一样没有保证
+     * @param config 配置
+     */
+    public synchronized void enablePutAggregation(PutAggregationConfig config) {
+        if (putAggregator != null) {
+            throw new IllegalStateException("put aggregation already enabled");
+        }
+        putAggregator = new PutAggregator<>(this, tableName, config);
+    }
+
+    /**
+     * 关闭put合并，等待已经提交的put写完，之后的put直接写入
+     */
+    public synchronized void closePutAggregation() {
+        PutAggregator<T> aggregator = putAggregator;
+        if (aggregator != null) {
+            putAggregator = null;
+            aggregator.close();
+        }
+    }
+
+    /**
+     * @return 合并put的统计数据，没有开启时返回null
+     */
+    public PutAggregationStats getPutAggregationStats() {
+        PutAggregator<T> aggregator = putAggregator;
+        return aggregator == null ? null : aggregator.stats();
+    }
+
+    private WriteBehindBuffer<T> _getWriteBuffer() {
+        WriteBehindBuffer<T> buffer = writeBuffer;
+        if (buffer == null) {
+            throw new IllegalStateException("write buffer not enabled");
+        }
+        return buffer;
+    }
+
+    /**
+     * 查询scan出来的result数量，服务端只返回rowKey
      * @param clazz 类型，用于获取表名
      * @param scan Scan对象
      * @return rowCount
@@ -127,12 +610,15 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
     public int rowCount(Class<T> clazz, Scan scan) throws CRUDException {
         int count = 0;
         if (scan == null) return count;
+        long start = System.nanoTime();
+        int code = 0;
         ResultScanner scanner = null;
         HTableInterface table = null;
         String tableName = AbstractHBaseModel.getTableName(clazz);
         try {
+            Scan countScan = _keyOnlyScan(scan);
             table = getHTable(tableName);
-            scanner = table.getScanner(scan);
+            scanner = table.getScanner(countScan);
             if (scanner != null) {
                 for (Result result : scanner) {
                     if (result != null) {
@@ -140,53 +626,282 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
                     }
                 }
             }
+            onHBaseSuccess();
         } catch (Exception e) {
-            handlerException(clazz, e, "rowCount");
+            CRUDException ex = convertException(clazz, e, "rowCount");
+            code = ex.getCode();
+            throw ex;
         } finally {
             close(tableName, scanner, table);
+            DaoMetrics.table(tableName).record(Operation.ROW_COUNT, start, count, 0, 0, code);
         }
         return count;
     }
 
     /**
-     * 根据Scan获取一组对象
+     * 抽样估算scan出来的result数量，服务端按chance随机保留行后计数，再按比例放大
+     * @param clazz 类型，用于获取表名
+     * @param scan Scan对象
+     * @param chance 抽样比例，(0, 1]
+     * @return 估算的rowCount
+     * @throws CRUDException 异常
+     */
+    public long estimateRowCount(Class<T> clazz, Scan scan, float chance) throws CRUDException {
+        return estimateRowCount(clazz, scan, chance, null);
+    }
+
+    /**
+     * 抽样估算scan出来的result数量，config不为null时并行计数
+     * @param clazz 类型，用于获取表名
+     * @param scan Scan对象
+     * @param chance 抽样比例，(0, 1]
+     * @param config 并行配置，可以为null
+     * @return 估算的rowCount
+     * @throws CRUDException 异常
+     */
+    public long estimateRowCount(Class<T> clazz, Scan scan, float chance, ParallelScanConfig config) throws CRUDException {
+        if (!(chance > 0 && chance <= 1)) {
+            throw new IllegalArgumentException("chance must be in (0, 1]");
+        }
+        if (scan == null) return 0;
+        Scan sampleScan;
+        try {
+            sampleScan = new Scan(scan);
+        } catch (IOException e) {
+            throw convertException(clazz, e, "estimateRowCount");
+        }
+        if (chance < 1) {
+            Filter sample = new RandomRowFilter(chance);
+            sampleScan.setFilter(scan.getFilter() == null ? sample : new FilterList(scan.getFilter(), sample));
+        }
+        int count = config == null ? rowCount(clazz, sampleScan) : rowCount(clazz, sampleScan, config);
+        return Math.round(count / (double) chance);
+    }
+
+    //计数用的scan：只返回rowKey（KeyOnlyFilter），没有其他filter时每行只取第一个cell（FirstKeyOnlyFilter）
+    //有其他filter时不加FirstKeyOnlyFilter，避免SingleColumnValueFilter之类需要看到整行的filter失效
+    //抽样的RandomRowFilter只按行决定是否保留，不需要看到整行，只有它时仍然加FirstKeyOnlyFilter
+    private static Scan _keyOnlyScan(Scan scan) throws IOException {
+        Scan countScan = new Scan(scan);
+        if (countScan.getBatch() > 0) {
+            //按batch拆开的一行会被重复计数
+            countScan.setBatch(-1);
+        }
+        Filter filter = scan.getFilter();
+        if (filter == null) {
+            countScan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        } else if (filter instanceof RandomRowFilter) {
+            countScan.setFilter(new FilterList(filter, new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        } else {
+            countScan.setFilter(new FilterList(filter, new KeyOnlyFilter()));
+        }
+        countScan.setCaching(Math.max(scan.getCaching(), COUNT_CACHING));
+        countScan.setCacheBlocks(false);
+        return countScan;
+    }
+
+    /**
+     * 根据Scan获取一组对象，所有结果都会加载到内存，范围较大时使用scan/stream/scanPage
      * @param clazz clazz对象，用于实例化
      * @param scan Scan对象
      * @return 一组对象
      * @throws CRUDException 异常
      */
     public List<T> getList(Class<T> clazz, Scan scan) throws CRUDException {
-        List<T> list = new ArrayList<>();
+        final List<T> list = new ArrayList<>();
         if (scan == null) return list;
+        scan(clazz, scan, new RowCallback<T>() {
+            @Override
+            public boolean onRow(T model) {
+                list.add(model);
+                return true;
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 流式scan，逐行读取，调用方必须close
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象
+     * @return scanner，可以作为Iterator使用
+     * @throws CRUDException 异常
+     */
+    public ModelScanner<T> scan(Class<T> clazz, Scan scan) throws CRUDException {
         ResultScanner scanner = null;
         HTableInterface table = null;
         String tableName = AbstractHBaseModel.getTableName(clazz);
         try {
             table = getHTable(tableName);
             scanner = table.getScanner(scan);
-            for (Result result : scanner) {
-                T t = clazz.newInstance();
-                boolean parseResult = t.parseResult(result);
-                if (parseResult) {
-                    list.add(t);
+            return new ModelScanner<>(this, clazz, tableName, table, scanner);
+        } catch (Exception e) {
+            close(tableName, scanner, table);
+            throw convertException(clazz, e, "scan");
+        }
+    }
+
+    /**
+     * 流式scan，返回的Stream关闭时关闭scanner，应当在try-with-resources中使用
+     * 遍历过程中的异常包装为CRUDRuntimeException
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象
+     * @return Stream
+     * @throws CRUDException 异常
+     */
+    public Stream<T> stream(Class<T> clazz, Scan scan) throws CRUDException {
+        ModelScanner<T> scanner = scan(clazz, scan);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(scanner, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(scanner::close);
+    }
+
+    /**
+     * 流式scan，每读到一行回调一次，回调返回false时停止
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象
+     * @param callback 回调
+     * @return 回调的行数
+     * @throws CRUDException 异常
+     */
+    public int scan(Class<T> clazz, Scan scan, RowCallback<T> callback) throws CRUDException {
+        int count = 0;
+        if (scan == null) return count;
+        ModelScanner<T> scanner = scan(clazz, scan);
+        try {
+            T t;
+            while ((t = scanner.nextModel()) != null) {
+                count++;
+                if (!callback.onRow(t)) {
+                    break;
                 }
             }
-        } catch (Exception e) {
-            handlerException(clazz, e, "scan");
         } finally {
-            close(tableName, scanner, table);
+            scanner.close();
+        }
+        return count;
+    }
+
+    /**
+     * 分页scan，从游标之后开始读取最多limit个对象，返回结果中带有下一页的游标
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象，每一页都传入同一个scan
+     * @param cursor 上一页返回的游标，为null时从头开始
+     * @param limit 每页的数量
+     * @return 一页结果
+     * @throws CRUDException 异常
+     */
+    public ScanPage<T> scanPage(Class<T> clazz, Scan scan, ScanCursor cursor, int limit) throws CRUDException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<T> list = new ArrayList<>(Math.min(limit, 1024));
+        if (scan == null) return new ScanPage<>(list, null);
+        Scan pageScan;
+        try {
+            pageScan = new Scan(scan);
+        } catch (IOException e) {
+            throw convertException(clazz, e, "scanPage");
+        }
+        if (cursor != null) {
+            //从上一页最后一行开始（正序和倒序scan都适用），跳过这一行
+            pageScan.setStartRow(cursor.getLastRow());
+        }
+        if (pageScan.getCaching() <= 0) {
+            pageScan.setCaching(Math.min(limit + 2, 1000));
+        }
+        ModelScanner<T> scanner = scan(clazz, pageScan);
+        try {
+            T t;
+            while (list.size() < limit && (t = scanner.nextModel()) != null) {
+                if (cursor != null && Bytes.equals(scanner.getLastRow(), cursor.getLastRow())) {
+                    continue;
+                }
+                list.add(t);
+            }
+            ScanCursor next = list.size() >= limit && scanner.hasMore() ? scanner.cursor() : null;
+            return new ScanPage<>(list, next);
+        } finally {
+            scanner.close();
         }
+    }
+
+    /**
+     * 并行scan，按region边界（或config中的切分点）切分后并发执行，结果与串行的getList相同（无序模式下顺序不同）
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象，不支持reversed
+     * @param config 并行配置
+     * @return 一组对象
+     * @throws CRUDException 异常
+     */
+    public List<T> getList(Class<T> clazz, Scan scan, ParallelScanConfig config) throws CRUDException {
+        final List<T> list = new ArrayList<>();
+        if (scan == null) return list;
+        scan(clazz, scan, config, new RowCallback<T>() {
+            @Override
+            public boolean onRow(T model) {
+                list.add(model);
+                return true;
+            }
+        });
         return list;
     }
 
+    /**
+     * 并行scan，回调在调用线程中执行，回调返回false时停止所有子scan
+     * @param clazz clazz对象，用于实例化
+     * @param scan Scan对象，不支持reversed
+     * @param config 并行配置
+     * @param callback 回调
+     * @return 回调的行数
+     * @throws CRUDException 异常
+     */
+    public int scan(Class<T> clazz, Scan scan, ParallelScanConfig config, RowCallback<T> callback) throws CRUDException {
+        if (scan == null) return 0;
+        return new ParallelScanner<>(this, clazz, _splitScan(clazz, scan, config), config).scan(callback);
+    }
+
+    /**
+     * 并行查询scan出来的result数量
+     * @param clazz 类型，用于获取表名
+     * @param scan Scan对象，不支持reversed
+     * @param config 并行配置，只使用parallelism、splitKeys和executor
+     * @return rowCount
+     * @throws CRUDException 异常
+     */
+    public int rowCount(Class<T> clazz, Scan scan, ParallelScanConfig config) throws CRUDException {
+        if (scan == null) return 0;
+        return new ParallelScanner<>(this, clazz, _splitScan(clazz, scan, config), config).rowCount();
+    }
+
+    //按切分点切分scan，没有指定切分点时使用region边界
+    private List<Scan> _splitScan(Class<T> clazz, Scan scan, ParallelScanConfig config) throws CRUDException {
+        try {
+            List<byte[]> splitKeys = config.getSplitKeys();
+            if (splitKeys == null) {
+                splitKeys = getRegionStartKeys(AbstractHBaseModel.getTableName(clazz));
+            } else {
+                splitKeys = new ArrayList<>(splitKeys);
+                Collections.sort(splitKeys, Bytes.BYTES_COMPARATOR);
+            }
+            return ParallelScanner.split(scan, splitKeys);
+        } catch (IOException e) {
+            throw convertException(clazz, e, "splitScan");
+        }
+    }
+
     /**
      * 策略模式执行CRUD操作
      * @param t 实例
      * @param exec 操作类型
+     * @param projection GET时的投影，可以为null
      * @return 成功 or 失败
      * @throws CRUDException 异常
      */
-    private boolean exec(T t, Exec exec) throws CRUDException {
+    private boolean exec(T t, Exec exec, Projection projection) throws CRUDException {
+        long start = System.nanoTime();
+        int rows = 0;
+        long bytes = 0;
+        int code = 0;
         HTableInterface table = null;
         try {
             table = getHTable(t.getTableName());
@@ -194,103 +909,351 @@ public class CRUDDao<T extends AbstractHBaseModel> extends AbstractDao {
                 case DELETE:
                     Delete delete = t.toDelete();
                     if (delete == null) return false;
-                    table.delete(delete);
+                    try {
+                        table.delete(delete);
+                    } finally {
+                        invalidateRow(delete.getRow());
+                    }
+                    onHBaseSuccess();
+                    rows = 1;
+                    bytes = sizeOf(delete);
                     return true;
                 case PUT:
                     Put put = t.toPut();
                     if (put == null) return false;
-                    table.put(put);
+                    try {
+                        table.put(put);
+                    } finally {
+                        invalidateRow(put.getRow());
+                    }
+                    onHBaseSuccess();
+                    rows = 1;
+                    bytes = sizeOf(put);
                     return true;
                 case GET:
-                    Get get = t.toGet();
+                    Get get = t.toGet(projection);
                     if (get == null) return false;
+                    //投影只读取了部分字段，不写入缓存
+                    ModelCache<T> cache = projection == null ? this.cache : null;
+                    long stamp = cache == null ? 0 : cache.stamp(get.getRow());
+                    long absentStamp = _absentStamp(get, projection);
                     Result result = table.get(get);
+                    onHBaseSuccess();
+                    rows = result == null || result.isEmpty() ? 0 : 1;
+                    bytes = sizeOf(result);
+                    if (cache != null) {
+                        _cacheResult(cache, get.getRow(), result, stamp);
+                    }
+                    _recordAbsent(get, result, absentStamp);
                     boolean parseResult = t.parseResult(result);
                     if (parseResult) {
                         return true;
                     }
             }
         } catch (Exception e) {
-            handlerException(t.getClass(), e, exec.toString());
+            CRUDException ex = convertException(t.getClass(), e, exec.toString());
+            code = ex.getCode();
+            throw ex;
         } finally {
             close(t.getTableName(), table);
+            metrics.record(exec.operation, start, rows, 0, bytes, code);
         }
         return false;
     }
 
-    private boolean[] exec(List<T> list, BatchExec exec) throws CRUDException {
-        boolean[] res = new boolean[list.size()];
+    //批量写入：按batchConfig分块，块之间并发执行，每块内只重试失败的条目
+    private BatchResult exec(final List<T> list, final BatchExec exec) throws CRUDException {
+        long start = System.nanoTime();
+        long bytes = 0;
+        int code = 0;
+        final BatchResult result = new BatchResult(list.size());
+        try {
+            final List<Row> rows = new ArrayList<>(list.size());
+            try {
+                for (T t : list) {
+                    Mutation mutation = exec == BatchExec.BATCH_PUT ? t.toPut() : t.toDelete();
+                    rows.add(mutation);
+                    bytes += sizeOf(mutation);
+                }
+            } catch (Exception e) {
+                handlerException(list.get(0).getClass(), e, exec.toString());
+            }
+            BatchConfig config = batchConfig;
+            List<int[]> chunks = ChunkedBatch.chunks(rows, config);
+            if (chunks.size() == 1) {
+                _mutateChunk(list, rows, exec, 0, list.size(), result);
+                return result;
+            }
+            ChunkedBatch.run(chunks, config, new ChunkedBatch.ChunkTask() {
+                @Override
+                public void run(int from, int to) throws CRUDException {
+                    _mutateChunk(list, rows, exec, from, to, result);
+                }
+            });
+            return result;
+        } catch (CRUDException e) {
+            code = e.getCode();
+            throw e;
+        } finally {
+            int success = result.getSuccessCount();
+            metrics.record(exec.operation, start, success, list.size() - success, bytes, code);
+        }
+    }
+
+    //执行一个写入块，第一次发送时整个请求失败直接抛出，之后只重试失败的条目
+    //每一轮_mutate内部HBase客户端已经按hbase.client.retries.number重试过，这里的重试次数与之相乘
+    private void _mutateChunk(List<T> list, List<Row> rows, BatchExec exec, int from, int to, BatchResult result) throws CRUDException {
+        BatchConfig config = batchConfig;
+        List<Integer> pending = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pending.add(i);
+        }
+        for (int attempt = 1; ; attempt++) {
+            List<Row> attemptRows = new ArrayList<>(pending.size());
+            for (int index : pending) {
+                attemptRows.add(rows.get(index));
+            }
+            Object[] results;
+            try {
+                results = _mutate(list.get(0), attemptRows, exec);
+            } catch (CRUDException e) {
+                if (attempt == 1) {
+                    throw e;
+                }
+                //重试时整个请求失败，保留之前的进度，剩下的条目记为失败
+                for (int index : pending) {
+                    result.fail(index, BatchResult.Status.RETRYABLE_FAILURE, e, attempt);
+                }
+                return;
+            }
+            List<Integer> retry = new ArrayList<>();
+            int success = 0;
+            for (int i = 0; i < results.length; i++) {
+                int index = pending.get(i);
+                Object o = results[i];
+                if (o != null && !(o instanceof Throwable)) {
+                    result.success(index, attempt);
+                    success++;
+                } else if (o instanceof DoNotRetryIOException) {
+                    result.fail(index, BatchResult.Status.NON_RETRYABLE_FAILURE, (Throwable) o, attempt);
+                } else {
+                    result.fail(index, BatchResult.Status.RETRYABLE_FAILURE, (Throwable) o, attempt);
+                    retry.add(index);
+                }
+            }
+            retryBudget.onSuccess(success);
+            if (retry.isEmpty() || attempt > config.getMaxRetries() || !retryBudget.tryRetry(retry.size())) {
+                return;
+            }
+            if (!_backoff(config, attempt)) {
+                return;
+            }
+            pending = retry;
+        }
+    }
+
+    //一次RPC写入，返回每一条的结果（成功为Result，失败为Throwable），部分失败不抛异常
+    private Object[] _mutate(T t, List<Row> rows, BatchExec exec) throws CRUDException {
+        Object[] result = new Object[rows.size()];
+        HTableInterface table = null;
+        try {
+            table = getHTable(t.getTableName());
+            try {
+                table.batch(rows, result);
+            } finally {
+                _invalidateRows(rows);
+            }
+            onHBaseSuccess();
+        } catch (RetriesExhaustedWithDetailsException e) {
+            //部分条目失败，失败原因已经填在result中；有成功的条目说明连接正常，全部失败且疑似集群异常时才计入熔断
+            logger.warn("{} {} partial fail, failed = {}, ex = {}", t.getClass().getSimpleName(), exec, e.getNumExceptions(), e.getMessage());
+            if (e.getNumExceptions() < rows.size()) {
+                onHBaseSuccess();
+            } else {
+                onHBaseConnectionFail(e);
+            }
+        } catch (Exception e) {
+            handlerException(t.getClass(), e, exec.toString());
+        } finally {
+            close(t.getTableName(), table);
+        }
+        return result;
+    }
+
+    //重试前的退避，full jitter，被中断时返回false
+    private static boolean _backoff(BatchConfig config, int attempt) {
+        long backoff = Math.min(config.getMaxRetryBackoffMs(), config.getRetryBackoffMs() << Math.min(attempt - 1, 20));
+        if (backoff <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //批量读取：按batchConfig分块，块之间并发执行，结果按下标合并
+    private boolean[] _batchGet(final List<T> list, final Projection projection) throws CRUDException {
+        long start = System.nanoTime();
+        int code = 0;
+        final boolean[] res = new boolean[list.size()];
+        //读到的行数和字节数，分块并发时由多个线程累加
+        final LongAdder found = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        try {
+            final List<Get> gets = new ArrayList<>(list.size());
+            try {
+                for (T t : list) {
+                    gets.add(t.toGet(projection));
+                }
+            } catch (Exception e) {
+                handlerException(list.get(0).getClass(), e, BatchExec.BATCH_GET.toString());
+            }
+            BatchConfig config = batchConfig;
+            List<int[]> chunks = ChunkedBatch.chunks(gets, config);
+            if (chunks.size() == 1) {
+                _getChunk(list, gets, projection, res, 0, found, bytes);
+                return res;
+            }
+            ChunkedBatch.run(chunks, config, new ChunkedBatch.ChunkTask() {
+                @Override
+                public void run(int from, int to) throws CRUDException {
+                    _getChunk(list.subList(from, to), gets.subList(from, to), projection, res, from, found, bytes);
+                }
+            });
+            return res;
+        } catch (CRUDException e) {
+            code = e.getCode();
+            throw e;
+        } finally {
+            metrics.record(Operation.BATCH_GET, start, found.intValue(), 0, bytes.sum(), code);
+        }
+    }
+
+    //一次RPC读取一个块，结果写入res[offset...]，存在的行数和读取的字节数累加到found和bytes
+    private void _getChunk(List<T> list, List<Get> gets, Projection projection, boolean[] res, int offset,
+                           LongAdder found, LongAdder bytes) throws CRUDException {
         HTableInterface table = null;
         try {
             table = getHTable(list.get(0).getTableName());
-            switch (exec) {
-                case BATCH_DELETE:
-                    List<Delete> deletes = new ArrayList<>();
-                    for (T t : list) {
-                        deletes.add(t.toDelete());
-                    }
-                    Object[] result = new Object[list.size()];
-                    table.batch(deletes, result);
-                    for (int i = 0; i < result.length; i++) {
-                        res[i] = result[i] != null;
-                    }
-                    return res;
-                case BATCH_PUT:
-                    List<Put> puts = new ArrayList<>();
-                    for (T t : list) {
-                        puts.add(t.toPut());
-                    }
-                    result = new Object[puts.size()];
-                    table.batch(puts, result);
-                    for (int i = 0; i < result.length; i++) {
-                        res[i] = result[i] != null;
-                    }
-                    return res;
-                case BATCH_GET:
-                    List<Get> gets = new ArrayList<>();
-                    for (T t : list) {
-                        gets.add(t.toGet());
-                    }
-                    Result[] results = table.get(gets);
-                    for (int i = 0; i < results.length; i++) {
-                        T t = list.get(i);
-                        res[i] = t.parseResult(results[i]);
-                    }
-                    return res;
+            ModelCache<T> cache = projection == null ? this.cache : null;
+            long[] stamps = null;
+            if (cache != null) {
+                stamps = new long[gets.size()];
+                for (int i = 0; i < stamps.length; i++) {
+                    stamps[i] = cache.stamp(gets.get(i).getRow());
+                }
+            }
+            long[] absentStamps = null;
+            if (negativeLookup.isEnabled()) {
+                absentStamps = new long[gets.size()];
+                for (int i = 0; i < absentStamps.length; i++) {
+                    absentStamps[i] = _absentStamp(gets.get(i), projection);
+                }
+            }
+            Result[] results = table.get(gets);
+            onHBaseSuccess();
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null && !results[i].isEmpty()) {
+                    found.increment();
+                    bytes.add(sizeOf(results[i]));
+                }
+                T t = list.get(i);
+                res[offset + i] = t.parseResult(results[i]);
+                if (cache != null) {
+                    _cacheResult(cache, gets.get(i).getRow(), results[i], stamps[i]);
+                }
+                if (absentStamps != null) {
+                    _recordAbsent(gets.get(i), results[i], absentStamps[i]);
+                }
             }
         } catch (Exception e) {
-            handlerException(list.get(0).getClass(), e, exec.toString());
+            handlerException(list.get(0).getClass(), e, BatchExec.BATCH_GET.toString());
         } finally {
             close(list.get(0).getTableName(), table);
         }
-        return res;
+    }
+
+    /**
+     * @return 本表的统计，同一个表的多个CRUDDao共享
+     */
+    public TableMetrics getMetrics() {
+        return metrics;
+    }
+
+    //Result中所有cell的序列化长度之和
+    static long sizeOf(Result result) {
+        if (result == null || result.isEmpty()) {
+            return 0;
+        }
+        long bytes = 0;
+        for (Cell cell : result.rawCells()) {
+            bytes += KeyValueUtil.length(cell);
+        }
+        return bytes;
+    }
+
+    //Mutation中所有cell的序列化长度之和，delete整行时只有rowKey
+    static long sizeOf(Mutation mutation) {
+        if (mutation == null) {
+            return 0;
+        }
+        if (mutation.isEmpty()) {
+            return mutation.getRow().length;
+        }
+        long bytes = 0;
+        for (List<Cell> cells : mutation.getFamilyCellMap().values()) {
+            for (int i = 0; i < cells.size(); i++) {
+                bytes += KeyValueUtil.length(cells.get(i));
+            }
+        }
+        return bytes;
+    }
+
+    private void _invalidateRows(List<? extends Row> rows) {
+        for (Row row : rows) {
+            if (row != null) {
+                invalidateRow(row.getRow());
+            }
+        }
     }
 
     //处理各种异常的情况
-    private void handlerException(Class clazz, Exception e, String desc) throws CRUDException {
-        if (e instanceof DoNotRetryIOException) {
-            onException(clazz, e, desc, CRUDException.Code.HBASE_NO_RETRY_ERROR, true);
+    private void handlerException(Class<?> clazz, Exception e, String desc) throws CRUDException {
+        throw convertException(clazz, e, desc);
+    }
+
+    //将异常转换为CRUDException，连接级别的异常会计入熔断并触发后台重连
+    CRUDException convertException(Class<?> clazz, Exception e, String desc) {
+        if (e instanceof CRUDException) {
+            //getHTable已经处理过的异常（熔断打开、获取表失败）
+            return (CRUDException) e;
+        } else if (e instanceof DoNotRetryIOException) {
+            return onException(clazz, e, desc, CRUDException.Code.HBASE_NO_RETRY_ERROR, true);
         } else if (e instanceof HBaseIOException) {
-            onException(clazz, e, desc, CRUDException.Code.HBASE_RETRY_ERROR, true);
+            return onException(clazz, e, desc, CRUDException.Code.HBASE_RETRY_ERROR, true);
         } else if (e instanceof IOException) {
-            onException(clazz, e, desc, CRUDException.Code.IO_ERROR, true);
+            return onException(clazz, e, desc, CRUDException.Code.IO_ERROR, true);
         } else {
-            onException(clazz, e, desc, CRUDException.Code.UNKNOW_ERROR, false);
+            return onException(clazz, e, desc, CRUDException.Code.UNKNOW_ERROR, false);
         }
     }
 
     //处理异常的情况
-    private void onException(Class clazz, Exception e, String desc, int code, boolean isConfReload) throws CRUDException {
+    private CRUDException onException(Class<?> clazz, Exception e, String desc, int code, boolean isConfReload) {
         if (isConfReload) {
-            onHBaseConnectionFail();
+            onHBaseConnectionFail(e);
         }
         String instanceName = clazz.getSimpleName();
         logger.error("{} {} fail, ex = {}", instanceName, desc, e.toString(), e);
-        throw new CRUDException(code, desc + " error", e);
+        return new CRUDException(code, desc + " error", e);
     }
 
     //关闭相关资源
-    private void close(String tableName, Closeable... object) {
+    void close(String tableName, Closeable... object) {
         for (Closeable o : object) {
             if (o != null) {
                 try {
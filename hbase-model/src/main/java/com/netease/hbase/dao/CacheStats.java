@@ -0,0 +1,68 @@
+package com.netease.hbase.dao;
+
+/**
+ * model缓存的统计数据快照
+ *
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long invalidationCount;
+    private final long size;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, long invalidationCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.invalidationCount = invalidationCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 因为容量不足被淘汰的数量
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return 因为过期被移除的数量
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return 因为写入/删除被失效的数量
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hit=" + hitCount + ", miss=" + missCount + ", eviction=" + evictionCount
+                + ", expiration=" + expirationCount + ", invalidation=" + invalidationCount + ", size=" + size + "}";
+    }
+}
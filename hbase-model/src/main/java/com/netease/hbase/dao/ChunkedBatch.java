@@ -0,0 +1,143 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.io.HeapSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分块执行batch操作：按条数和字节数把输入切成多个块，调用线程和线程池一起领取块执行
+ * 每块的结果由调用方写回到整体结果的对应下标，保持与不分块时相同的下标对应关系
+ * 任意一块失败时不再领取新的块，等已经开始的块结束后抛出第一个异常（已经完成的块不会回滚）
+ *
+ */
+class ChunkedBatch {
+
+    private static final AtomicInteger threadId = new AtomicInteger();
+    private static final ExecutorService sharedExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "hbase-batch-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * 执行一个块，结果由实现方按下标写入整体结果
+     */
+    interface ChunkTask {
+        /**
+         * @param from 起始下标（包含）
+         * @param to 结束下标（不包含）
+         */
+        void run(int from, int to) throws CRUDException;
+    }
+
+    private ChunkedBatch() {
+    }
+
+    /**
+     * 按配置切块
+     * @param rows 每一条对应的Row，可以包含null
+     * @param config 配置
+     * @return 每块的[from, to)
+     */
+    static List<int[]> chunks(List<? extends Row> rows, BatchConfig config) {
+        int maxSize = Math.max(1, config.getMaxBatchSize());
+        long maxBytes = Math.max(1, config.getMaxBatchBytes());
+        List<int[]> chunks = new ArrayList<>();
+        int from = 0;
+        long bytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            long size = _size(rows.get(i));
+            if (i > from && (i - from >= maxSize || bytes + size > maxBytes)) {
+                chunks.add(new int[]{from, i});
+                from = i;
+                bytes = 0;
+            }
+            bytes += size;
+        }
+        chunks.add(new int[]{from, rows.size()});
+        return chunks;
+    }
+
+    /**
+     * 执行所有块
+     * @param chunks 块
+     * @param config 配置
+     * @param task 块的执行逻辑
+     * @throws CRUDException 任意一块失败
+     */
+    static void run(final List<int[]> chunks, BatchConfig config, final ChunkTask task) throws CRUDException {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        Callable<Void> worker = new Callable<Void>() {
+            @Override
+            public Void call() throws CRUDException {
+                int index;
+                while (!failed.get() && (index = next.getAndIncrement()) < chunks.size()) {
+                    int[] chunk = chunks.get(index);
+                    try {
+                        task.run(chunk[0], chunk[1]);
+                    } catch (CRUDException | RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+                return null;
+            }
+        };
+        int workers = Math.max(1, Math.min(config.getParallelism(), chunks.size()));
+        ExecutorService executor = config.getExecutor() != null ? config.getExecutor() : sharedExecutor;
+        List<Future<Void>> futures = new ArrayList<>(workers - 1);
+        CRUDException error = null;
+        try {
+            for (int i = 1; i < workers; i++) {
+                futures.add(executor.submit(worker));
+            }
+        } catch (RejectedExecutionException e) {
+            //线程池满时剩下的块由调用线程执行
+        }
+        try {
+            worker.call();
+        } catch (Exception e) {
+            error = e instanceof CRUDException ? (CRUDException) e
+                    : new CRUDException(CRUDException.Code.UNKNOW_ERROR, "batch error", e);
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof CRUDException ? (CRUDException) e.getCause()
+                            : new CRUDException(CRUDException.Code.UNKNOW_ERROR, "batch error", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                if (error == null) {
+                    error = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while batching", e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static long _size(Row row) {
+        if (row == null) {
+            return 0;
+        }
+        if (row instanceof HeapSize) {
+            return ((HeapSize) row).heapSize();
+        }
+        return row.getRow() == null ? 0 : row.getRow().length;
+    }
+}
@@ -0,0 +1,98 @@
+package com.netease.hbase.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 熔断器：连续失败达到阈值后打开，打开期间请求直接失败；
+ * 每隔一段时间（指数退避）放行一个探测请求，探测成功后关闭，失败则退避时间翻倍
+ * 正常状态下allowRequest和onSuccess都只读volatile字段，不加锁
+ *
+ */
+class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private volatile boolean open = false;
+    private volatile int failures = 0;
+    private volatile long backoffNanos;
+    //打开后是否已经放行过探测请求，打开前已在执行的请求失败时不应该增加退避时间
+    private volatile boolean probing = false;
+    //下一次允许探测的时间
+    private final AtomicLong nextProbeNanos = new AtomicLong();
+
+    /**
+     * @param failureThreshold 连续失败多少次后打开
+     * @param baseBackoffMs 第一次打开后的等待时间
+     * @param maxBackoffMs 最大等待时间
+     */
+    CircuitBreaker(int failureThreshold, long baseBackoffMs, long maxBackoffMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseBackoffNanos = TimeUnit.MILLISECONDS.toNanos(baseBackoffMs);
+        this.maxBackoffNanos = Math.max(baseBackoffNanos, TimeUnit.MILLISECONDS.toNanos(maxBackoffMs));
+        this.backoffNanos = baseBackoffNanos;
+    }
+
+    /**
+     * @return 是否放行请求，打开状态下每个退避周期只放行一个探测请求
+     */
+    boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long next = nextProbeNanos.get();
+        if (now - next >= 0 && nextProbeNanos.compareAndSet(next, now + backoffNanos)) {
+            probing = true;
+            return true;
+        }
+        return false;
+    }
+
+    void onSuccess() {
+        if (!open && failures == 0) {
+            return;
+        }
+        synchronized (this) {
+            failures = 0;
+            backoffNanos = baseBackoffNanos;
+            probing = false;
+            open = false;
+        }
+    }
+
+    /**
+     * 记录一次连接级别的失败
+     * @return 是否因为这次失败而打开
+     */
+    synchronized boolean onFailure() {
+        failures++;
+        long now = System.nanoTime();
+        if (open) {
+            if (!probing) {
+                return false;
+            }
+            //探测失败，退避时间翻倍
+            probing = false;
+            backoffNanos = Math.min(maxBackoffNanos, backoffNanos * 2);
+            nextProbeNanos.set(now + backoffNanos);
+            return false;
+        }
+        if (failures >= failureThreshold) {
+            nextProbeNanos.set(now + backoffNanos);
+            open = true;
+            return true;
+        }
+        return false;
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    long getBackoffMs() {
+        return TimeUnit.NANOSECONDS.toMillis(backoffNanos);
+    }
+}
@@ -0,0 +1,218 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.HConnection;
+import org.apache.hadoop.hbase.client.HConnectionManager;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 管理HBase连接和表句柄
+ * 连接通过volatile字段发布，只有创建/释放连接时才加锁；表句柄按表名缓存在无锁队列中复用，
+ * 避免每次操作都新建HTable（HTable初始化时会读取同步的Configuration）
+ *
+ */
+class ConnectionHolder implements TableProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHolder.class);
+
+    static final int DEFAULT_MAX_IDLE_PER_TABLE = 64;
+
+    private final Object connLock = new Object();
+    private final ConcurrentMap<String, TablePool> pools = new ConcurrentHashMap<>();
+    private final int maxIdlePerTable;
+
+    private volatile Configuration conf;
+    private volatile HConnection conn;
+
+    ConnectionHolder() {
+        this(DEFAULT_MAX_IDLE_PER_TABLE);
+    }
+
+    /**
+     * @param maxIdlePerTable 每张表最多缓存的空闲句柄数，小于等于0表示不缓存
+     */
+    ConnectionHolder(int maxIdlePerTable) {
+        this.maxIdlePerTable = maxIdlePerTable;
+    }
+
+    Configuration getConfiguration() {
+        return conf;
+    }
+
+    /**
+     * 更新配置，已有的连接不受影响，下次创建连接时使用新的配置
+     */
+    void setConfiguration(Configuration conf) {
+        this.conf = conf;
+    }
+
+    /**
+     * 获取表句柄，使用完后调用close归还
+     * @param tableName 表名
+     * @return 表
+     * @throws IOException 创建连接或表失败，此时会释放当前连接
+     */
+    @Override
+    public HTableInterface getTable(String tableName) throws IOException {
+        HConnection connection = getConnection();
+        TablePool pool = _pool(tableName);
+        PooledHTable table;
+        while ((table = pool.idle.poll()) != null) {
+            pool.size.decrementAndGet();
+            if (table.getConnection() == connection) {
+                table.acquire();
+                return table;
+            }
+            //连接已经更换，丢弃旧连接上的句柄
+            _closeQuietly(tableName, table);
+        }
+        try {
+            table = new PooledHTable(this, tableName, connection, connection.getTable(tableName));
+        } catch (IOException e) {
+            logger.warn("get HTable from connection fail! ex = {}", e.toString(), e);
+            dispose(connection);
+            throw e;
+        }
+        table.acquire();
+        return table;
+    }
+
+    /**
+     * @return 当前的连接，可能为null，不会创建新连接
+     */
+    HConnection currentConnection() {
+        return conn;
+    }
+
+    /**
+     * 获取连接，连接不存在或已关闭时创建新连接
+     */
+    HConnection getConnection() throws IOException {
+        HConnection connection = conn;
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        synchronized (connLock) {
+            connection = conn;
+            if (connection == null || connection.isClosed()) {
+                Configuration configuration = conf;
+                if (configuration == null) {
+                    throw new IOException("HBase configuration not loaded");
+                }
+                connection = createConnection(configuration);
+                conn = connection;
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * 释放连接以及缓存的表句柄，只有当前连接仍是expected时才释放，避免并发失败时关掉别的线程刚建好的连接
+     * @param expected 期望释放的连接，为null时释放当前连接
+     */
+    void dispose(HConnection expected) {
+        HConnection connection;
+        synchronized (connLock) {
+            connection = conn;
+            if (connection == null || (expected != null && connection != expected)) {
+                return;
+            }
+            conn = null;
+        }
+        _clearPools();
+        if (!connection.isClosed()) {
+            try {
+                connection.close();
+                logger.info("close HBase connection success!");
+            } catch (IOException e) {
+                logger.error("close HBase connection fail! ex = {}", e.toString(), e);
+            }
+        }
+    }
+
+    @Override
+    public List<byte[]> getRegionStartKeys(String tableName) throws IOException {
+        List<HRegionLocation> locations = getConnection().locateRegions(TableName.valueOf(tableName));
+        List<byte[]> keys = new ArrayList<>(locations.size());
+        for (HRegionLocation location : locations) {
+            keys.add(location.getRegionInfo().getStartKey());
+        }
+        Collections.sort(keys, Bytes.BYTES_COMPARATOR);
+        return keys;
+    }
+
+    //创建连接，benchmark中可以覆盖为本地实现
+    protected HConnection createConnection(Configuration configuration) throws IOException {
+        return HConnectionManager.createConnection(configuration);
+    }
+
+    //归还表句柄，连接已更换、关闭了autoFlush或池已满时直接关闭
+    void release(String tableName, PooledHTable table) throws IOException {
+        if (!table.release()) {
+            return;
+        }
+        if (maxIdlePerTable <= 0 || table.getConnection() != conn || !table.isAutoFlush()) {
+            table.closeTable();
+            return;
+        }
+        TablePool pool = _pool(tableName);
+        if (pool.size.incrementAndGet() > maxIdlePerTable) {
+            pool.size.decrementAndGet();
+            table.closeTable();
+            return;
+        }
+        pool.idle.offer(table);
+    }
+
+    private TablePool _pool(String tableName) {
+        TablePool pool = pools.get(tableName);
+        if (pool == null) {
+            TablePool created = new TablePool();
+            pool = pools.putIfAbsent(tableName, created);
+            if (pool == null) {
+                pool = created;
+            }
+        }
+        return pool;
+    }
+
+    private void _clearPools() {
+        for (ConcurrentMap.Entry<String, TablePool> entry : pools.entrySet()) {
+            TablePool pool = entry.getValue();
+            PooledHTable table;
+            while ((table = pool.idle.poll()) != null) {
+                pool.size.decrementAndGet();
+                _closeQuietly(entry.getKey(), table);
+            }
+        }
+    }
+
+    private void _closeQuietly(String tableName, PooledHTable table) {
+        try {
+            table.closeTable();
+        } catch (IOException e) {
+            logger.error("HTable close fail, tableName = {}, ex = {}", tableName, e.toString(), e);
+        }
+    }
+
+    private static final class TablePool {
+        private final Queue<PooledHTable> idle = new ConcurrentLinkedQueue<>();
+        //ConcurrentLinkedQueue.size()需要遍历，单独计数
+        private final AtomicInteger size = new AtomicInteger();
+    }
+}
@@ -0,0 +1,188 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并并发的单行get：
+ * 1、同一个rowKey的并发get共享一次读取（single-flight）
+ * 2、短时间窗口内到达的不同get合并成一次multi-get
+ * 窗口内第一个到达的线程作为leader，等到凑满maxBatchSize或者超过maxDelay后发送整个窗口的get，再把结果分发给每个调用方
+ * 只有还没有发送的读取可以被共享，已经发送的读取不再接收新的调用方，保证get能读到调用之前已经完成的写入
+ *
+ */
+class GetCoalescer {
+
+    private final CRUDDao<?> dao;
+    private final boolean singleFlight;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    private final Object lock = new Object();
+    //正在收集get的窗口，发送时置为null
+    private Window current;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder sharedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder batchedGetCount = new LongAdder();
+
+    GetCoalescer(CRUDDao<?> dao, GetCoalescingConfig config) {
+        if (config.getMaxBatchSize() <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        if (config.getMaxDelayMicros() < 0) {
+            throw new IllegalArgumentException("maxDelayMicros must not be negative");
+        }
+        this.dao = dao;
+        this.singleFlight = config.isSingleFlight();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(config.getMaxDelayMicros());
+    }
+
+    /**
+     * 读取一行，可能与其他线程的get合并发送
+     * @param get Get对象
+     * @return 读取结果，多个调用方可能拿到同一个Result对象，不能修改
+     * @throws CRUDException 所在的multi-get失败时，窗口内的所有调用方都收到同一个异常
+     */
+    Result get(Get get) throws CRUDException {
+        requestCount.increment();
+        //带filter的Get可能与同一行的其他Get读到不同的结果，只合并不共享
+        ByteBuffer key = singleFlight && get.getFilter() == null ? ByteBuffer.wrap(get.getRow()) : null;
+        Flight flight;
+        Window window;
+        boolean leader = false;
+        synchronized (lock) {
+            window = current;
+            flight = window == null || key == null ? null : window.shared.get(key);
+            if (flight != null) {
+                sharedCount.increment();
+            } else {
+                if (window == null) {
+                    window = new Window(System.nanoTime() + maxDelayNanos);
+                    current = window;
+                    leader = true;
+                }
+                flight = new Flight();
+                window.add(key, get, flight);
+                if (window.gets.size() >= maxBatchSize) {
+                    //窗口已满，通知leader立即发送
+                    current = null;
+                    lock.notifyAll();
+                }
+            }
+        }
+        if (leader) {
+            _await(window);
+            _send(window);
+        }
+        return flight.await();
+    }
+
+    //leader等待窗口凑满或者超时，之后窗口不再接收新的get
+    private void _await(Window window) {
+        boolean interrupted = false;
+        synchronized (lock) {
+            long remaining;
+            while (current == window && (remaining = window.deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    //窗口内其他调用方在等待leader，被中断时不放弃，提前发送
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (current == window) {
+                current = null;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void _send(Window window) {
+        batchCount.increment();
+        batchedGetCount.add(window.gets.size());
+        try {
+            Result[] results = dao.multiGet(window.gets);
+            for (int i = 0; i < window.flights.size(); i++) {
+                window.flights.get(i).complete(results[i], null);
+            }
+        } catch (CRUDException e) {
+            for (Flight flight : window.flights) {
+                flight.complete(null, e);
+            }
+        } catch (RuntimeException | Error e) {
+            CRUDException ex = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "coalesced get failed", e);
+            for (Flight flight : window.flights) {
+                flight.complete(null, ex);
+            }
+            throw e;
+        }
+    }
+
+    GetCoalescingStats stats() {
+        return new GetCoalescingStats(requestCount.sum(), sharedCount.sum(), batchCount.sum(), batchedGetCount.sum());
+    }
+
+    //一个合并窗口，gets和flights的下标一一对应
+    private static final class Window {
+        private final long deadline;
+        private final List<Get> gets = new ArrayList<>();
+        private final List<Flight> flights = new ArrayList<>();
+        private final Map<ByteBuffer, Flight> shared = new HashMap<>();
+
+        private Window(long deadline) {
+            this.deadline = deadline;
+        }
+
+        private void add(ByteBuffer key, Get get, Flight flight) {
+            gets.add(get);
+            flights.add(flight);
+            if (key != null) {
+                shared.put(key, flight);
+            }
+        }
+    }
+
+    //一次读取的结果，由leader填入，共享这次读取的调用方等待结果
+    private static final class Flight {
+        private Result result;
+        private CRUDException error;
+        private boolean done;
+
+        private synchronized void complete(Result result, CRUDException error) {
+            this.result = result;
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        private synchronized Result await() throws CRUDException {
+            try {
+                while (!done) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while waiting for coalesced get", e);
+            }
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+}
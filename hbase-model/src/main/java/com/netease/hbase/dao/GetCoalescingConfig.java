@@ -0,0 +1,42 @@
+package com.netease.hbase.dao;
+
+/**
+ * 合并并发get的配置
+ *
+ */
+public class GetCoalescingConfig {
+
+    //同一个rowKey的并发get是否共享一次请求
+    private boolean singleFlight = true;
+    //一次合并的最大get数，达到后立即发送；为1时不合并不同的rowKey
+    private int maxBatchSize = 100;
+    //第一个get进入窗口后最多等待多久发送，即合并带来的最大额外延迟；为0时不等待
+    private long maxDelayMicros = 500;
+
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+
+    public GetCoalescingConfig setSingleFlight(boolean singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public GetCoalescingConfig setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    public GetCoalescingConfig setMaxDelayMicros(long maxDelayMicros) {
+        this.maxDelayMicros = maxDelayMicros;
+        return this;
+    }
+}
@@ -0,0 +1,61 @@
+package com.netease.hbase.dao;
+
+/**
+ * 合并get的统计数据快照
+ *
+ */
+public final class GetCoalescingStats {
+
+    private final long requestCount;
+    private final long sharedCount;
+    private final long batchCount;
+    private final long batchedGetCount;
+
+    GetCoalescingStats(long requestCount, long sharedCount, long batchCount, long batchedGetCount) {
+        this.requestCount = requestCount;
+        this.sharedCount = sharedCount;
+        this.batchCount = batchCount;
+        this.batchedGetCount = batchedGetCount;
+    }
+
+    /**
+     * @return 进入合并的get数
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return 与同一个rowKey的其他get共享请求、没有单独读取的get数
+     */
+    public long getSharedCount() {
+        return sharedCount;
+    }
+
+    /**
+     * @return 发送的multi-get次数
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return multi-get中发送的Get总数
+     */
+    public long getBatchedGetCount() {
+        return batchedGetCount;
+    }
+
+    /**
+     * @return 平均每次multi-get包含的Get数
+     */
+    public double getAverageBatchSize() {
+        return batchCount == 0 ? 0 : (double) batchedGetCount / batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "GetCoalescingStats{request=" + requestCount + ", shared=" + sharedCount + ", batch=" + batchCount
+                + ", batchedGet=" + batchedGetCount + "}";
+    }
+}
@@ -0,0 +1,738 @@
+package com.netease.hbase.dao;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import com.google.protobuf.Service;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.client.coprocessor.Batch;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.ipc.CoprocessorRpcChannel;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内的表，数据保存在按rowKey排序的map中，用于没有集群时的压测和回归测试
+ * 每一行只保留每列的最新版本；get/scan支持列族/列选择和Filter（和服务端一样每次请求反序列化一份Filter）
+ * 每次"RPC"（get、put、delete、batch、scanner每读取caching行）前按配置的延迟等待，用于模拟网络和服务端耗时
+ * 线程安全，同一个实例可以被多个线程共享，close不做任何事
+ *
+ */
+public class InMemoryTable implements HTableInterface {
+
+    private static final Result EMPTY = Result.create(new Cell[0]);
+    private static final int LOCK_STRIPES = 64;
+    private static final int DEFAULT_CACHING = 100;
+
+    //同一列（列族 + 列名）的cell视为相同
+    private static final Comparator<Cell> COLUMN_COMPARATOR = new Comparator<Cell>() {
+        @Override
+        public int compare(Cell a, Cell b) {
+            int c = Bytes.compareTo(a.getFamilyArray(), a.getFamilyOffset(), a.getFamilyLength(),
+                    b.getFamilyArray(), b.getFamilyOffset(), b.getFamilyLength());
+            if (c != 0) {
+                return c;
+            }
+            return Bytes.compareTo(a.getQualifierArray(), a.getQualifierOffset(), a.getQualifierLength(),
+                    b.getQualifierArray(), b.getQualifierOffset(), b.getQualifierLength());
+        }
+    };
+
+    private final TableName tableName;
+    private final Configuration conf;
+    //每一行是按列排序的不可变数组，修改时整体替换
+    private final ConcurrentNavigableMap<byte[], Cell[]> rows = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private volatile long latencyNanos = 0;
+    private volatile long jitterNanos = 0;
+
+    public InMemoryTable(String tableName) {
+        this(tableName, new Configuration(false));
+    }
+
+    public InMemoryTable(String tableName, Configuration conf) {
+        this.tableName = TableName.valueOf(tableName);
+        this.conf = conf;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 设置每次RPC的延迟，实际延迟为 latency + [0, jitter) 的随机值
+     * @param latency 固定延迟
+     * @param jitter 随机延迟的上限
+     * @param unit 单位
+     * @return this
+     */
+    public InMemoryTable setLatency(long latency, long jitter, TimeUnit unit) {
+        if (latency < 0 || jitter < 0) {
+            throw new IllegalArgumentException("latency and jitter should not be negative");
+        }
+        this.latencyNanos = unit.toNanos(latency);
+        this.jitterNanos = unit.toNanos(jitter);
+        return this;
+    }
+
+    /**
+     * @return 行数
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * 清空所有数据
+     */
+    public void clear() {
+        rows.clear();
+    }
+
+    @Override
+    public byte[] getTableName() {
+        return tableName.getName();
+    }
+
+    @Override
+    public TableName getName() {
+        return tableName;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return conf;
+    }
+
+    @Override
+    public HTableDescriptor getTableDescriptor() throws IOException {
+        return new HTableDescriptor(tableName);
+    }
+
+    @Override
+    public boolean exists(Get get) throws IOException {
+        return !get(get).isEmpty();
+    }
+
+    @Override
+    public Boolean[] exists(List<Get> gets) throws IOException {
+        Result[] results = get(gets);
+        Boolean[] exists = new Boolean[results.length];
+        for (int i = 0; i < results.length; i++) {
+            exists[i] = !results[i].isEmpty();
+        }
+        return exists;
+    }
+
+    @Override
+    public void batch(List<? extends Row> actions, Object[] results) throws IOException, InterruptedException {
+        batchCallback(actions, results, null);
+    }
+
+    @Override
+    @Deprecated
+    public Object[] batch(List<? extends Row> actions) throws IOException, InterruptedException {
+        Object[] results = new Object[actions.size()];
+        batch(actions, results);
+        return results;
+    }
+
+    //每一条单独执行，失败的条目结果为异常，最后和HTable一样抛出RetriesExhaustedWithDetailsException
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> void batchCallback(List<? extends Row> actions, Object[] results, Batch.Callback<R> callback) throws IOException, InterruptedException {
+        _rpc();
+        List<Throwable> errors = null;
+        List<Row> failed = null;
+        List<String> servers = null;
+        for (int i = 0; i < actions.size(); i++) {
+            Row action = actions.get(i);
+            try {
+                results[i] = _apply(action);
+                if (callback != null) {
+                    callback.update(null, action.getRow(), (R) results[i]);
+                }
+            } catch (IOException e) {
+                results[i] = e;
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                    failed = new ArrayList<>();
+                    servers = new ArrayList<>();
+                }
+                errors.add(e);
+                failed.add(action);
+                servers.add("localhost");
+            }
+        }
+        if (errors != null) {
+            throw new RetriesExhaustedWithDetailsException(errors, failed, servers);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public <R> Object[] batchCallback(List<? extends Row> actions, Batch.Callback<R> callback) throws IOException, InterruptedException {
+        Object[] results = new Object[actions.size()];
+        batchCallback(actions, results, callback);
+        return results;
+    }
+
+    @Override
+    public Result get(Get get) throws IOException {
+        _rpc();
+        return _get(get);
+    }
+
+    @Override
+    public Result[] get(List<Get> gets) throws IOException {
+        _rpc();
+        Result[] results = new Result[gets.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = _get(gets.get(i));
+        }
+        return results;
+    }
+
+    @Override
+    @Deprecated
+    public Result getRowOrBefore(byte[] row, byte[] family) throws IOException {
+        _rpc();
+        Map.Entry<byte[], Cell[]> entry = rows.floorEntry(row);
+        if (entry == null) {
+            return null;
+        }
+        List<Cell> cells = new ArrayList<>();
+        for (Cell cell : entry.getValue()) {
+            if (CellUtil.matchingFamily(cell, family)) {
+                cells.add(cell);
+            }
+        }
+        return cells.isEmpty() ? null : Result.create(cells);
+    }
+
+    @Override
+    public ResultScanner getScanner(Scan scan) throws IOException {
+        return new Scanner(scan);
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family) throws IOException {
+        return getScanner(new Scan().addFamily(family));
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family, byte[] qualifier) throws IOException {
+        return getScanner(new Scan().addColumn(family, qualifier));
+    }
+
+    @Override
+    public void put(Put put) throws IOException {
+        _rpc();
+        _mutate(put);
+    }
+
+    @Override
+    public void put(List<Put> puts) throws IOException {
+        _rpc();
+        for (Put put : puts) {
+            _mutate(put);
+        }
+    }
+
+    @Override
+    public boolean checkAndPut(byte[] row, byte[] family, byte[] qualifier, byte[] value, Put put) throws IOException {
+        return _checkAndMutate(row, family, qualifier, value, put);
+    }
+
+    @Override
+    public void delete(Delete delete) throws IOException {
+        _rpc();
+        _mutate(delete);
+    }
+
+    @Override
+    public void delete(List<Delete> deletes) throws IOException {
+        _rpc();
+        for (Delete delete : deletes) {
+            _mutate(delete);
+        }
+    }
+
+    @Override
+    public boolean checkAndDelete(byte[] row, byte[] family, byte[] qualifier, byte[] value, Delete delete) throws IOException {
+        return _checkAndMutate(row, family, qualifier, value, delete);
+    }
+
+    @Override
+    public void mutateRow(RowMutations rm) throws IOException {
+        _rpc();
+        synchronized (_lock(rm.getRow())) {
+            for (Mutation mutation : rm.getMutations()) {
+                _mutate(mutation);
+            }
+        }
+    }
+
+    @Override
+    public Result append(Append append) throws IOException {
+        _rpc();
+        return _append(append);
+    }
+
+    @Override
+    public Result increment(Increment increment) throws IOException {
+        _rpc();
+        return _increment(increment);
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount) throws IOException {
+        Increment increment = new Increment(row);
+        increment.addColumn(family, qualifier, amount);
+        return Bytes.toLong(increment(increment).getValue(family, qualifier));
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, Durability durability) throws IOException {
+        return incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    @Override
+    @Deprecated
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, boolean writeToWAL) throws IOException {
+        return incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    @Override
+    public boolean isAutoFlush() {
+        return true;
+    }
+
+    @Override
+    public void flushCommits() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public CoprocessorRpcChannel coprocessorService(byte[] row) {
+        throw new UnsupportedOperationException("coprocessorService");
+    }
+
+    @Override
+    public <T extends Service, R> Map<byte[], R> coprocessorService(Class<T> service, byte[] startKey, byte[] endKey, Batch.Call<T, R> callable) throws Throwable {
+        throw new UnsupportedOperationException("coprocessorService");
+    }
+
+    @Override
+    public <T extends Service, R> void coprocessorService(Class<T> service, byte[] startKey, byte[] endKey, Batch.Call<T, R> callable, Batch.Callback<R> callback) throws Throwable {
+        throw new UnsupportedOperationException("coprocessorService");
+    }
+
+    @Override
+    @Deprecated
+    public void setAutoFlush(boolean autoFlush) {
+    }
+
+    @Override
+    public void setAutoFlush(boolean autoFlush, boolean clearBufferOnFail) {
+    }
+
+    @Override
+    public void setAutoFlushTo(boolean autoFlush) {
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+        return 0;
+    }
+
+    @Override
+    public void setWriteBufferSize(long writeBufferSize) throws IOException {
+    }
+
+    @Override
+    public <R extends Message> Map<byte[], R> batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request, byte[] startKey, byte[] endKey, R responsePrototype) throws Throwable {
+        throw new UnsupportedOperationException("batchCoprocessorService");
+    }
+
+    @Override
+    public <R extends Message> void batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request, byte[] startKey, byte[] endKey, R responsePrototype, Batch.Callback<R> callback) throws Throwable {
+        throw new UnsupportedOperationException("batchCoprocessorService");
+    }
+
+    @Override
+    public boolean checkAndMutate(byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp, byte[] value, RowMutations mutation) throws IOException {
+        throw new UnsupportedOperationException("checkAndMutate");
+    }
+
+    //模拟一次RPC的耗时
+    private void _rpc() throws IOException {
+        long nanos = latencyNanos;
+        long jitter = jitterNanos;
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter);
+        }
+        if (nanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for injected latency");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private Object _lock(byte[] row) {
+        return locks[(Bytes.hashCode(row) & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    //batch中的一条
+    private Object _apply(Row action) throws IOException {
+        if (action instanceof Get) {
+            return _get((Get) action);
+        } else if (action instanceof Put || action instanceof Delete) {
+            _mutate((Mutation) action);
+            return EMPTY;
+        } else if (action instanceof Increment) {
+            return _increment((Increment) action);
+        } else if (action instanceof Append) {
+            return _append((Append) action);
+        } else if (action instanceof RowMutations) {
+            synchronized (_lock(action.getRow())) {
+                for (Mutation mutation : ((RowMutations) action).getMutations()) {
+                    _mutate(mutation);
+                }
+            }
+            return EMPTY;
+        }
+        throw new DoNotRetryIOException("unsupported action " + action.getClass().getSimpleName());
+    }
+
+    private Result _get(Get get) throws IOException {
+        Cell[] cells = rows.get(get.getRow());
+        if (cells == null) {
+            return EMPTY;
+        }
+        Filter filter = _copy(get.getFilter());
+        List<Cell> selected = _select(get.getRow(), cells, get.getFamilyMap(), filter);
+        return selected == null || selected.isEmpty() ? EMPTY : Result.create(selected);
+    }
+
+    //按列族/列选择cell并应用filter，整行被过滤时返回null
+    private static List<Cell> _select(byte[] row, Cell[] cells, Map<byte[], NavigableSet<byte[]>> families, Filter filter) throws IOException {
+        if (filter != null) {
+            filter.reset();
+            if (filter.filterRowKey(row, 0, row.length)) {
+                return null;
+            }
+        }
+        List<Cell> selected = new ArrayList<>(cells.length);
+        for (Cell cell : cells) {
+            if (!_selected(families, cell)) {
+                continue;
+            }
+            if (filter == null) {
+                selected.add(cell);
+                continue;
+            }
+            if (filter.filterAllRemaining()) {
+                break;
+            }
+            Filter.ReturnCode code = filter.filterKeyValue(cell);
+            if (code == Filter.ReturnCode.INCLUDE || code == Filter.ReturnCode.INCLUDE_AND_NEXT_COL) {
+                selected.add(filter.transformCell(cell));
+            } else if (code == Filter.ReturnCode.NEXT_ROW) {
+                break;
+            }
+        }
+        if (filter != null && filter.hasFilterRow()) {
+            filter.filterRowCells(selected);
+            if (filter.filterRow()) {
+                return null;
+            }
+        }
+        return selected;
+    }
+
+    private static boolean _selected(Map<byte[], NavigableSet<byte[]>> families, Cell cell) {
+        if (families == null || families.isEmpty()) {
+            return true;
+        }
+        for (Map.Entry<byte[], NavigableSet<byte[]>> entry : families.entrySet()) {
+            if (!CellUtil.matchingFamily(cell, entry.getKey())) {
+                continue;
+            }
+            NavigableSet<byte[]> qualifiers = entry.getValue();
+            if (qualifiers == null || qualifiers.isEmpty()) {
+                return true;
+            }
+            for (byte[] qualifier : qualifiers) {
+                if (CellUtil.matchingQualifier(cell, qualifier)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+
+    //和服务端一样每次请求使用一份独立的filter，filter有状态，不能在并发的请求间共享
+    private static Filter _copy(Filter filter) throws IOException {
+        return filter == null ? null : ProtobufUtil.toFilter(ProtobufUtil.toFilter(filter));
+    }
+
+    private void _mutate(Mutation mutation) throws IOException {
+        byte[] row = mutation.getRow();
+        synchronized (_lock(row)) {
+            Cell[] current = rows.get(row);
+            if (mutation instanceof Delete) {
+                Cell[] updated = _delete(current, mutation);
+                if (updated == null) {
+                    rows.remove(row);
+                } else {
+                    rows.put(row, updated);
+                }
+            } else if (mutation instanceof Put) {
+                rows.put(row, _merge(current, _cells(mutation)));
+            } else {
+                throw new DoNotRetryIOException("unsupported mutation " + mutation.getClass().getSimpleName());
+            }
+        }
+    }
+
+    //mutation中的cell，时间戳为LATEST_TIMESTAMP时和服务端一样替换为当前时间
+    private static List<Cell> _cells(Mutation mutation) {
+        long now = System.currentTimeMillis();
+        List<Cell> cells = new ArrayList<>();
+        for (List<Cell> familyCells : mutation.getFamilyCellMap().values()) {
+            for (Cell cell : familyCells) {
+                if (cell.getTimestamp() == HConstants.LATEST_TIMESTAMP) {
+                    cell = new KeyValue(CellUtil.cloneRow(cell), CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                            now, KeyValue.Type.Put, CellUtil.cloneValue(cell));
+                }
+                cells.add(cell);
+            }
+        }
+        return cells;
+    }
+
+    //同一列新的cell覆盖旧的
+    private static Cell[] _merge(Cell[] current, List<Cell> updates) {
+        TreeMap<Cell, Cell> merged = new TreeMap<>(COLUMN_COMPARATOR);
+        if (current != null) {
+            for (Cell cell : current) {
+                merged.put(cell, cell);
+            }
+        }
+        for (Cell cell : updates) {
+            merged.put(cell, cell);
+        }
+        return merged.values().toArray(new Cell[merged.size()]);
+    }
+
+    //没有指定列时删除整行，否则按列族/列删除，删除后为空时返回null
+    private static Cell[] _delete(Cell[] current, Mutation delete) {
+        if (current == null || delete.isEmpty()) {
+            return null;
+        }
+        List<Cell> remaining = new ArrayList<>(current.length);
+        for (Cell cell : current) {
+            if (!_deleted(delete, cell)) {
+                remaining.add(cell);
+            }
+        }
+        return remaining.isEmpty() ? null : remaining.toArray(new Cell[remaining.size()]);
+    }
+
+    private static boolean _deleted(Mutation delete, Cell cell) {
+        for (List<Cell> markers : delete.getFamilyCellMap().values()) {
+            for (Cell marker : markers) {
+                if (!CellUtil.matchingFamily(cell, marker)) {
+                    continue;
+                }
+                KeyValue.Type type = KeyValue.Type.codeToType(marker.getTypeByte());
+                if (type == KeyValue.Type.DeleteFamily || type == KeyValue.Type.DeleteFamilyVersion
+                        || CellUtil.matchingQualifier(cell, marker)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean _checkAndMutate(byte[] row, byte[] family, byte[] qualifier, byte[] value, Mutation mutation) throws IOException {
+        _rpc();
+        synchronized (_lock(row)) {
+            byte[] current = _value(rows.get(row), family, qualifier);
+            boolean match = value == null || value.length == 0 ? current == null : Bytes.equals(value, current);
+            if (match) {
+                _mutate(mutation);
+            }
+            return match;
+        }
+    }
+
+    private Result _increment(Increment increment) throws IOException {
+        byte[] row = increment.getRow();
+        List<Cell> updates = new ArrayList<>();
+        synchronized (_lock(row)) {
+            Cell[] current = rows.get(row);
+            long now = System.currentTimeMillis();
+            for (Map.Entry<byte[], NavigableMap<byte[], Long>> family : increment.getFamilyMapOfLongs().entrySet()) {
+                for (Map.Entry<byte[], Long> column : family.getValue().entrySet()) {
+                    byte[] old = _value(current, family.getKey(), column.getKey());
+                    if (old != null && old.length != Bytes.SIZEOF_LONG) {
+                        throw new DoNotRetryIOException("attempted to increment field that isn't 64 bits wide");
+                    }
+                    long value = (old == null ? 0 : Bytes.toLong(old)) + column.getValue();
+                    updates.add(new KeyValue(row, family.getKey(), column.getKey(), now, Bytes.toBytes(value)));
+                }
+            }
+            rows.put(row, _merge(current, updates));
+        }
+        return Result.create(_sorted(updates));
+    }
+
+    private Result _append(Append append) throws IOException {
+        byte[] row = append.getRow();
+        List<Cell> updates = new ArrayList<>();
+        synchronized (_lock(row)) {
+            Cell[] current = rows.get(row);
+            long now = System.currentTimeMillis();
+            for (List<Cell> familyCells : append.getFamilyCellMap().values()) {
+                for (Cell cell : familyCells) {
+                    byte[] family = CellUtil.cloneFamily(cell);
+                    byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    byte[] old = _value(current, family, qualifier);
+                    byte[] value = old == null ? CellUtil.cloneValue(cell) : Bytes.add(old, CellUtil.cloneValue(cell));
+                    updates.add(new KeyValue(row, family, qualifier, now, value));
+                }
+            }
+            rows.put(row, _merge(current, updates));
+        }
+        return append.isReturnResults() ? Result.create(_sorted(updates)) : null;
+    }
+
+    private static List<Cell> _sorted(List<Cell> cells) {
+        cells.sort(KeyValue.COMPARATOR);
+        return cells;
+    }
+
+    private static byte[] _value(Cell[] cells, byte[] family, byte[] qualifier) {
+        if (cells == null) {
+            return null;
+        }
+        for (Cell cell : cells) {
+            if (CellUtil.matchingColumn(cell, family, qualifier)) {
+                return CellUtil.cloneValue(cell);
+            }
+        }
+        return null;
+    }
+
+    //在map上迭代，读到的是迭代时的数据；每读取caching行模拟一次RPC
+    private final class Scanner extends AbstractClientScanner {
+
+        private final Scan scan;
+        private final Iterator<Map.Entry<byte[], Cell[]>> iterator;
+        private final Filter filter;
+        private final int caching;
+        private int fetched = 0;
+        private boolean closed = false;
+
+        Scanner(Scan scan) throws IOException {
+            this.scan = scan;
+            this.iterator = _range(scan).entrySet().iterator();
+            this.filter = _copy(scan.getFilter());
+            this.caching = scan.getCaching() > 0 ? scan.getCaching() : DEFAULT_CACHING;
+        }
+
+        private NavigableMap<byte[], Cell[]> _range(Scan scan) {
+            byte[] start = scan.getStartRow();
+            byte[] stop = scan.getStopRow();
+            if (scan.isReversed()) {
+                //reversed时startRow是较大的一端（包含），stopRow是较小的一端（不包含）
+                NavigableMap<byte[], Cell[]> range = rows.descendingMap();
+                if (start.length > 0) {
+                    range = range.tailMap(start, true);
+                }
+                if (stop.length > 0) {
+                    range = range.headMap(stop, false);
+                }
+                return range;
+            }
+            NavigableMap<byte[], Cell[]> range = rows;
+            if (start.length > 0) {
+                range = range.tailMap(start, true);
+            }
+            if (stop.length > 0) {
+                range = range.headMap(stop, false);
+            }
+            return range;
+        }
+
+        @Override
+        public Result next() throws IOException {
+            while (!closed && iterator.hasNext()) {
+                if (filter != null && filter.filterAllRemaining()) {
+                    break;
+                }
+                if (fetched++ % caching == 0) {
+                    _rpc();
+                }
+                Map.Entry<byte[], Cell[]> entry = iterator.next();
+                List<Cell> cells = _select(entry.getKey(), entry.getValue(), scan.getFamilyMap(), filter);
+                if (cells != null && !cells.isEmpty()) {
+                    return Result.create(cells);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            List<Result> results = new ArrayList<>(nbRows);
+            Result result;
+            while (results.size() < nbRows && (result = next()) != null) {
+                results.add(result);
+            }
+            return results.toArray(new Result[results.size()]);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.hbase.client.HTableInterface;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用进程内InMemoryTable的TableProvider，表在第一次访问时创建，所有调用方共享同一个表实例
+ * 例如：CRUDDao.setTableProvider(new InMemoryTableProvider().setLatency(500, 200, TimeUnit.MICROSECONDS));
+ *
+ */
+public class InMemoryTableProvider implements TableProvider {
+
+    private final ConcurrentMap<String, InMemoryTable> tables = new ConcurrentHashMap<>();
+    private volatile long latency = 0;
+    private volatile long jitter = 0;
+    private volatile TimeUnit unit = TimeUnit.NANOSECONDS;
+
+    /**
+     * 设置所有表（包括之后创建的表）每次RPC的延迟，实际延迟为 latency + [0, jitter) 的随机值
+     * @param latency 固定延迟
+     * @param jitter 随机延迟的上限
+     * @param unit 单位
+     * @return this
+     */
+    public synchronized InMemoryTableProvider setLatency(long latency, long jitter, TimeUnit unit) {
+        if (latency < 0 || jitter < 0) {
+            throw new IllegalArgumentException("latency and jitter should not be negative");
+        }
+        this.latency = latency;
+        this.jitter = jitter;
+        this.unit = unit;
+        for (InMemoryTable table : tables.values()) {
+            table.setLatency(latency, jitter, unit);
+        }
+        return this;
+    }
+
+    @Override
+    public HTableInterface getTable(String tableName) {
+        return table(tableName);
+    }
+
+    /**
+     * 获取表，不存在时创建
+     * @param tableName 表名
+     * @return 表
+     */
+    public InMemoryTable table(String tableName) {
+        InMemoryTable table = tables.get(tableName);
+        if (table != null) {
+            return table;
+        }
+        synchronized (this) {
+            table = tables.get(tableName);
+            if (table == null) {
+                table = new InMemoryTable(tableName).setLatency(latency, jitter, unit);
+                tables.put(tableName, table);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * @return 所有已经创建的表
+     */
+    public Collection<InMemoryTable> tables() {
+        return Collections.unmodifiableCollection(tables.values());
+    }
+
+    /**
+     * 清空所有表的数据
+     */
+    public void clear() {
+        for (InMemoryTable table : tables.values()) {
+            table.clear();
+        }
+    }
+}
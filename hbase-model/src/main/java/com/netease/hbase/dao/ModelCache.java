@@ -0,0 +1,162 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的model缓存，key为rowKey，value为解码后的model（只读，命中时复制到调用方的对象上）
+ * 按rowKey的hash分段，每段是一个access-order的LinkedHashMap（LRU），段内加锁
+ * 每段维护一个失效序号：读穿透前记录序号，写入缓存时序号已经变化说明期间有写操作，放弃写入，避免缓存旧值
+ *
+ */
+class ModelCache<T extends AbstractHBaseModel> {
+
+    private final Segment<T>[] segments;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    ModelCache(ModelCacheConfig config) {
+        int count = Integer.highestOneBit(Math.max(1, config.getSegments()));
+        int perSegment = Math.max(1, config.getMaximumSize() / count);
+        this.segments = (Segment<T>[]) new Segment<?>[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment, evictions);
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(config.getTtlMs());
+    }
+
+    /**
+     * @param rowKey rowKey
+     * @return 缓存的model，不存在或已过期时返回null，调用方不能修改返回的对象
+     */
+    T get(byte[] rowKey) {
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment<T> segment = _segment(key);
+        T model = null;
+        synchronized (segment) {
+            Entry<T> entry = segment.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expireNanos >= 0) {
+                    segment.remove(key);
+                    expirations.increment();
+                } else {
+                    model = entry.model;
+                }
+            }
+        }
+        if (model == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return model;
+    }
+
+    /**
+     * 读穿透前调用，记录当前的失效序号
+     */
+    long stamp(byte[] rowKey) {
+        Segment<T> segment = _segment(ByteBuffer.wrap(rowKey));
+        synchronized (segment) {
+            return segment.invalidateSeq;
+        }
+    }
+
+    /**
+     * 写入缓存，stamp之后该段有过失效操作时不写入
+     * @param rowKey rowKey
+     * @param model 解码后的model，写入后不能再修改
+     * @param stamp 读穿透前的失效序号
+     */
+    void put(byte[] rowKey, T model, long stamp) {
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment<T> segment = _segment(key);
+        synchronized (segment) {
+            if (segment.invalidateSeq != stamp) {
+                return;
+            }
+            segment.put(key, new Entry<>(model, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    void invalidate(byte[] rowKey) {
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment<T> segment = _segment(key);
+        synchronized (segment) {
+            segment.invalidateSeq++;
+            if (segment.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    void clear() {
+        for (Segment<T> segment : segments) {
+            synchronized (segment) {
+                segment.invalidateSeq++;
+                segment.clear();
+            }
+        }
+    }
+
+    CacheStats stats() {
+        long size = 0;
+        for (Segment<T> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size);
+    }
+
+    private Segment<T> _segment(ByteBuffer key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    private static final class Entry<T> {
+        private final T model;
+        private final long expireNanos;
+
+        Entry(T model, long expireNanos) {
+            this.model = model;
+            this.expireNanos = expireNanos;
+        }
+    }
+
+    private static final class Segment<T> extends LinkedHashMap<ByteBuffer, Entry<T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maximumSize;
+        private final LongAdder evictions;
+        private long invalidateSeq = 0;
+
+        Segment(int maximumSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ModelCache.Entry<T>> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
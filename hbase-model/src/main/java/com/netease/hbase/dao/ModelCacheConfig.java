@@ -0,0 +1,42 @@
+package com.netease.hbase.dao;
+
+/**
+ * model缓存的配置
+ *
+ */
+public class ModelCacheConfig {
+
+    //最多缓存的对象数，超过后按LRU淘汰
+    private int maximumSize = 10000;
+    //写入缓存后的存活时间
+    private long ttlMs = 60000;
+    //分段数，每段一把锁
+    private int segments = 16;
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public ModelCacheConfig setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public ModelCacheConfig setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+        return this;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public ModelCacheConfig setSegments(int segments) {
+        this.segments = segments;
+        return this;
+    }
+}
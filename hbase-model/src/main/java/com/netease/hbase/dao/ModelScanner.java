@@ -0,0 +1,156 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.exception.CRUDRuntimeException;
+import com.netease.hbase.metrics.DaoMetrics;
+import com.netease.hbase.metrics.Operation;
+import com.netease.hbase.metrics.TableMetrics;
+import com.netease.hbase.model.AbstractHBaseModel;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 流式scan，逐行从ResultScanner中读取并解析，不会把整个范围加载到内存
+ * 使用完必须close（读到末尾或出错时会自动close）；Iterator方式遍历时异常包装为CRUDRuntimeException
+ *
+ */
+public class ModelScanner<T extends AbstractHBaseModel> implements Iterator<T>, Closeable {
+
+    private final CRUDDao<T> dao;
+    private final Class<T> clazz;
+    private final String tableName;
+    private final HTableInterface table;
+    private final ResultScanner scanner;
+
+    //预读的下一个对象及其rowKey
+    private T next;
+    private byte[] nextRow;
+    //最近一次返回的对象的rowKey
+    private byte[] lastRow;
+    private boolean done = false;
+    private boolean closed = false;
+
+    //统计：从打开到关闭的耗时、读到的行数和字节数
+    private final TableMetrics metrics;
+    private final long start = System.nanoTime();
+    private int rows = 0;
+    private long bytes = 0;
+    private int code = 0;
+
+    ModelScanner(CRUDDao<T> dao, Class<T> clazz, String tableName, HTableInterface table, ResultScanner scanner) {
+        this.dao = dao;
+        this.clazz = clazz;
+        this.tableName = tableName;
+        this.table = table;
+        this.scanner = scanner;
+        this.metrics = DaoMetrics.table(tableName);
+    }
+
+    /**
+     * 读取下一个对象
+     * @return 下一个对象，没有更多数据时返回null
+     * @throws CRUDException 异常
+     */
+    public T nextModel() throws CRUDException {
+        if (next == null) {
+            _fetch();
+        }
+        T t = next;
+        if (t != null) {
+            lastRow = nextRow;
+            next = null;
+            nextRow = null;
+        }
+        return t;
+    }
+
+    /**
+     * 是否还有数据，会预读一行
+     * @throws CRUDException 异常
+     */
+    public boolean hasMore() throws CRUDException {
+        if (next == null) {
+            _fetch();
+        }
+        return next != null;
+    }
+
+    /**
+     * @return 最近一次返回的对象的rowKey，还没有返回过对象时为null
+     */
+    public byte[] getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * @return 从最近一次返回的对象之后继续的游标，还没有返回过对象时为null
+     */
+    public ScanCursor cursor() {
+        return lastRow == null ? null : new ScanCursor(lastRow);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return hasMore();
+        } catch (CRUDException e) {
+            throw new CRUDRuntimeException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return nextModel();
+        } catch (CRUDException e) {
+            throw new CRUDRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        dao.close(tableName, scanner, table);
+        metrics.record(Operation.SCAN, start, rows, 0, bytes, code);
+    }
+
+    //读取下一个可以解析的行，读到末尾或出错时关闭scanner
+    private void _fetch() throws CRUDException {
+        if (done) {
+            return;
+        }
+        try {
+            Result result;
+            while ((result = scanner.next()) != null) {
+                bytes += CRUDDao.sizeOf(result);
+                T t = clazz.getDeclaredConstructor().newInstance();
+                if (t.parseResult(result)) {
+                    rows++;
+                    next = t;
+                    nextRow = result.getRow();
+                    return;
+                }
+            }
+            done = true;
+            dao.onHBaseSuccess();
+            close();
+        } catch (Exception e) {
+            done = true;
+            CRUDException ex = dao.convertException(clazz, e, "scan");
+            code = ex.getCode();
+            close();
+            throw ex;
+        }
+    }
+}
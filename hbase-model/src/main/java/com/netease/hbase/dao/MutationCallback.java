@@ -0,0 +1,23 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+
+/**
+ * 缓冲写入模式下单个mutation的完成回调，在写入线程中执行，不应有耗时操作
+ *
+ */
+public interface MutationCallback<T> {
+
+    /**
+     * 写入成功
+     * @param model model
+     */
+    void onSuccess(T model);
+
+    /**
+     * 写入失败
+     * @param model model
+     * @param e 异常
+     */
+    void onFailure(T model, CRUDException e);
+}
@@ -0,0 +1,226 @@
+package com.netease.hbase.dao;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 不存在行的负缓存：get读到空结果的rowKey记录为不存在，过期前再次get时直接返回false，不发RPC
+ * 按表在进程内共享，同一个表的所有CRUDDao读写同一个实例；任意CRUDDao写入一行后该行立即失效，所以本进程的写入一定可见，
+ * 其他进程写入的行在记录过期前仍会被判定为不存在，ttl就是这种情况下的最大延迟
+ * 结构与ModelCache相同：按rowKey的hash分段，每段是一个access-order的LinkedHashMap（LRU），段内加锁，
+ * get发RPC前记录段的失效序号，读到空结果后序号没有变化才记录，避免与RPC期间的写入交错时记下已经存在的行
+ *
+ */
+class NegativeLookup {
+
+    //开启之前取到的序号，不能用于记录
+    static final long NO_STAMP = -1;
+
+    private static final ConcurrentMap<String, NegativeLookup> tables = new ConcurrentHashMap<>();
+
+    //没有开启时为null
+    private volatile Segment[] segments;
+    private long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private NegativeLookup() {
+    }
+
+    /**
+     * 获取表对应的负缓存，同一个表名返回同一个实例
+     * @param tableName 表名
+     * @return 负缓存，没有开启时所有操作都是空操作
+     */
+    static NegativeLookup table(String tableName) {
+        tableName = String.valueOf(tableName);
+        NegativeLookup lookup = tables.get(tableName);
+        if (lookup == null) {
+            lookup = new NegativeLookup();
+            NegativeLookup old = tables.putIfAbsent(tableName, lookup);
+            if (old != null) {
+                lookup = old;
+            }
+        }
+        return lookup;
+    }
+
+    synchronized void enable(NegativeLookupConfig config) {
+        if (segments != null) {
+            throw new IllegalStateException("negative lookup already enabled");
+        }
+        if (config.getMaximumSize() <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (config.getTtlMs() <= 0) {
+            throw new IllegalArgumentException("ttlMs must be positive");
+        }
+        int count = Integer.highestOneBit(Math.max(1, config.getSegments()));
+        int perSegment = Math.max(1, config.getMaximumSize() / count);
+        Segment[] array = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = new Segment(perSegment, evictions);
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(config.getTtlMs());
+        //volatile写，之后读到segments的线程一定能看到ttlNanos
+        this.segments = array;
+    }
+
+    boolean isEnabled() {
+        return segments != null;
+    }
+
+    /**
+     * @param rowKey rowKey
+     * @return true表示最近读到过该行不存在，之后没有写入
+     */
+    boolean isAbsent(byte[] rowKey) {
+        Segment[] segments = this.segments;
+        if (segments == null) {
+            return false;
+        }
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment segment = _segment(segments, key);
+        boolean absent = false;
+        synchronized (segment) {
+            Long expireNanos = segment.get(key);
+            if (expireNanos != null) {
+                if (System.nanoTime() - expireNanos >= 0) {
+                    segment.remove(key);
+                    expirations.increment();
+                } else {
+                    absent = true;
+                }
+            }
+        }
+        if (absent) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return absent;
+    }
+
+    /**
+     * get发RPC前调用，记录当前的失效序号
+     * @return 序号，没有开启时返回NO_STAMP
+     */
+    long stamp(byte[] rowKey) {
+        Segment[] segments = this.segments;
+        if (segments == null) {
+            return NO_STAMP;
+        }
+        Segment segment = _segment(segments, ByteBuffer.wrap(rowKey));
+        synchronized (segment) {
+            return segment.invalidateSeq;
+        }
+    }
+
+    /**
+     * get读到空结果后调用，stamp之后该段有过写入时不记录
+     * @param rowKey rowKey
+     * @param stamp RPC前的失效序号
+     */
+    void putAbsent(byte[] rowKey, long stamp) {
+        Segment[] segments = this.segments;
+        if (segments == null || stamp == NO_STAMP) {
+            return;
+        }
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment segment = _segment(segments, key);
+        synchronized (segment) {
+            if (segment.invalidateSeq != stamp) {
+                return;
+            }
+            segment.put(key, System.nanoTime() + ttlNanos);
+        }
+    }
+
+    /**
+     * 写入RPC完成（或失败）后调用，该行不再判定为不存在
+     */
+    void invalidate(byte[] rowKey) {
+        Segment[] segments = this.segments;
+        if (segments == null) {
+            return;
+        }
+        ByteBuffer key = ByteBuffer.wrap(rowKey);
+        Segment segment = _segment(segments, key);
+        synchronized (segment) {
+            segment.invalidateSeq++;
+            if (segment.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    void clear() {
+        Segment[] segments = this.segments;
+        if (segments == null) {
+            return;
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.invalidateSeq++;
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return 统计数据，hit为本地判定不存在、跳过RPC的次数，没有开启时返回null
+     */
+    CacheStats stats() {
+        Segment[] segments = this.segments;
+        if (segments == null) {
+            return null;
+        }
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), invalidations.sum(), size);
+    }
+
+    private static Segment _segment(Segment[] segments, ByteBuffer key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    //value为过期时间
+    private static final class Segment extends LinkedHashMap<ByteBuffer, Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maximumSize;
+        private final LongAdder evictions;
+        private long invalidateSeq = 0;
+
+        Segment(int maximumSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Long> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
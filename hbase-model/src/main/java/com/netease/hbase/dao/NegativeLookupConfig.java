@@ -0,0 +1,43 @@
+package com.netease.hbase.dao;
+
+/**
+ * 不存在行负缓存的配置
+ * 每条记录保存完整的rowKey，不会把存在的行误判为不存在；占用内存约为 maximumSize * (rowKey长度 + 120) 字节
+ *
+ */
+public class NegativeLookupConfig {
+
+    //最多记录的rowKey数，超过后按LRU淘汰，淘汰只会多一次RPC
+    private int maximumSize = 100000;
+    //记录的存活时间，也是其他进程写入的行最长被判定为不存在的时间
+    private long ttlMs = 60000;
+    //分段数，每段一把锁
+    private int segments = 16;
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public NegativeLookupConfig setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public NegativeLookupConfig setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+        return this;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public NegativeLookupConfig setSegments(int segments) {
+        this.segments = segments;
+        return this;
+    }
+}
@@ -0,0 +1,67 @@
+package com.netease.hbase.dao;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 并行scan的配置
+ *
+ */
+public class ParallelScanConfig {
+
+    //同时执行的子scan数
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    //true时按rowKey顺序返回（与串行scan一致），false时哪个子scan先读到就先返回
+    private boolean ordered = true;
+    //自定义的切分点，为null时按region边界切分
+    private List<byte[]> splitKeys = null;
+    //每个子scan缓存的最大行数，缓存满时该子scan暂停
+    private int queueSize = 1000;
+    //执行子scan的线程池，为null时使用内置的共享线程池
+    private ExecutorService executor = null;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ParallelScanConfig setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public ParallelScanConfig setOrdered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    public List<byte[]> getSplitKeys() {
+        return splitKeys;
+    }
+
+    public ParallelScanConfig setSplitKeys(List<byte[]> splitKeys) {
+        this.splitKeys = splitKeys;
+        return this;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public ParallelScanConfig setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public ParallelScanConfig setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+}
@@ -0,0 +1,243 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.model.AbstractHBaseModel;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行scan：按region边界（或自定义切分点）把一个Scan切成多个子scan并发执行
+ * 子scan在工作线程中读取并解析，结果通过有界队列交给调用线程，回调始终在调用线程中执行
+ * 有序模式下每个子scan一个队列，按范围顺序消费；无序模式下共用一个队列
+ *
+ */
+class ParallelScanner<T extends AbstractHBaseModel> {
+
+    private static final AtomicInteger threadId = new AtomicInteger();
+    private static final ExecutorService sharedExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "hbase-parallel-scan-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    //子scan结束标记
+    private static final Object END = new Object();
+    private static final long OFFER_WAIT_MS = 100L;
+
+    private final CRUDDao<T> dao;
+    private final Class<T> clazz;
+    private final List<Scan> subScans;
+    private final ParallelScanConfig config;
+    private final ExecutorService executor;
+    private final AtomicInteger nextRange = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    ParallelScanner(CRUDDao<T> dao, Class<T> clazz, List<Scan> subScans, ParallelScanConfig config) {
+        this.dao = dao;
+        this.clazz = clazz;
+        this.subScans = subScans;
+        this.config = config;
+        this.executor = config.getExecutor() != null ? config.getExecutor() : sharedExecutor;
+    }
+
+    /**
+     * 执行并逐行回调，回调返回false时停止所有子scan
+     * @param callback 回调
+     * @return 回调的行数
+     * @throws CRUDException 任意一个子scan失败
+     */
+    int scan(RowCallback<T> callback) throws CRUDException {
+        int ranges = subScans.size();
+        final BlockingQueue<Object>[] queues = _queues(config.isOrdered() ? ranges : 1, Math.max(1, config.getQueueSize()));
+        int workers = Math.max(1, Math.min(config.getParallelism(), ranges));
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        _work(queues);
+                    }
+                });
+            }
+            int count = 0;
+            int finished = 0;
+            int current = 0;
+            while (finished < ranges) {
+                Object o = _take(queues[config.isOrdered() ? current : 0]);
+                if (o == END) {
+                    finished++;
+                    current++;
+                } else if (o instanceof Failure) {
+                    throw ((Failure) o).e;
+                } else {
+                    count++;
+                    @SuppressWarnings("unchecked")
+                    T t = (T) o;
+                    if (!callback.onRow(t)) {
+                        break;
+                    }
+                }
+            }
+            return count;
+        } catch (RejectedExecutionException e) {
+            throw new CRUDException(CRUDException.Code.REJECTED, "parallelScan rejected", e);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * 并行计算行数
+     * @return 各个子scan的行数之和
+     * @throws CRUDException 任意一个子scan失败
+     */
+    int rowCount() throws CRUDException {
+        int ranges = subScans.size();
+        int workers = Math.max(1, Math.min(config.getParallelism(), ranges));
+        List<Future<Integer>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int count = 0;
+                        int index;
+                        while (!cancelled.get() && (index = nextRange.getAndIncrement()) < subScans.size()) {
+                            count += dao.rowCount(clazz, subScans.get(index));
+                        }
+                        return count;
+                    }
+                }));
+            }
+            int count = 0;
+            for (Future<Integer> future : futures) {
+                count += future.get();
+            }
+            return count;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CRUDException) {
+                throw (CRUDException) e.getCause();
+            }
+            throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "parallelRowCount error", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while counting", e);
+        } catch (RejectedExecutionException e) {
+            throw new CRUDException(CRUDException.Code.REJECTED, "parallelRowCount rejected", e);
+        } finally {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * 把scan按切分点切成多个子scan，切分点之外的部分会被裁掉
+     * @param scan 原始scan，不支持reversed
+     * @param splitKeys 切分点（region的startKey），需要有序
+     * @return 子scan列表，按rowKey顺序
+     */
+    static List<Scan> split(Scan scan, List<byte[]> splitKeys) throws IOException {
+        if (scan.isReversed()) {
+            throw new IllegalArgumentException("reversed scan is not supported");
+        }
+        byte[] start = scan.getStartRow();
+        byte[] stop = scan.getStopRow();
+        List<Scan> scans = new ArrayList<>();
+        byte[] current = start;
+        if (splitKeys != null) {
+            for (byte[] key : splitKeys) {
+                if (key == null || key.length == 0 || Bytes.compareTo(key, current) <= 0) {
+                    continue;
+                }
+                if (stop.length > 0 && Bytes.compareTo(key, stop) >= 0) {
+                    break;
+                }
+                scans.add(_subScan(scan, current, key));
+                current = key;
+            }
+        }
+        scans.add(_subScan(scan, current, stop));
+        return scans;
+    }
+
+    private static Scan _subScan(Scan scan, byte[] start, byte[] stop) throws IOException {
+        Scan sub = new Scan(scan);
+        sub.setStartRow(start);
+        sub.setStopRow(stop);
+        return sub;
+    }
+
+    //工作线程：依次领取子scan执行，直到全部领完或被取消
+    private void _work(BlockingQueue<Object>[] queues) {
+        int index;
+        while (!cancelled.get() && (index = nextRange.getAndIncrement()) < subScans.size()) {
+            BlockingQueue<Object> queue = queues.length == 1 ? queues[0] : queues[index];
+            try (ModelScanner<T> scanner = dao.scan(clazz, subScans.get(index))) {
+                T t;
+                while (!cancelled.get() && (t = scanner.nextModel()) != null) {
+                    if (!_put(queue, t)) {
+                        return;
+                    }
+                }
+            } catch (CRUDException e) {
+                _put(queue, new Failure(e));
+                return;
+            } catch (Throwable e) {
+                _put(queue, new Failure(new CRUDException(CRUDException.Code.UNKNOW_ERROR, "parallelScan error", e)));
+                return;
+            }
+            if (!_put(queue, END)) {
+                return;
+            }
+        }
+    }
+
+    //队列满时等待，调用方已经停止消费时放弃
+    private boolean _put(BlockingQueue<Object> queue, Object o) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(o, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Object _take(BlockingQueue<Object> queue) throws CRUDException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while scanning", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BlockingQueue<Object>[] _queues(int count, int capacity) {
+        BlockingQueue<Object>[] queues = (BlockingQueue<Object>[]) new BlockingQueue<?>[count];
+        for (int i = 0; i < count; i++) {
+            queues[i] = new LinkedBlockingQueue<>(capacity);
+        }
+        return queues;
+    }
+
+    private static final class Failure {
+        private final CRUDException e;
+
+        Failure(CRUDException e) {
+            this.e = e;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.netease.hbase.dao;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import com.google.protobuf.Service;
+import com.google.protobuf.ServiceException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.client.coprocessor.Batch;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.ipc.CoprocessorRpcChannel;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 连接池中的表句柄，close时归还到池中而不是真正关闭，其余方法直接委托给底层的HTable
+ *
+ */
+class PooledHTable implements HTableInterface {
+
+    private final ConnectionHolder holder;
+    private final String tableName;
+    private final HConnection connection;
+    private final HTableInterface table;
+    //防止重复close导致同一个句柄被放回池中两次
+    private final AtomicBoolean inUse = new AtomicBoolean(false);
+
+    PooledHTable(ConnectionHolder holder, String tableName, HConnection connection, HTableInterface table) {
+        this.holder = holder;
+        this.tableName = tableName;
+        this.connection = connection;
+        this.table = table;
+    }
+
+    HConnection getConnection() {
+        return connection;
+    }
+
+    void acquire() {
+        inUse.set(true);
+    }
+
+    /**
+     * @return 是否是第一次归还
+     */
+    boolean release() {
+        return inUse.compareAndSet(true, false);
+    }
+
+    /**
+     * 真正关闭底层的HTable
+     */
+    void closeTable() throws IOException {
+        table.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        holder.release(tableName, this);
+    }
+
+    @Override
+    public byte[] getTableName() {
+        return table.getTableName();
+    }
+
+    @Override
+    public TableName getName() {
+        return table.getName();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return table.getConfiguration();
+    }
+
+    @Override
+    public HTableDescriptor getTableDescriptor() throws IOException {
+        return table.getTableDescriptor();
+    }
+
+    @Override
+    public boolean exists(Get get) throws IOException {
+        return table.exists(get);
+    }
+
+    @Override
+    public Boolean[] exists(List<Get> gets) throws IOException {
+        return table.exists(gets);
+    }
+
+    @Override
+    public void batch(List<? extends Row> actions, Object[] results) throws IOException, InterruptedException {
+        table.batch(actions, results);
+    }
+
+    @Override
+    @Deprecated
+    public Object[] batch(List<? extends Row> actions) throws IOException, InterruptedException {
+        return table.batch(actions);
+    }
+
+    @Override
+    public <R> void batchCallback(List<? extends Row> actions, Object[] results, Batch.Callback<R> callback) throws IOException, InterruptedException {
+        table.batchCallback(actions, results, callback);
+    }
+
+    @Override
+    @Deprecated
+    public <R> Object[] batchCallback(List<? extends Row> actions, Batch.Callback<R> callback) throws IOException, InterruptedException {
+        return table.batchCallback(actions, callback);
+    }
+
+    @Override
+    public Result get(Get get) throws IOException {
+        return table.get(get);
+    }
+
+    @Override
+    public Result[] get(List<Get> gets) throws IOException {
+        return table.get(gets);
+    }
+
+    @Override
+    @Deprecated
+    public Result getRowOrBefore(byte[] row, byte[] family) throws IOException {
+        return table.getRowOrBefore(row, family);
+    }
+
+    @Override
+    public ResultScanner getScanner(Scan scan) throws IOException {
+        return table.getScanner(scan);
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family) throws IOException {
+        return table.getScanner(family);
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family, byte[] qualifier) throws IOException {
+        return table.getScanner(family, qualifier);
+    }
+
+    @Override
+    public void put(Put put) throws IOException {
+        table.put(put);
+    }
+
+    @Override
+    public void put(List<Put> puts) throws IOException {
+        table.put(puts);
+    }
+
+    @Override
+    public boolean checkAndPut(byte[] row, byte[] family, byte[] qualifier, byte[] value, Put put) throws IOException {
+        return table.checkAndPut(row, family, qualifier, value, put);
+    }
+
+    @Override
+    public void delete(Delete delete) throws IOException {
+        table.delete(delete);
+    }
+
+    @Override
+    public void delete(List<Delete> deletes) throws IOException {
+        table.delete(deletes);
+    }
+
+    @Override
+    public boolean checkAndDelete(byte[] row, byte[] family, byte[] qualifier, byte[] value, Delete delete) throws IOException {
+        return table.checkAndDelete(row, family, qualifier, value, delete);
+    }
+
+    @Override
+    public void mutateRow(RowMutations rm) throws IOException {
+        table.mutateRow(rm);
+    }
+
+    @Override
+    public Result append(Append append) throws IOException {
+        return table.append(append);
+    }
+
+    @Override
+    public Result increment(Increment increment) throws IOException {
+        return table.increment(increment);
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount) throws IOException {
+        return table.incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, Durability durability) throws IOException {
+        return table.incrementColumnValue(row, family, qualifier, amount, durability);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount, boolean writeToWAL) throws IOException {
+        return table.incrementColumnValue(row, family, qualifier, amount, writeToWAL);
+    }
+
+    @Override
+    public boolean isAutoFlush() {
+        return table.isAutoFlush();
+    }
+
+    @Override
+    public void flushCommits() throws IOException {
+        table.flushCommits();
+    }
+
+    @Override
+    public CoprocessorRpcChannel coprocessorService(byte[] row) {
+        return table.coprocessorService(row);
+    }
+
+    @Override
+    public <S extends Service, R> Map<byte[], R> coprocessorService(Class<S> service, byte[] startKey, byte[] endKey,
+                                                                     Batch.Call<S, R> callable) throws ServiceException, Throwable {
+        return table.coprocessorService(service, startKey, endKey, callable);
+    }
+
+    @Override
+    public <S extends Service, R> void coprocessorService(Class<S> service, byte[] startKey, byte[] endKey,
+                                                          Batch.Call<S, R> callable, Batch.Callback<R> callback) throws ServiceException, Throwable {
+        table.coprocessorService(service, startKey, endKey, callable, callback);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setAutoFlush(boolean autoFlush) {
+        table.setAutoFlush(autoFlush);
+    }
+
+    @Override
+    public void setAutoFlush(boolean autoFlush, boolean clearBufferOnFail) {
+        table.setAutoFlush(autoFlush, clearBufferOnFail);
+    }
+
+    @Override
+    public void setAutoFlushTo(boolean autoFlush) {
+        table.setAutoFlushTo(autoFlush);
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+        return table.getWriteBufferSize();
+    }
+
+    @Override
+    public void setWriteBufferSize(long writeBufferSize) throws IOException {
+        table.setWriteBufferSize(writeBufferSize);
+    }
+
+    @Override
+    public <R extends Message> Map<byte[], R> batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request,
+                                                                      byte[] startKey, byte[] endKey, R responsePrototype) throws ServiceException, Throwable {
+        return table.batchCoprocessorService(methodDescriptor, request, startKey, endKey, responsePrototype);
+    }
+
+    @Override
+    public <R extends Message> void batchCoprocessorService(Descriptors.MethodDescriptor methodDescriptor, Message request,
+                                                            byte[] startKey, byte[] endKey, R responsePrototype,
+                                                            Batch.Callback<R> callback) throws ServiceException, Throwable {
+        table.batchCoprocessorService(methodDescriptor, request, startKey, endKey, responsePrototype, callback);
+    }
+
+    @Override
+    public boolean checkAndMutate(byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
+                                  byte[] value, RowMutations mutation) throws IOException {
+        return table.checkAndMutate(row, family, qualifier, compareOp, value, mutation);
+    }
+}
@@ -0,0 +1,53 @@
+package com.netease.hbase.dao;
+
+/**
+ * 合并并发put的配置
+ *
+ */
+public class PutAggregationConfig {
+
+    //执行table.batch的后台线程数，也是同时进行中的写入RPC的最大数量
+    private int dispatcherThreads = 2;
+    //单个batch的最大put数
+    private int maxBatchSize = 500;
+    //单个batch的最大字节数
+    private long maxBatchBytes = 2L * 1024 * 1024;
+    //后台线程取到第一个put后最多再等待多久凑批；为0时只合并线程忙碌期间堆积的put
+    private long lingerMicros = 0;
+
+    public int getDispatcherThreads() {
+        return dispatcherThreads;
+    }
+
+    public PutAggregationConfig setDispatcherThreads(int dispatcherThreads) {
+        this.dispatcherThreads = dispatcherThreads;
+        return this;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public PutAggregationConfig setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public PutAggregationConfig setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    public long getLingerMicros() {
+        return lingerMicros;
+    }
+
+    public PutAggregationConfig setLingerMicros(long lingerMicros) {
+        this.lingerMicros = lingerMicros;
+        return this;
+    }
+}
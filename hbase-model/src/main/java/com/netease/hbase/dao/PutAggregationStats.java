@@ -0,0 +1,61 @@
+package com.netease.hbase.dao;
+
+/**
+ * 合并put的统计数据快照
+ *
+ */
+public final class PutAggregationStats {
+
+    private final long requestCount;
+    private final long batchCount;
+    private final long failedCount;
+    private final int queueSize;
+
+    PutAggregationStats(long requestCount, long batchCount, long failedCount, int queueSize) {
+        this.requestCount = requestCount;
+        this.batchCount = batchCount;
+        this.failedCount = failedCount;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * @return 进入合并的put数
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * @return 执行的table.batch次数
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return 写入失败的put数
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return 当前等待后台线程写入的put数
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * @return 平均每次table.batch包含的put数
+     */
+    public double getAverageBatchSize() {
+        return batchCount == 0 ? 0 : (double) requestCount / batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PutAggregationStats{request=" + requestCount + ", batch=" + batchCount + ", failed=" + failedCount
+                + ", queue=" + queueSize + "}";
+    }
+}
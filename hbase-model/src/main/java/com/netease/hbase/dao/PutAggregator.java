@@ -0,0 +1,285 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.model.AbstractHBaseModel;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并并发的同步put（group commit）：调用线程把put放入队列后阻塞，
+ * 由少量后台线程把队列中堆积的put合并成一次table.batch写入，写入完成后逐个唤醒调用线程并返回各自的结果
+ * 与WriteBehindBuffer不同，put返回时数据已经写入，调用方的语义与直接put相同
+ *
+ */
+class PutAggregator<T extends AbstractHBaseModel> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PutAggregator.class);
+    //后台线程空闲时检查是否已关闭的间隔
+    private static final long IDLE_POLL_MS = 100;
+
+    private final CRUDDao<T> dao;
+    private final String tableName;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread[] dispatchers;
+    //还在运行的后台线程数，降为0之后队列中的put不会再被写入
+    private final AtomicInteger aliveDispatchers;
+    private volatile boolean closed = false;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    PutAggregator(CRUDDao<T> dao, String tableName, PutAggregationConfig config) {
+        if (config.getDispatcherThreads() <= 0) {
+            throw new IllegalArgumentException("dispatcherThreads must be positive");
+        }
+        if (config.getMaxBatchSize() <= 0 || config.getMaxBatchBytes() <= 0) {
+            throw new IllegalArgumentException("maxBatchSize and maxBatchBytes must be positive");
+        }
+        if (config.getLingerMicros() < 0) {
+            throw new IllegalArgumentException("lingerMicros must not be negative");
+        }
+        this.dao = dao;
+        this.tableName = tableName;
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.maxBatchBytes = config.getMaxBatchBytes();
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(config.getLingerMicros());
+        this.dispatchers = new Thread[config.getDispatcherThreads()];
+        this.aliveDispatchers = new AtomicInteger(dispatchers.length);
+        for (int i = 0; i < dispatchers.length; i++) {
+            dispatchers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        _dispatch();
+                    } finally {
+                        //最后一个后台线程退出（正常关闭或异常退出）时，队列中剩下的put不会再有人处理
+                        if (aliveDispatchers.decrementAndGet() == 0) {
+                            _failQueued();
+                        }
+                    }
+                }
+            }, "hbase-put-aggregator-" + tableName + "-" + i);
+            dispatchers[i].setDaemon(true);
+            dispatchers[i].start();
+        }
+    }
+
+    /**
+     * 提交一个put并阻塞直到写入完成
+     * @param model model
+     * @param put put
+     * @return 已关闭、没有进入队列时返回false，调用方应当直接写入
+     * @throws CRUDException 写入失败，或者等待被中断（此时put仍然可能写入）
+     */
+    boolean put(T model, Put put) throws CRUDException {
+        if (closed) {
+            return false;
+        }
+        Pending pending = new Pending(model, put);
+        queue.add(pending);
+        //关闭时或后台线程全部异常退出时，取回自己的put；没有取回说明已经被后台线程取走或以失败结束
+        if ((closed || aliveDispatchers.get() == 0) && queue.remove(pending)) {
+            return false;
+        }
+        requestCount.increment();
+        pending.await();
+        return true;
+    }
+
+    /**
+     * 停止接收新的put，写完队列中已有的put后后台线程退出
+     */
+    void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (Thread dispatcher : dispatchers) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        _failQueued();
+    }
+
+    PutAggregationStats stats() {
+        return new PutAggregationStats(requestCount.sum(), batchCount.sum(), failedCount.sum(), queue.size());
+    }
+
+    private void _dispatch() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            _loop(batch);
+        } finally {
+            //异常退出时已经取出但还没有结果的put，已经有结果的不受影响
+            _fail(batch, "put aggregator dispatcher exited");
+        }
+    }
+
+    private void _loop(List<Pending> batch) {
+        while (true) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long bytes = first.size;
+                long deadline = System.nanoTime() + lingerNanos;
+                //取走队列中已经堆积的put，linger大于0时再等待一段时间
+                while (batch.size() < maxBatchSize && bytes < maxBatchBytes) {
+                    long wait = deadline - System.nanoTime();
+                    Pending pending = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (pending == null) {
+                        break;
+                    }
+                    batch.add(pending);
+                    bytes += pending.size;
+                }
+                _write(batch);
+            } catch (InterruptedException e) {
+                //后台线程不响应中断，已经取出的put必须写完
+                _write(batch);
+            } catch (Throwable t) {
+                logger.error("put aggregator dispatch error, table = {}, ex = {}", tableName, t.toString(), t);
+                CRUDException e = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "aggregated put error", t);
+                for (Pending pending : batch) {
+                    pending.complete(e);
+                }
+            }
+            //不放在finally中：catch中再抛出异常时保留batch，由_dispatch以失败结束
+            batch.clear();
+        }
+    }
+
+    //后台线程全部退出后，以失败结束队列中剩余的put，调用线程不会一直阻塞
+    private void _failQueued() {
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        _fail(rest, "put aggregator closed");
+    }
+
+    private void _fail(List<Pending> list, String message) {
+        if (list.isEmpty()) {
+            return;
+        }
+        CRUDException e = new CRUDException(CRUDException.Code.UNKNOW_ERROR, message + ", table = " + tableName);
+        for (Pending pending : list) {
+            pending.complete(e);
+        }
+    }
+
+    //写入一批put并唤醒每个调用线程，整个请求失败时所有put收到同一个异常
+    private void _write(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchCount.increment();
+        List<Row> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(pending.put);
+        }
+        Object[] results = new Object[rows.size()];
+        Exception batchError = null;
+        HTableInterface table = null;
+        try {
+            table = dao.getHTable(tableName);
+            table.batch(rows, results);
+            dao.onHBaseSuccess();
+        } catch (RetriesExhaustedWithDetailsException e) {
+            //部分条目失败，失败原因已经填在results中，与CRUDDao的batch写入一样只有全部失败时才计入熔断
+            logger.warn("{} aggregatedPut partial fail, failed = {}, ex = {}", tableName, e.getNumExceptions(), e.getMessage());
+            if (e.getNumExceptions() < rows.size()) {
+                dao.onHBaseSuccess();
+            } else {
+                dao.onHBaseConnectionFail(e);
+            }
+        } catch (Exception e) {
+            batchError = e;
+        } finally {
+            dao.close(tableName, table);
+        }
+        CRUDException error = batchError == null ? null : dao.convertException(batch.get(0).model.getClass(), batchError, "aggregatedPut");
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            Object result = results[i];
+            dao.invalidateRow(pending.put.getRow());
+            if (result != null && !(result instanceof Throwable)) {
+                pending.complete(null);
+                continue;
+            }
+            failedCount.increment();
+            CRUDException e = error;
+            if (result instanceof DoNotRetryIOException) {
+                e = new CRUDException(CRUDException.Code.HBASE_NO_RETRY_ERROR, "aggregatedPut error", (Throwable) result);
+            } else if (result instanceof Throwable) {
+                e = new CRUDException(CRUDException.Code.HBASE_RETRY_ERROR, "aggregatedPut error", (Throwable) result);
+            } else if (e == null) {
+                e = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "aggregatedPut error");
+            }
+            pending.complete(e);
+        }
+    }
+
+    //等待写入的一个put，由后台线程填入结果
+    private final class Pending {
+
+        private final T model;
+        private final Put put;
+        private final long size;
+        private CRUDException error;
+        private boolean done;
+
+        private Pending(T model, Put put) {
+            this.model = model;
+            this.put = put;
+            this.size = Math.max(1, put.heapSize());
+        }
+
+        private synchronized void complete(CRUDException error) {
+            if (done) {
+                return;
+            }
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        private synchronized void await() throws CRUDException {
+            try {
+                while (!done) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while waiting for aggregated put", e);
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
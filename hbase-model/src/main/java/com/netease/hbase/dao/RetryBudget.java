@@ -0,0 +1,48 @@
+package com.netease.hbase.dao;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算：每条成功的写入存入ratio个令牌，每重试一条取出一个令牌，令牌不足时不再重试
+ * 集群整体异常时失败远多于成功，预算很快耗尽，避免重试把流量放大数倍
+ * 令牌以千分之一为单位存储
+ *
+ */
+class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long depositPerSuccess;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    RetryBudget(double ratio, int maxTokens) {
+        this.depositPerSuccess = Math.max(0, Math.round(ratio * UNIT));
+        this.maxTokens = Math.max(0, maxTokens) * UNIT;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    void onSuccess(int count) {
+        if (count <= 0 || depositPerSuccess == 0) return;
+        long deposit = depositPerSuccess * count;
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) return;
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + deposit)));
+    }
+
+    /**
+     * @param count 需要重试的条数
+     * @return 是否允许重试
+     */
+    boolean tryRetry(int count) {
+        long need = count * UNIT;
+        long current;
+        do {
+            current = tokens.get();
+            if (current < need) return false;
+        } while (!tokens.compareAndSet(current, current - need));
+        return true;
+    }
+}
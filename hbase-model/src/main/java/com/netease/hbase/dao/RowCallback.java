@@ -0,0 +1,15 @@
+package com.netease.hbase.dao;
+
+/**
+ * 流式scan的逐行回调，在调用scan的线程中执行
+ *
+ */
+public interface RowCallback<T> {
+
+    /**
+     * 处理一行
+     * @param model 解析后的对象
+     * @return 是否继续scan，返回false时停止并关闭scanner
+     */
+    boolean onRow(T model);
+}
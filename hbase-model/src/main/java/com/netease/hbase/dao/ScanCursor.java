@@ -0,0 +1,40 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 可恢复的scan游标，记录上一页最后一行的rowKey，下一页从该行之后继续
+ * 可以通过toString/parse在请求之间传递
+ *
+ */
+public final class ScanCursor {
+
+    private final byte[] lastRow;
+
+    public ScanCursor(byte[] lastRow) {
+        if (lastRow == null || lastRow.length == 0) {
+            throw new IllegalArgumentException("lastRow is empty");
+        }
+        this.lastRow = lastRow;
+    }
+
+    public byte[] getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * @param cursor toString得到的字符串
+     * @return 游标，cursor为空时返回null（从头开始）
+     */
+    public static ScanCursor parse(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        return new ScanCursor(Bytes.toBytesBinary(cursor));
+    }
+
+    @Override
+    public String toString() {
+        return Bytes.toStringBinary(lastRow);
+    }
+}
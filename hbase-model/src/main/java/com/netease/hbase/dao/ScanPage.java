@@ -0,0 +1,33 @@
+package com.netease.hbase.dao;
+
+import java.util.List;
+
+/**
+ * 分页scan的一页结果
+ *
+ */
+public final class ScanPage<T> {
+
+    private final List<T> models;
+    private final ScanCursor next;
+
+    ScanPage(List<T> models, ScanCursor next) {
+        this.models = models;
+        this.next = next;
+    }
+
+    public List<T> getModels() {
+        return models;
+    }
+
+    /**
+     * @return 下一页的游标，没有更多数据时为null
+     */
+    public ScanCursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
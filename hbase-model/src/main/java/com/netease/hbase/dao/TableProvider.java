@@ -0,0 +1,34 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.HTableInterface;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CRUDDao获取表的来源，默认是hbase.xml配置的集群，可以替换为InMemoryTableProvider等本地实现
+ * 通过CRUDDao.setTableProvider设置，对所有CRUDDao生效
+ *
+ */
+public interface TableProvider {
+
+    /**
+     * 获取表，CRUDDao每次操作完都会调用close
+     * @param tableName 表名
+     * @return 表
+     * @throws IOException 获取失败
+     */
+    HTableInterface getTable(String tableName) throws IOException;
+
+    /**
+     * 获取表所有region的startKey，用于切分并行scan，默认只有一个region
+     * @param tableName 表名
+     * @return 有序的startKey列表，第一个为空数组
+     * @throws IOException 获取失败
+     */
+    default List<byte[]> getRegionStartKeys(String tableName) throws IOException {
+        return Collections.singletonList(HConstants.EMPTY_START_ROW);
+    }
+}
@@ -0,0 +1,298 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import com.netease.hbase.metrics.Operation;
+import com.netease.hbase.model.AbstractHBaseModel;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 缓冲写入：多个线程提交的put/delete先进入缓冲区，由一个后台线程按数量/字节数/等待时间攒批后调用table.batch写入
+ * 缓冲区按字节数限制内存，满了之后提交方阻塞；每个mutation写入完成后通过回调通知结果
+ *
+ */
+class WriteBehindBuffer<T extends AbstractHBaseModel> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    //flush等待期间检查后台线程是否存活的间隔
+    private static final long FLUSH_CHECK_MS = 100;
+    //close时等待后台线程退出的最长时间
+    private static final long CLOSE_JOIN_MS = 1000;
+
+    private final CRUDDao<T> dao;
+    private final String tableName;
+    private final WriteBufferConfig config;
+    private final int bufferPermits;
+    private final Semaphore bufferSemaphore;
+    private final BlockingQueue<Pending<T>> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean closed = false;
+
+    WriteBehindBuffer(CRUDDao<T> dao, String tableName, WriteBufferConfig config) {
+        this.dao = dao;
+        this.tableName = tableName;
+        this.config = config;
+        this.bufferPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, config.getBufferBytes()));
+        this.bufferSemaphore = new Semaphore(bufferPermits);
+        this.dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    _dispatch();
+                } finally {
+                    _abandon();
+                }
+            }
+        }, "hbase-write-buffer-" + tableName);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * 提交一个mutation，缓冲区满时阻塞直到有空间或超时
+     * @param model model
+     * @param mutation put/delete
+     * @param callback 完成回调，可以为null
+     * @throws CRUDException 缓冲区已关闭或等待超时
+     */
+    void submit(T model, Mutation mutation, MutationCallback<T> callback) throws CRUDException {
+        if (closed) {
+            throw new CRUDException(CRUDException.Code.BUFFER_FULL, "write buffer closed");
+        }
+        int size = (int) Math.min(bufferPermits, Math.max(1, mutation.heapSize()));
+        try {
+            if (!bufferSemaphore.tryAcquire(size, config.getBlockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new CRUDException(CRUDException.Code.BUFFER_FULL, "write buffer full, table = " + tableName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CRUDException(CRUDException.Code.BUFFER_FULL, "interrupted while waiting for write buffer", e);
+        }
+        Pending<T> pending = new Pending<>(model, mutation, size, callback, null);
+        queue.add(pending);
+        //等待缓冲区期间可能已经close，后台线程退出后不会再写入，取回自己的mutation
+        if (closed && queue.remove(pending)) {
+            bufferSemaphore.release(size);
+            throw new CRUDException(CRUDException.Code.BUFFER_FULL, "write buffer closed");
+        }
+    }
+
+    /**
+     * 阻塞直到调用之前提交的所有mutation都已写入（成功或失败）
+     * 后台线程已经退出时立即返回：关闭时已经写完了缓冲区中的数据
+     * @throws CRUDException 等待被中断，或后台线程在写完之前异常退出
+     */
+    void flush() throws CRUDException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Pending<T> marker = new Pending<>(null, null, 0, null, latch);
+        queue.add(marker);
+        try {
+            //后台线程退出后不会再处理标记，定期检查，避免永久阻塞
+            while (!latch.await(FLUSH_CHECK_MS, TimeUnit.MILLISECONDS)) {
+                if (!dispatcher.isAlive() && queue.remove(marker)) {
+                    if (closed) {
+                        return;
+                    }
+                    throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "write buffer dispatcher exited, table = " + tableName);
+                }
+            }
+        } catch (InterruptedException e) {
+            queue.remove(marker);
+            Thread.currentThread().interrupt();
+            throw new CRUDException(CRUDException.Code.UNKNOW_ERROR, "interrupted while flushing write buffer", e);
+        }
+    }
+
+    /**
+     * 停止接收新的mutation，写完缓冲区中已有的数据后退出后台线程
+     */
+    void close() throws CRUDException {
+        closed = true;
+        flush();
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(CLOSE_JOIN_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //后台线程退出之后才进入队列的flush标记
+        if (!dispatcher.isAlive()) {
+            _abandon();
+        }
+    }
+
+    private void _dispatch() {
+        List<Pending<T>> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Pending<T> first = queue.take();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+                long bytes = 0;
+                Pending<T> pending = first;
+                while (pending != null) {
+                    if (pending.flushLatch != null) {
+                        _write(batch);
+                        bytes = 0;
+                        pending.flushLatch.countDown();
+                    } else {
+                        batch.add(pending);
+                        bytes += pending.size;
+                        if (batch.size() >= config.getMaxBatchSize() || bytes >= config.getMaxBatchBytes()) {
+                            break;
+                        }
+                    }
+                    long wait = deadline - System.nanoTime();
+                    pending = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                }
+                _write(batch);
+            } catch (InterruptedException e) {
+                if (closed) {
+                    _drain(batch);
+                    return;
+                }
+            } catch (Throwable t) {
+                logger.error("write buffer dispatch error, table = {}, ex = {}", tableName, t.toString(), t);
+            }
+        }
+    }
+
+    //关闭时写入队列中剩余的数据
+    private void _drain(List<Pending<T>> batch) {
+        Pending<T> pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending.flushLatch != null) {
+                _write(batch);
+                pending.flushLatch.countDown();
+            } else {
+                batch.add(pending);
+            }
+        }
+        _write(batch);
+    }
+
+    //后台线程退出时调用：释放队列中剩余的flush标记，剩余的mutation按失败通知
+    private void _abandon() {
+        Pending<T> pending;
+        CRUDException error = null;
+        while ((pending = queue.poll()) != null) {
+            if (pending.flushLatch != null) {
+                pending.flushLatch.countDown();
+                continue;
+            }
+            if (error == null) {
+                error = new CRUDException(CRUDException.Code.BUFFER_FULL, "write buffer closed");
+            }
+            _callback(pending, error);
+            bufferSemaphore.release(pending.size);
+        }
+    }
+
+    //写入一批mutation并逐个回调，之后释放缓冲区空间；出错时没有回调的mutation按失败通知，不会留到下一批重复写入
+    private void _write(List<Pending<T>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Row> rows = new ArrayList<>(batch.size());
+        int size = 0;
+        for (Pending<T> pending : batch) {
+            rows.add(pending.mutation);
+            size += pending.size;
+        }
+        int notified = 0;
+        try {
+            Object[] results = new Object[rows.size()];
+            Exception batchError = null;
+            HTableInterface table = null;
+            try {
+                table = dao.getHTable(tableName);
+                table.batch(rows, results);
+                dao.onHBaseSuccess();
+            } catch (Exception e) {
+                batchError = e;
+            } finally {
+                dao.close(tableName, table);
+            }
+            CRUDException error = batchError == null ? null : dao.convertException(batch.get(0).model.getClass(), batchError, "bufferedWrite");
+            int success = 0;
+            for (Object result : results) {
+                if (result != null && !(result instanceof Throwable)) {
+                    success++;
+                }
+            }
+            dao.getMetrics().record(Operation.BUFFERED_WRITE, start, success, batch.size() - success, size,
+                    error == null || success > 0 ? 0 : error.getCode());
+            for (int i = 0; i < batch.size(); i++) {
+                Pending<T> pending = batch.get(i);
+                Object result = results[i];
+                dao.invalidateRow(pending.mutation.getRow());
+                if (result != null && !(result instanceof Throwable)) {
+                    _callback(pending, null);
+                } else {
+                    CRUDException e = error;
+                    if (result instanceof DoNotRetryIOException) {
+                        e = new CRUDException(CRUDException.Code.HBASE_NO_RETRY_ERROR, "bufferedWrite error", (Throwable) result);
+                    } else if (result instanceof Throwable) {
+                        e = new CRUDException(CRUDException.Code.HBASE_RETRY_ERROR, "bufferedWrite error", (Throwable) result);
+                    } else if (e == null) {
+                        e = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "bufferedWrite error");
+                    }
+                    _callback(pending, e);
+                }
+                notified = i + 1;
+            }
+        } catch (Throwable t) {
+            logger.error("write buffer write error, table = {}, ex = {}", tableName, t.toString(), t);
+            CRUDException e = new CRUDException(CRUDException.Code.UNKNOW_ERROR, "bufferedWrite error", t);
+            for (int i = notified; i < batch.size(); i++) {
+                _callback(batch.get(i), e);
+            }
+        } finally {
+            batch.clear();
+            bufferSemaphore.release(size);
+        }
+    }
+
+    //回调异常只记录日志，不影响其他mutation
+    private void _callback(Pending<T> pending, CRUDException error) {
+        if (pending.callback == null) {
+            return;
+        }
+        try {
+            if (error == null) {
+                pending.callback.onSuccess(pending.model);
+            } else {
+                pending.callback.onFailure(pending.model, error);
+            }
+        } catch (Throwable t) {
+            logger.error("write buffer callback error, table = {}, ex = {}", tableName, t.toString(), t);
+        }
+    }
+
+    private static final class Pending<T> {
+
+        private final T model;
+        private final Mutation mutation;
+        private final int size;
+        private final MutationCallback<T> callback;
+        //flush标记，不为null时表示需要立即写入之前的数据
+        private final CountDownLatch flushLatch;
+
+        Pending(T model, Mutation mutation, int size, MutationCallback<T> callback, CountDownLatch flushLatch) {
+            this.model = model;
+            this.mutation = mutation;
+            this.size = size;
+            this.callback = callback;
+            this.flushLatch = flushLatch;
+        }
+    }
+}
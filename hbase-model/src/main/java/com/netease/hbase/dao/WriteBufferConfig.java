@@ -0,0 +1,64 @@
+package com.netease.hbase.dao;
+
+/**
+ * 缓冲写入模式的配置
+ *
+ */
+public class WriteBufferConfig {
+
+    //单个batch的最大mutation数，达到后立即flush
+    private int maxBatchSize = 1000;
+    //单个batch的最大字节数，达到后立即flush
+    private long maxBatchBytes = 2L * 1024 * 1024;
+    //第一个mutation进入缓冲区后最多等待多久flush
+    private long lingerMs = 10;
+    //缓冲区最多占用的字节数，超过后写入方阻塞
+    private long bufferBytes = 32L * 1024 * 1024;
+    //缓冲区满时写入方最多阻塞多久，超时抛出BUFFER_FULL异常
+    private long blockTimeoutMs = 60000;
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public WriteBufferConfig setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public WriteBufferConfig setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    public WriteBufferConfig setLingerMs(long lingerMs) {
+        this.lingerMs = lingerMs;
+        return this;
+    }
+
+    public long getBufferBytes() {
+        return bufferBytes;
+    }
+
+    public WriteBufferConfig setBufferBytes(long bufferBytes) {
+        this.bufferBytes = bufferBytes;
+        return this;
+    }
+
+    public long getBlockTimeoutMs() {
+        return blockTimeoutMs;
+    }
+
+    public WriteBufferConfig setBlockTimeoutMs(long blockTimeoutMs) {
+        this.blockTimeoutMs = blockTimeoutMs;
+        return this;
+    }
+}
@@ -8,11 +8,17 @@ import com.alibaba.fastjson.JSONObject;
  */
 public class CRUDException extends Exception {
 
+    private static final long serialVersionUID = 1L;
+
     public interface Code {
         int UNKNOW_ERROR = 500;
         int HBASE_NO_RETRY_ERROR = 1001;
         int HBASE_RETRY_ERROR = 1002;
         int IO_ERROR = 1003;
+        int BUFFER_FULL = 1004;
+        int REJECTED = 1005;
+        int TIMEOUT = 1006;
+        int CIRCUIT_OPEN = 1007;
     }
 
     private int code;
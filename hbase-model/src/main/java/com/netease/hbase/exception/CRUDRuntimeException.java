@@ -0,0 +1,26 @@
+package com.netease.hbase.exception;
+
+/**
+ * 不能抛出受检异常的地方（Iterator/Stream）用来包装CRUDException
+ *
+ */
+public class CRUDRuntimeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CRUDException cause;
+
+    public CRUDRuntimeException(CRUDException cause) {
+        super(cause.getMessage(), cause);
+        this.cause = cause;
+    }
+
+    public int getCode() {
+        return cause.getCode();
+    }
+
+    @Override
+    public CRUDException getCause() {
+        return cause;
+    }
+}
@@ -0,0 +1,16 @@
+package com.netease.hbase.metrics;
+
+/**
+ * 连接相关事件的JMX视图
+ *
+ */
+public interface ConnectionMetricsMXBean {
+
+    long getReconnectSuccess();
+
+    long getReconnectFailure();
+
+    long getCircuitOpens();
+
+    void reset();
+}
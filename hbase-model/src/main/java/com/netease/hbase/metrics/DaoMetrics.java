@@ -0,0 +1,219 @@
+package com.netease.hbase.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指标注册中心：按表名保存TableMetrics，注册JMX MBean，管理MetricsSink
+ * MBean名称为 com.netease.hbase:type=CRUDDao,table=表名,op=操作 以及 com.netease.hbase:type=Connection
+ *
+ */
+public final class DaoMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaoMetrics.class);
+
+    private static final String DOMAIN = "com.netease.hbase";
+
+    private static final ConcurrentMap<String, TableMetrics> tables = new ConcurrentHashMap<>();
+    private static final ConnectionMetrics connection = new ConnectionMetrics();
+    //记录时按下标遍历，增删时整体替换
+    static volatile MetricsSink[] sinks = new MetricsSink[0];
+    private static volatile boolean jmxEnabled = true;
+    private static volatile boolean connectionRegistered = false;
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * 获取表的统计，第一次获取时创建并注册MBean
+     * @param table 表名
+     * @return 统计
+     */
+    public static TableMetrics table(String table) {
+        table = String.valueOf(table);
+        TableMetrics metrics = tables.get(table);
+        if (metrics != null) {
+            return metrics;
+        }
+        metrics = new TableMetrics(table);
+        TableMetrics old = tables.putIfAbsent(table, metrics);
+        if (old != null) {
+            return old;
+        }
+        if (jmxEnabled) {
+            for (Operation operation : Operation.values()) {
+                _register("type=CRUDDao,table=" + _quote(table) + ",op=" + operation.name(), metrics.get(operation));
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return 所有表的统计
+     */
+    public static Collection<TableMetrics> tables() {
+        return Collections.unmodifiableCollection(tables.values());
+    }
+
+    /**
+     * @return 连接相关事件的统计
+     */
+    public static ConnectionMetricsMXBean connection() {
+        return connection;
+    }
+
+    /**
+     * 是否注册JMX MBean，默认注册，需要在第一个CRUDDao创建之前设置
+     * @param enabled 是否注册
+     */
+    public static void setJmxEnabled(boolean enabled) {
+        jmxEnabled = enabled;
+    }
+
+    /**
+     * 添加sink
+     * @param sink sink
+     */
+    public static synchronized void addSink(MetricsSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink is null");
+        }
+        MetricsSink[] current = sinks;
+        MetricsSink[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sink;
+        sinks = updated;
+    }
+
+    /**
+     * 移除sink
+     * @param sink sink
+     * @return 是否移除
+     */
+    public static synchronized boolean removeSink(MetricsSink sink) {
+        List<MetricsSink> list = new ArrayList<>(Arrays.asList(sinks));
+        if (!list.remove(sink)) {
+            return false;
+        }
+        sinks = list.toArray(new MetricsSink[list.size()]);
+        return true;
+    }
+
+    /**
+     * 后台重连完成
+     * @param success 是否成功
+     */
+    public static void onReconnect(boolean success) {
+        _registerConnection();
+        if (success) {
+            connection.reconnectSuccess.increment();
+        } else {
+            connection.reconnectFailure.increment();
+        }
+        MetricsSink[] sinks = DaoMetrics.sinks;
+        for (int i = 0; i < sinks.length; i++) {
+            try {
+                sinks[i].onReconnect(success);
+            } catch (RuntimeException e) {
+                onSinkError(sinks[i], e);
+            }
+        }
+    }
+
+    /**
+     * 熔断打开
+     */
+    public static void onCircuitOpen() {
+        _registerConnection();
+        connection.circuitOpens.increment();
+        MetricsSink[] sinks = DaoMetrics.sinks;
+        for (int i = 0; i < sinks.length; i++) {
+            try {
+                sinks[i].onCircuitOpen();
+            } catch (RuntimeException e) {
+                onSinkError(sinks[i], e);
+            }
+        }
+    }
+
+    static void onSinkError(MetricsSink sink, RuntimeException e) {
+        logger.error("metrics sink {} fail, ex = {}", sink.getClass().getName(), e.toString(), e);
+    }
+
+    private static void _registerConnection() {
+        if (connectionRegistered || !jmxEnabled) {
+            return;
+        }
+        synchronized (DaoMetrics.class) {
+            if (connectionRegistered) {
+                return;
+            }
+            _register("type=Connection", connection);
+            connectionRegistered = true;
+        }
+    }
+
+    //注册失败（如同名MBean已存在）只打日志，不影响业务
+    private static void _register(String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (Exception e) {
+            logger.error("register mbean fail, name = {}, ex = {}", name, e.toString(), e);
+        }
+    }
+
+    //表名中包含ObjectName的特殊字符（如namespace的冒号）时加引号
+    private static String _quote(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ':' || c == ',' || c == '=' || c == '*' || c == '?' || c == '"' || c == '\n') {
+                return ObjectName.quote(value);
+            }
+        }
+        return value;
+    }
+
+    private static final class ConnectionMetrics implements ConnectionMetricsMXBean {
+
+        private final LongAdder reconnectSuccess = new LongAdder();
+        private final LongAdder reconnectFailure = new LongAdder();
+        private final LongAdder circuitOpens = new LongAdder();
+
+        @Override
+        public long getReconnectSuccess() {
+            return reconnectSuccess.sum();
+        }
+
+        @Override
+        public long getReconnectFailure() {
+            return reconnectFailure.sum();
+        }
+
+        @Override
+        public long getCircuitOpens() {
+            return circuitOpens.sum();
+        }
+
+        @Override
+        public void reset() {
+            reconnectSuccess.reset();
+            reconnectFailure.reset();
+            circuitOpens.reset();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.netease.hbase.metrics;
+
+/**
+ * 指标输出接口，用于接入外部的监控系统
+ * 在业务线程中同步回调，实现必须足够快且不能抛出异常
+ *
+ */
+public interface MetricsSink {
+
+    /**
+     * 一次操作完成
+     * @param table 表名
+     * @param operation 操作类型
+     * @param latencyNanos 耗时，纳秒
+     * @param rows 处理的行数
+     * @param failedRows 批量操作中失败的行数
+     * @param bytes 读写的字节数
+     * @param errorCode 错误码，成功时为0
+     */
+    void onOperation(String table, Operation operation, long latencyNanos, int rows, int failedRows, long bytes, int errorCode);
+
+    /**
+     * 后台重连完成
+     * @param success 是否成功
+     */
+    default void onReconnect(boolean success) {
+    }
+
+    /**
+     * 连续连接失败导致熔断打开
+     */
+    default void onCircuitOpen() {
+    }
+}
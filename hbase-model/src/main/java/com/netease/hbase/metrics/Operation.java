@@ -0,0 +1,19 @@
+package com.netease.hbase.metrics;
+
+/**
+ * 统计的操作类型
+ *
+ */
+public enum Operation {
+    GET,
+    PUT,
+    DELETE,
+    BATCH_GET,
+    BATCH_PUT,
+    BATCH_DELETE,
+    SCAN,
+    ROW_COUNT,
+    GET_TABLE,
+    BUFFERED_WRITE,
+    ;
+}
@@ -0,0 +1,165 @@
+package com.netease.hbase.metrics;
+
+import com.netease.hbase.exception.CRUDException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个表单个操作的统计：延迟直方图、次数、行数、字节数以及按错误码的错误数
+ *
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    //错误码到计数下标的映射，未知的错误码记入最后一个
+    private static final int[] CODES = {
+            CRUDException.Code.UNKNOW_ERROR,
+            CRUDException.Code.HBASE_NO_RETRY_ERROR,
+            CRUDException.Code.HBASE_RETRY_ERROR,
+            CRUDException.Code.IO_ERROR,
+            CRUDException.Code.BUFFER_FULL,
+            CRUDException.Code.REJECTED,
+            CRUDException.Code.TIMEOUT,
+            CRUDException.Code.CIRCUIT_OPEN,
+    };
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final AtomicLongArray errorsByCode = new AtomicLongArray(CODES.length + 1);
+
+    /**
+     * 记录一次操作
+     * @param latencyNanos 耗时，纳秒
+     * @param rows 处理的行数
+     * @param failedRows 批量操作中失败的行数
+     * @param bytes 读写的字节数
+     * @param errorCode 错误码，成功时为0
+     */
+    void record(long latencyNanos, int rows, int failedRows, long bytes, int errorCode) {
+        latency.record(latencyNanos / 1000);
+        count.increment();
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+        if (failedRows > 0) {
+            this.failedRows.add(failedRows);
+        }
+        if (bytes > 0) {
+            this.bytes.add(bytes);
+        }
+        if (errorCode != 0) {
+            errors.increment();
+            errorsByCode.incrementAndGet(_codeIndex(errorCode));
+        }
+    }
+
+    private static int _codeIndex(int code) {
+        for (int i = 0; i < CODES.length; i++) {
+            if (CODES[i] == code) {
+                return i;
+            }
+        }
+        return CODES.length;
+    }
+
+    /**
+     * @return 延迟直方图
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @param code CRUDException.Code
+     * @return 该错误码的错误数
+     */
+    public long getErrors(int code) {
+        return errorsByCode.get(_codeIndex(code));
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.snapshot().getMean();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latency.snapshot().percentile(0.5);
+    }
+
+    @Override
+    public long getP95Micros() {
+        return latency.snapshot().percentile(0.95);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latency.snapshot().percentile(0.99);
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latency.snapshot().percentile(0.999);
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latency.snapshot().getMax();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByCode() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i <= CODES.length; i++) {
+            long n = errorsByCode.get(i);
+            if (n > 0) {
+                map.put(i < CODES.length ? String.valueOf(CODES[i]) : "other", n);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        count.reset();
+        errors.reset();
+        rows.reset();
+        failedRows.reset();
+        bytes.reset();
+        for (int i = 0; i <= CODES.length; i++) {
+            errorsByCode.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.netease.hbase.metrics;
+
+import java.util.Map;
+
+/**
+ * 单个表单个操作的JMX视图，延迟单位为微秒
+ *
+ */
+public interface OperationMetricsMXBean {
+
+    long getCount();
+
+    long getErrors();
+
+    long getRows();
+
+    long getFailedRows();
+
+    long getBytes();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP95Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    /**
+     * @return 按CRUDException.Code统计的错误数
+     */
+    Map<String, Long> getErrorsByCode();
+
+    void reset();
+}
@@ -0,0 +1,63 @@
+package com.netease.hbase.metrics;
+
+/**
+ * 单个表的统计，每种操作一个OperationMetrics
+ *
+ */
+public class TableMetrics {
+
+    private final String table;
+    private final OperationMetrics[] operations;
+
+    TableMetrics(String table) {
+        this.table = table;
+        Operation[] values = Operation.values();
+        this.operations = new OperationMetrics[values.length];
+        for (int i = 0; i < values.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+    }
+
+    /**
+     * 记录一次操作，同时回调所有sink
+     * @param operation 操作类型
+     * @param startNanos 开始时间，System.nanoTime()
+     * @param rows 处理的行数
+     * @param failedRows 批量操作中失败的行数
+     * @param bytes 读写的字节数
+     * @param errorCode 错误码，成功时为0
+     */
+    public void record(Operation operation, long startNanos, int rows, int failedRows, long bytes, int errorCode) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        operations[operation.ordinal()].record(latencyNanos, rows, failedRows, bytes, errorCode);
+        MetricsSink[] sinks = DaoMetrics.sinks;
+        for (int i = 0; i < sinks.length; i++) {
+            try {
+                sinks[i].onOperation(table, operation, latencyNanos, rows, failedRows, bytes, errorCode);
+            } catch (RuntimeException e) {
+                DaoMetrics.onSinkError(sinks[i], e);
+            }
+        }
+    }
+
+    /**
+     * @param operation 操作类型
+     * @return 该操作的统计
+     */
+    public OperationMetrics get(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * 清空所有操作的统计
+     */
+    public void reset() {
+        for (OperationMetrics metrics : operations) {
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,954 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.*;
+import com.netease.hbase.model.codec.TypeCodec;
+import com.netease.hbase.model.codec.TypeCodecs;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * model的编解码器，每个model class只在第一次使用时根据注解构建一次，之后所有的toPut/parseResult都复用
+ * 字段的读写通过构建时绑定好的MethodHandle完成，字段类型的判断也在构建时完成，运行时不再走反射和instanceof判断
+ * 基本类型的字段通过对应类型的MethodHandle读写，编解码过程中不会装箱，其他类型通过{@link TypeCodecs}中注册的codec处理
+ *
+ */
+final class ModelCodec {
+
+    static final byte[] SEPARATOR = Bytes.toBytes("|");
+
+    private static final ConcurrentMap<Class<?>, ModelCodec> codecMap = new ConcurrentHashMap<>();
+
+    //HBaseColumnFamily的id -> 列族名
+    private final Map<Integer, byte[]> families;
+    //按id升序排列
+    private final FieldBinding[] bindings;
+    //所有map字段，下标即MapBinding.index
+    private final MapBinding[] mapBindings;
+    //每个列族一个索引，用于解码时查找字段
+    private final FamilyIndex[] familyIndexes;
+    //所有列族索引中普通字段的总数
+    private final int indexSize;
+
+    /**
+     * 获取model对应的codec，不存在则构建
+     * @param model model实例，用于读取非static的列定义
+     * @return codec
+     */
+    static ModelCodec of(AbstractHBaseModel model) {
+        Class<?> clazz = model.getClass();
+        ModelCodec codec = codecMap.get(clazz);
+        if (codec == null) {
+            codec = new ModelCodec(clazz, model);
+            ModelCodec old = codecMap.putIfAbsent(clazz, codec);
+            if (old != null) {
+                codec = old;
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * 获取class对应的codec，不存在则创建一个实例后构建
+     * @param clazz model class
+     * @return codec
+     */
+    static ModelCodec of(Class<? extends AbstractHBaseModel> clazz) {
+        ModelCodec codec = codecMap.get(clazz);
+        if (codec != null) {
+            return codec;
+        }
+        try {
+            return of(clazz.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("instantiate " + clazz.getName() + " error", e);
+        }
+    }
+
+    private ModelCodec(Class<?> clazz, Object holder) {
+        List<Field> fields = new ArrayList<>();
+        _getFields(fields, clazz);
+
+        Map<Integer, byte[]> familyMap = new TreeMap<>();
+        Map<Integer, byte[]> columnMap = new HashMap<>();
+        Map<Integer, Integer> columnFamilyMap = new HashMap<>();
+        Map<Integer, Field> fieldMap = new TreeMap<>();
+        for (Field field : fields) {
+            HBaseColumnFamily columnFamily = field.getAnnotation(HBaseColumnFamily.class);
+            if (columnFamily != null) {
+                byte[] bytes = _readBytes(field, holder, "HBaseColumnFamily should be byte array");
+                if (familyMap.put(columnFamily.id(), bytes) != null) {
+                    throw new RuntimeException("duplicate HBaseColumnFamily id " + columnFamily.id());
+                }
+            }
+            HBaseColumn column = field.getAnnotation(HBaseColumn.class);
+            if (column != null) {
+                columnMap.put(column.id(), _readBytes(field, holder, "HBaseColumn should be byte array"));
+                columnFamilyMap.put(column.id(), column.family());
+            }
+            HBaseField hBaseField = field.getAnnotation(HBaseField.class);
+            if (hBaseField != null) {
+                fieldMap.put(hBaseField.id(), field);
+            }
+        }
+
+        List<FieldBinding> list = new ArrayList<>();
+        List<MapBinding> maps = new ArrayList<>();
+        for (Map.Entry<Integer, Field> entry : fieldMap.entrySet()) {
+            Field field = entry.getValue();
+            byte[] column = columnMap.get(entry.getKey());
+            FieldBinding binding = FieldBinding.create(field, column);
+            //没有HBaseMapField的map字段会被当成普通列写入，读取时无法解析，构建时直接拒绝
+            if (column != null && binding instanceof MapBinding && field.getAnnotation(HBaseMapField.class) == null) {
+                throw new RuntimeException("map field should have HBaseMapField, field = " + field.getName() + ", class = " + clazz.getName());
+            }
+            HBaseCompress compress = field.getAnnotation(HBaseCompress.class);
+            if (compress != null) {
+                if (!(binding instanceof ObjectBinding) && !(binding instanceof MapBinding && ((MapBinding) binding).packed)) {
+                    throw new RuntimeException("HBaseCompress only supports object fields and packed map fields, field = " + field.getName());
+                }
+                binding.compressor = new ValueCompressor(compress.threshold(), compress.level());
+            }
+            if (column != null && !familyMap.isEmpty()) {
+                int familyId = columnFamilyMap.get(entry.getKey());
+                binding.family = familyMap.get(familyId);
+                if (binding.family == null) {
+                    throw new RuntimeException("HBaseColumnFamily " + familyId + " not found, field = " + field.getName());
+                }
+            }
+            list.add(binding);
+            if (column != null && binding instanceof MapBinding && field.getAnnotation(HBaseMapField.class) != null) {
+                MapBinding mapBinding = (MapBinding) binding;
+                mapBinding.index = maps.size();
+                mapBinding.prefix = Bytes.add(column, SEPARATOR);
+                maps.add(mapBinding);
+            }
+        }
+        this.families = familyMap;
+        this.bindings = list.toArray(new FieldBinding[list.size()]);
+        this.mapBindings = maps.toArray(new MapBinding[maps.size()]);
+
+        //按列族分组，组内按qualifier排序
+        Map<byte[], TreeMap<byte[], FieldBinding>> indexMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        Map<byte[], List<MapBinding>> familyMaps = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        for (byte[] family : familyMap.values()) {
+            indexMap.put(family, new TreeMap<byte[], FieldBinding>(Bytes.BYTES_COMPARATOR));
+            familyMaps.put(family, new ArrayList<MapBinding>());
+        }
+        for (FieldBinding binding : bindings) {
+            if (binding.column == null || binding.family == null) continue;
+            if (binding instanceof MapBinding && ((MapBinding) binding).prefix != null) {
+                familyMaps.get(binding.family).add((MapBinding) binding);
+                continue;
+            }
+            TreeMap<byte[], FieldBinding> index = indexMap.get(binding.family);
+            if (!index.containsKey(binding.column)) {
+                index.put(binding.column, binding);
+            }
+        }
+        List<FamilyIndex> familyIndexes = new ArrayList<>();
+        int slot = 0;
+        for (Map.Entry<byte[], TreeMap<byte[], FieldBinding>> entry : indexMap.entrySet()) {
+            FamilyIndex index = new FamilyIndex(entry.getKey(), entry.getValue(), familyMaps.get(entry.getKey()), slot);
+            slot += index.bindings.length;
+            familyIndexes.add(index);
+        }
+        this.familyIndexes = familyIndexes.toArray(new FamilyIndex[familyIndexes.size()]);
+        this.indexSize = slot;
+    }
+
+    /**
+     * @param fieldName 字段名
+     * @return 字段所在的列族
+     * @throws IllegalArgumentException 字段不存在或没有对应的列
+     */
+    byte[] getFamily(String fieldName) {
+        FieldBinding binding = _binding(fieldName);
+        if (binding.family == null) {
+            throw new IllegalArgumentException("HBaseColumnFamily missing, field = " + fieldName);
+        }
+        return binding.family;
+    }
+
+    /**
+     * @param fieldName 字段名
+     * @return 是否是map字段（按列存储时每个entry是一列）
+     */
+    boolean isMapField(String fieldName) {
+        for (MapBinding mapBinding : mapBindings) {
+            if (mapBinding.name.equals(fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param fieldName 字段名
+     * @return 字段对应的列，map字段按列存储时每个entry的列名以 column| 开头，打包存储时就是这一列
+     * @throws IllegalArgumentException 字段不存在或没有对应的列
+     */
+    byte[] getColumn(String fieldName) {
+        return _binding(fieldName).column;
+    }
+
+    /**
+     * @param familyId HBaseColumnFamily的id
+     * @return 列族名
+     * @throws IllegalArgumentException 列族不存在
+     */
+    byte[] getFamily(int familyId) {
+        byte[] family = families.get(familyId);
+        if (family == null) {
+            throw new IllegalArgumentException("HBaseColumnFamily " + familyId + " not found");
+        }
+        return family;
+    }
+
+    /**
+     * @param family 列族名
+     * @return 存储在该列族中的字段名
+     */
+    List<String> getFieldNames(byte[] family) {
+        List<String> names = new ArrayList<>();
+        for (FieldBinding binding : bindings) {
+            if (binding.family != null && Bytes.equals(binding.family, family)) {
+                names.add(binding.name);
+            }
+        }
+        return names;
+    }
+
+    private FieldBinding _binding(String fieldName) {
+        for (FieldBinding binding : bindings) {
+            if (binding.name.equals(fieldName)) {
+                if (binding.column == null) {
+                    throw new IllegalArgumentException("field " + fieldName + " has no HBaseColumn");
+                }
+                return binding;
+            }
+        }
+        throw new IllegalArgumentException("unknown field " + fieldName);
+    }
+
+    /**
+     * 将model编码为Put
+     * @param model model
+     * @param rowKey rowKey
+     * @return Put对象
+     */
+    Put encode(Object model, byte[] rowKey) {
+        Put put = new Put(rowKey);
+        for (FieldBinding binding : bindings) {
+            if (binding.column == null) continue;
+            binding.encode(model, put, binding.family);
+        }
+        return put;
+    }
+
+    /**
+     * 将Result解码到model上，已经有值的字段不会被覆盖（基本类型的字段无法判断是否有值，总是覆盖）
+     * 只遍历一次rawCells，先定位列族（cell按列族排序，连续的cell复用上一次的结果），
+     * 再按qualifier的offset/length在该列族的列索引中查找对应字段，直接从Cell底层数组解析值，不复制value
+     * @param model model
+     * @param result Result对象
+     * @return 如果一个field都没有设置过，则返回false
+     */
+    boolean decode(Object model, Result result) {
+        Cell[] cells = result.rawCells();
+        if (cells == null || cells.length == 0) {
+            return false;
+        }
+        boolean res = false;
+        //同一列有多个版本时只取第一个（最新的）
+        boolean[] done = new boolean[indexSize];
+        //map字段两种格式都可能存在（迁移过程中），以当前配置的格式为准
+        Cell[] packedCells = mapBindings.length == 0 ? null : new Cell[mapBindings.length];
+        boolean[] entrySeen = mapBindings.length == 0 ? null : new boolean[mapBindings.length];
+        FamilyIndex familyIndex = null;
+        for (Cell cell : cells) {
+            if (familyIndex == null || !familyIndex.matches(cell)) {
+                familyIndex = _familyIndexOf(cell);
+                if (familyIndex == null) continue;
+            }
+            byte[] qualifierArray = cell.getQualifierArray();
+            int qualifierOffset = cell.getQualifierOffset();
+            int qualifierLength = cell.getQualifierLength();
+            int index = familyIndex.indexOf(qualifierArray, qualifierOffset, qualifierLength);
+            if (index >= 0) {
+                int slot = familyIndex.slot + index;
+                if (done[slot]) continue;
+                done[slot] = true;
+                FieldBinding binding = familyIndex.bindings[index];
+                if (binding.isSet(model)) continue;
+                binding.decode(model, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                res = true;
+                continue;
+            }
+            for (MapBinding mapBinding : familyIndex.maps) {
+                byte[] prefix = mapBinding.prefix;
+                if (qualifierLength == mapBinding.column.length
+                        && Bytes.equals(mapBinding.column, 0, qualifierLength, qualifierArray, qualifierOffset, qualifierLength)) {
+                    if (packedCells[mapBinding.index] != null) break;
+                    packedCells[mapBinding.index] = cell;
+                    if (mapBinding.packed) {
+                        mapBinding.decodePacked(model, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                        res = true;
+                    }
+                    break;
+                } else if (qualifierLength > prefix.length
+                        && Bytes.equals(prefix, 0, prefix.length, qualifierArray, qualifierOffset, prefix.length)) {
+                    if (mapBinding.packed && packedCells[mapBinding.index] != null) break;
+                    String key = Bytes.toString(qualifierArray,
+                            qualifierOffset + prefix.length, qualifierLength - prefix.length);
+                    String value = Bytes.toString(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                    mapBinding.getOrCreate(model).put(key, value);
+                    entrySeen[mapBinding.index] = true;
+                    res = true;
+                    break;
+                }
+            }
+        }
+        //按列存储模式下只有在没有任何entry列时才读取打包的列
+        for (MapBinding mapBinding : mapBindings) {
+            Cell packedCell = packedCells[mapBinding.index];
+            if (packedCell != null && !mapBinding.packed && !entrySeen[mapBinding.index]) {
+                mapBinding.decodePacked(model, packedCell.getValueArray(), packedCell.getValueOffset(), packedCell.getValueLength());
+                res = true;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * 将from中的字段复制到to上，规则与decode一致：to中已经有值的字段不覆盖，基本类型总是覆盖
+     * Map和byte[]会复制一份，避免两个对象共享可变的值
+     * @param from 源对象
+     * @param to 目标对象
+     * @return 是否复制了至少一个字段
+     */
+    boolean copy(Object from, Object to) {
+        boolean res = false;
+        for (FieldBinding binding : bindings) {
+            if (binding.column == null) continue;
+            if (binding.copy(from, to)) {
+                res = true;
+            }
+        }
+        return res;
+    }
+
+    private FamilyIndex _familyIndexOf(Cell cell) {
+        for (FamilyIndex familyIndex : familyIndexes) {
+            if (familyIndex.matches(cell)) {
+                return familyIndex;
+            }
+        }
+        return null;
+    }
+
+    //一个列族中的列索引，按qualifier排序
+    private static final class FamilyIndex {
+
+        private final byte[] family;
+        private final byte[][] columns;
+        private final FieldBinding[] bindings;
+        //该列族中的map字段
+        private final MapBinding[] maps;
+        //该列族的字段在decode时done数组中的起始下标
+        private final int slot;
+
+        FamilyIndex(byte[] family, TreeMap<byte[], FieldBinding> index, List<MapBinding> maps, int slot) {
+            this.family = family;
+            this.columns = index.keySet().toArray(new byte[index.size()][]);
+            this.bindings = index.values().toArray(new FieldBinding[index.size()]);
+            this.maps = maps.toArray(new MapBinding[maps.size()]);
+            this.slot = slot;
+        }
+
+        boolean matches(Cell cell) {
+            return Bytes.equals(family, 0, family.length,
+                    cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+        }
+
+        //二分查找
+        int indexOf(byte[] array, int offset, int length) {
+            int low = 0;
+            int high = columns.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                byte[] column = columns[mid];
+                int cmp = Bytes.compareTo(column, 0, column.length, array, offset, length);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static void _getFields(List<Field> list, Class<?> clazz) {
+        Collections.addAll(list, clazz.getDeclaredFields());
+        Class<?> superClazz = clazz.getSuperclass();
+        if (superClazz != null && superClazz != Object.class) {
+            _getFields(list, superClazz);
+        }
+    }
+
+    private static byte[] _readBytes(Field field, Object holder, String error) {
+        if (field.getType() != byte[].class) {
+            throw new RuntimeException(error);
+        }
+        try {
+            field.setAccessible(true);
+            return (byte[]) field.get(Modifier.isStatic(field.getModifiers()) ? null : holder);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("read " + field.getName() + " error", e);
+        }
+    }
+
+    //单个字段的绑定，包含列名和读写字段的MethodHandle，字段类型在构建时确定
+    private static abstract class FieldBinding {
+
+        final String name;
+        final byte[] column;
+        //所在的列族，构建时根据HBaseColumn.family设置
+        byte[] family;
+        //声明了HBaseCompress时不为null
+        ValueCompressor compressor;
+
+        FieldBinding(Field field, byte[] column) {
+            this.name = field.getName();
+            this.column = column;
+        }
+
+        static FieldBinding create(Field field, byte[] column) {
+            Class<?> type = field.getType();
+            if (type == long.class) return new LongBinding(field, column);
+            if (type == int.class) return new IntBinding(field, column);
+            if (type == short.class) return new ShortBinding(field, column);
+            if (type == double.class) return new DoubleBinding(field, column);
+            if (type == float.class) return new FloatBinding(field, column);
+            if (type == boolean.class) return new BooleanBinding(field, column);
+            if (Map.class.isAssignableFrom(type)) return new MapBinding(field, column);
+            TypeCodec<?> codec = TypeCodecs.get(type);
+            if (codec != null) return new ObjectBinding(field, column, codec);
+            return new DynamicBinding(field, column);
+        }
+
+        /**
+         * 将字段写入Put，值为null时不写
+         */
+        abstract void encode(Object model, Put put, byte[] family);
+
+        /**
+         * 从[offset, offset + length)区间解析字段值并设置到model上
+         */
+        abstract void decode(Object model, byte[] bytes, int offset, int length);
+
+        /**
+         * 把from的字段值复制到to上
+         * @return 是否复制了
+         */
+        abstract boolean copy(Object from, Object to);
+
+        /**
+         * 字段是否已经有值
+         */
+        boolean isSet(Object model) {
+            return false;
+        }
+
+        MethodHandle getter(Field field, Class<?> type) {
+            try {
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(type, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("bind field " + name + " error", e);
+            }
+        }
+
+        MethodHandle setter(Field field, Class<?> type) {
+            try {
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, type));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("bind field " + name + " error", e);
+            }
+        }
+
+        IllegalStateException error(String op, Throwable t) {
+            return new IllegalStateException(op + " field " + name + " error", t);
+        }
+    }
+
+    private static final class LongBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        LongBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, long.class);
+            this.setter = setter(field, long.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (long) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            long value;
+            try {
+                value = (long) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            long value = Bytes.toLong(bytes, offset, length);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    private static final class IntBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        IntBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, int.class);
+            this.setter = setter(field, int.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (int) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            int value;
+            try {
+                value = (int) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            int value = Bytes.toInt(bytes, offset, length);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    private static final class ShortBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        ShortBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, short.class);
+            this.setter = setter(field, short.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (short) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            short value;
+            try {
+                value = (short) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            short value = Bytes.toShort(bytes, offset, length);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    private static final class DoubleBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        DoubleBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, double.class);
+            this.setter = setter(field, double.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (double) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            double value;
+            try {
+                value = (double) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            if (length != Bytes.SIZEOF_DOUBLE) {
+                throw new IllegalArgumentException("wrong length " + length + " for double field " + name);
+            }
+            double value = Bytes.toDouble(bytes, offset);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    private static final class FloatBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        FloatBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, float.class);
+            this.setter = setter(field, float.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (float) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            float value;
+            try {
+                value = (float) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            if (length != Bytes.SIZEOF_FLOAT) {
+                throw new IllegalArgumentException("wrong length " + length + " for float field " + name);
+            }
+            float value = Bytes.toFloat(bytes, offset);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    private static final class BooleanBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        BooleanBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, boolean.class);
+            this.setter = setter(field, boolean.class);
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            try {
+                setter.invokeExact(to, (boolean) getter.invokeExact(from));
+            } catch (Throwable t) {
+                throw error("copy", t);
+            }
+            return true;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            boolean value;
+            try {
+                value = (boolean) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+            put.add(family, column, Bytes.toBytes(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            boolean value = TypeCodecs.toBoolean(bytes, offset, length);
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+    }
+
+    //引用类型字段的基类
+    private static abstract class ReferenceBinding extends FieldBinding {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        ReferenceBinding(Field field, byte[] column) {
+            super(field, column);
+            this.getter = getter(field, Object.class);
+            this.setter = setter(field, Object.class);
+        }
+
+        Object get(Object model) {
+            try {
+                return (Object) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw error("get", t);
+            }
+        }
+
+        void set(Object model, Object value) {
+            try {
+                setter.invokeExact(model, value);
+            } catch (Throwable t) {
+                throw error("set", t);
+            }
+        }
+
+        @Override
+        boolean isSet(Object model) {
+            return get(model) != null;
+        }
+
+        @Override
+        boolean copy(Object from, Object to) {
+            Object value = get(from);
+            if (value == null || isSet(to)) {
+                return false;
+            }
+            set(to, copyValue(value));
+            return true;
+        }
+
+        //可变的值需要复制
+        Object copyValue(Object value) {
+            if (value instanceof byte[]) {
+                return ((byte[]) value).clone();
+            }
+            return value;
+        }
+    }
+
+    //通过TypeCodec编解码的字段
+    private static final class ObjectBinding extends ReferenceBinding {
+
+        private final TypeCodec<Object> codec;
+
+        @SuppressWarnings("unchecked")
+        ObjectBinding(Field field, byte[] column, TypeCodec<?> codec) {
+            super(field, column);
+            //codec与字段的类型一致，字段上的值一定能被codec编码
+            this.codec = (TypeCodec<Object>) codec;
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            Object o = get(model);
+            if (o == null) return;
+            byte[] value = codec.encode(o);
+            put.add(family, column, compressor == null ? value : compressor.compress(value));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            if (compressor != null) {
+                ValueCompressor.Context value = compressor.decompress(bytes, offset, length);
+                set(model, codec.decode(value.array, value.offset, value.length));
+                return;
+            }
+            set(model, codec.decode(bytes, offset, length));
+        }
+    }
+
+    //Map<String, String>字段，默认每个entry存为一列，列名为 column|key；packed时整个map存为一列
+    private static final class MapBinding extends ReferenceBinding {
+
+        private final boolean packed;
+        //字段类型可以直接赋值PackedMap时延迟解码，否则解码为HashMap
+        private final boolean lazy;
+        //在ModelCodec.mapBindings中的下标
+        int index;
+        //按列存储时entry的列名前缀，即 column|
+        byte[] prefix;
+
+        MapBinding(Field field, byte[] column) {
+            super(field, column);
+            HBaseMapField annotation = field.getAnnotation(HBaseMapField.class);
+            this.packed = annotation != null && annotation.packed();
+            this.lazy = field.getType().isAssignableFrom(PackedMap.class);
+        }
+
+        @Override
+        void encode(Object model, Put put, byte[] family) {
+            Object o = get(model);
+            if (o == null) return;
+            if (packed) {
+                byte[] value = PackedMap.pack((Map) o);
+                put.add(family, column, compressor == null ? value : compressor.compress(value));
+            } else {
+                encodeMap(put, family, column, (Map) o);
+            }
+        }
+
+        //字段还没有值时直接设置解码结果，否则合并到已有的map中
+        void decodePacked(Object model, byte[] bytes, int offset, int length) {
+            PackedMap map;
+            if (compressor != null) {
+                ValueCompressor.Context value = compressor.decompress(bytes, offset, length);
+                map = PackedMap.unpack(value.array, value.offset, value.length);
+            } else {
+                map = PackedMap.unpack(bytes, offset, length);
+            }
+            Object o = get(model);
+            if (o == null) {
+                set(model, lazy ? map : new HashMap<>(map));
+            } else {
+                getOrCreate(model).putAll(map);
+            }
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            throw new IllegalArgumentException("not support field type");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object copyValue(Object value) {
+            return new HashMap<>((Map) value);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> getOrCreate(Object model) {
+            Object o = get(model);
+            if (o == null) {
+                o = new HashMap<>();
+                set(model, o);
+            }
+            return (Map<String, String>) o;
+        }
+
+        static void encodeMap(Put put, byte[] family, byte[] column, Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object key = entry.getKey();
+                Object value = entry.getValue();
+                if (key instanceof String && value instanceof String) {
+                    byte[] raw = Bytes.add(column, SEPARATOR, Bytes.toBytes((String) key));
+                    put.add(family, raw, Bytes.toBytes((String) value));
+                }
+            }
+        }
+    }
+
+    //声明类型没有对应的codec（如Object/Number），运行时按值的类型查找codec，只支持写入
+    private static final class DynamicBinding extends ReferenceBinding {
+
+        DynamicBinding(Field field, byte[] column) {
+            super(field, column);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void encode(Object model, Put put, byte[] family) {
+            Object o = get(model);
+            if (o == null) return;
+            if (o instanceof Map) {
+                MapBinding.encodeMap(put, family, column, (Map<?, ?>) o);
+                return;
+            }
+            TypeCodec<Object> codec = (TypeCodec<Object>) TypeCodecs.get(o.getClass());
+            if (codec == null) {
+                throw new IllegalArgumentException("not support field type");
+            }
+            put.add(family, column, codec.encode(o));
+        }
+
+        @Override
+        void decode(Object model, byte[] bytes, int offset, int length) {
+            throw new IllegalArgumentException("not support field type");
+        }
+    }
+}
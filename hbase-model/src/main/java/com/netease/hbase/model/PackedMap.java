@@ -0,0 +1,204 @@
+package com.netease.hbase.model;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.*;
+
+/**
+ * HBaseMapField(packed = true)的存储格式和解码结果
+ * 格式：[version=1][varint count]([varint keyLength][key][varint valueLength][value])*，key/value均为UTF-8
+ * 解码时只保存字节数组，get/containsKey直接在字节上比较key，只有命中的value才会转成String
+ * 遍历或修改时才一次性展开为HashMap，之后所有操作都走HashMap
+ *
+ */
+final class PackedMap extends AbstractMap<String, String> {
+
+    private static final byte VERSION = 1;
+
+    private final byte[] bytes;
+    private final int count;
+    //第一个entry的位置
+    private final int start;
+    //展开后的map，展开前为null
+    private volatile HashMap<String, String> expanded;
+
+    private PackedMap(byte[] bytes, int count, int start) {
+        this.bytes = bytes;
+        this.count = count;
+        this.start = start;
+    }
+
+    /**
+     * 打包map，key或value不是String的entry会被忽略（与按列存储时一致）
+     * @param map map
+     * @return 打包后的字节
+     */
+    static byte[] pack(Map<?, ?> map) {
+        List<byte[]> parts = new ArrayList<>(map.size() * 2);
+        int size = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                byte[] key = Bytes.toBytes((String) entry.getKey());
+                byte[] value = Bytes.toBytes((String) entry.getValue());
+                parts.add(key);
+                parts.add(value);
+                size += _varIntSize(key.length) + key.length + _varIntSize(value.length) + value.length;
+            }
+        }
+        int count = parts.size() / 2;
+        byte[] bytes = new byte[1 + _varIntSize(count) + size];
+        bytes[0] = VERSION;
+        int pos = _writeVarInt(bytes, 1, count);
+        for (byte[] part : parts) {
+            pos = _writeVarInt(bytes, pos, part.length);
+            System.arraycopy(part, 0, bytes, pos, part.length);
+            pos += part.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * 解码，会复制一份[offset, offset + length)，不依赖Cell底层数组
+     * @throws IllegalArgumentException 格式错误
+     */
+    static PackedMap unpack(byte[] bytes, int offset, int length) {
+        if (length < 2 || bytes[offset] != VERSION) {
+            throw new IllegalArgumentException("unknown packed map format");
+        }
+        byte[] copy = Arrays.copyOfRange(bytes, offset, offset + length);
+        int count = _readVarInt(copy, 1);
+        return new PackedMap(copy, count, 1 + _varIntSize(count));
+    }
+
+    @Override
+    public String get(Object key) {
+        HashMap<String, String> map = expanded;
+        if (map != null) {
+            return map.get(key);
+        }
+        int pos = _find(key);
+        if (pos < 0) {
+            return null;
+        }
+        int length = _readVarInt(bytes, pos);
+        return Bytes.toString(bytes, pos + _varIntSize(length), length);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        HashMap<String, String> map = expanded;
+        if (map != null) {
+            return map.containsKey(key);
+        }
+        return _find(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        HashMap<String, String> map = expanded;
+        return map != null ? map.size() : count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return _expand().entrySet();
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return _expand().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return _expand().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        _expand().clear();
+    }
+
+    //查找key，返回value长度字段的位置，不存在时返回-1
+    private int _find(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        byte[] target = Bytes.toBytes((String) key);
+        int pos = start;
+        for (int i = 0; i < count; i++) {
+            int keyLength = _readVarInt(bytes, pos);
+            pos += _varIntSize(keyLength);
+            boolean match = Bytes.equals(target, 0, target.length, bytes, pos, keyLength);
+            pos += keyLength;
+            if (match) {
+                return pos;
+            }
+            int valueLength = _readVarInt(bytes, pos);
+            pos += _varIntSize(valueLength) + valueLength;
+        }
+        return -1;
+    }
+
+    private HashMap<String, String> _expand() {
+        HashMap<String, String> map = expanded;
+        if (map == null) {
+            synchronized (this) {
+                map = expanded;
+                if (map == null) {
+                    map = new HashMap<>(count * 4 / 3 + 1);
+                    int pos = start;
+                    for (int i = 0; i < count; i++) {
+                        int keyLength = _readVarInt(bytes, pos);
+                        pos += _varIntSize(keyLength);
+                        String key = Bytes.toString(bytes, pos, keyLength);
+                        pos += keyLength;
+                        int valueLength = _readVarInt(bytes, pos);
+                        pos += _varIntSize(valueLength);
+                        map.put(key, Bytes.toString(bytes, pos, valueLength));
+                        pos += valueLength;
+                    }
+                    expanded = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    private static int _varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int _writeVarInt(byte[] bytes, int pos, int value) {
+        while ((value & ~0x7f) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int _readVarInt(byte[] bytes, int pos) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (pos >= bytes.length || shift > 28) {
+                throw new IllegalArgumentException("malformed packed map");
+            }
+            b = bytes[pos++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
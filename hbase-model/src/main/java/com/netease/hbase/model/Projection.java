@@ -0,0 +1,175 @@
+package com.netease.hbase.model;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultipleColumnPrefixFilter;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.filter.RegexStringComparator;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * 字段投影：只读取指定的model字段，根据HBaseField -> HBaseColumn -> HBaseColumnFamily的映射把字段名转换为Get/Scan上的列限制
+ * 普通字段通过addColumn限制；包含map字段时，map所在的列族改为addFamily + MultipleColumnPrefixFilter（map字段按列存储时每个entry是一列），
+ * 再用QualifierFilter精确匹配 column 和 column|key，前缀相同的其他列（如extra之于extraXYZ）不会被读取
+ * 没有被选中字段的列族不会被读取，可以用于冷热列族分离
+ * parseResult只会填充读到的字段，可以声明为常量复用
+ *
+ */
+public final class Projection {
+
+    //map字段按列存储时列名中的分隔符
+    private static final String SEPARATOR = Pattern.quote(Bytes.toString(ModelCodec.SEPARATOR));
+
+    private final List<String> fields;
+    //整个读取的列族
+    private final byte[][] families;
+    //按列读取的列族和列，下标一一对应
+    private final byte[][] columnFamilies;
+    private final byte[][] columns;
+    //包含map字段时使用的列前缀filter + 列名精确匹配filter，否则为null
+    private final Filter prefixFilter;
+
+    private Projection(List<String> fields, byte[][] families, byte[][] columnFamilies, byte[][] columns, Filter prefixFilter) {
+        this.fields = fields;
+        this.families = families;
+        this.columnFamilies = columnFamilies;
+        this.columns = columns;
+        this.prefixFilter = prefixFilter;
+    }
+
+    /**
+     * 构建投影
+     * @param clazz model class
+     * @param fieldNames 需要读取的字段名
+     * @return 投影
+     * @throws IllegalArgumentException 字段不存在或没有对应的列
+     */
+    public static Projection of(Class<? extends AbstractHBaseModel> clazz, String... fieldNames) {
+        if (fieldNames == null || fieldNames.length == 0) {
+            throw new IllegalArgumentException("fieldNames is empty");
+        }
+        ModelCodec codec = ModelCodec.of(clazz);
+        Set<byte[]> mapFamilies = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+        for (String fieldName : fieldNames) {
+            if (codec.isMapField(fieldName)) {
+                mapFamilies.add(codec.getFamily(fieldName));
+            }
+        }
+        List<byte[]> columnFamilies = new ArrayList<>();
+        List<byte[]> columns = new ArrayList<>();
+        List<byte[]> prefixes = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            byte[] family = codec.getFamily(fieldName);
+            byte[] column = codec.getColumn(fieldName);
+            if (mapFamilies.contains(family)) {
+                //以列名本身为前缀，map字段同时覆盖按列存储的 column|key 和打包存储的 column
+                prefixes.add(column);
+                String quoted = Pattern.quote(Bytes.toString(column));
+                patterns.add(codec.isMapField(fieldName) ? quoted + "(" + SEPARATOR + ".*)?" : quoted);
+            } else {
+                columnFamilies.add(family);
+                columns.add(column);
+            }
+        }
+        Filter prefixFilter = null;
+        if (!prefixes.isEmpty()) {
+            //prefix filter作用于所有列族，按列读取的列也要加入
+            for (byte[] column : columns) {
+                prefixes.add(column);
+                patterns.add(Pattern.quote(Bytes.toString(column)));
+            }
+            //前缀filter负责seek，正则去掉只是前缀相同的列
+            Filter qualifierFilter = new QualifierFilter(CompareFilter.CompareOp.EQUAL,
+                    new RegexStringComparator("^(" + String.join("|", patterns) + ")$", Pattern.DOTALL));
+            prefixFilter = new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                    new MultipleColumnPrefixFilter(prefixes.toArray(new byte[prefixes.size()][])), qualifierFilter);
+        }
+        return new Projection(Collections.unmodifiableList(Arrays.asList(fieldNames.clone())),
+                mapFamilies.toArray(new byte[mapFamilies.size()][]),
+                columnFamilies.toArray(new byte[columnFamilies.size()][]),
+                columns.toArray(new byte[columns.size()][]), prefixFilter);
+    }
+
+    /**
+     * 构建只读取指定列族的投影，包含这些列族中的所有字段
+     * @param clazz model class
+     * @param familyIds HBaseColumnFamily的id
+     * @return 投影
+     * @throws IllegalArgumentException 列族不存在
+     */
+    public static Projection ofFamilies(Class<? extends AbstractHBaseModel> clazz, int... familyIds) {
+        if (familyIds == null || familyIds.length == 0) {
+            throw new IllegalArgumentException("familyIds is empty");
+        }
+        ModelCodec codec = ModelCodec.of(clazz);
+        List<String> fields = new ArrayList<>();
+        byte[][] families = new byte[familyIds.length][];
+        for (int i = 0; i < familyIds.length; i++) {
+            families[i] = codec.getFamily(familyIds[i]);
+            fields.addAll(codec.getFieldNames(families[i]));
+        }
+        return new Projection(Collections.unmodifiableList(fields), families, new byte[0][], new byte[0][], null);
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * 在Get上限制读取的列，已有的filter会保留
+     * @param get Get对象
+     * @return 传入的Get对象
+     */
+    public Get apply(Get get) {
+        for (byte[] family : families) {
+            get.addFamily(family);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            get.addColumn(columnFamilies[i], columns[i]);
+        }
+        if (prefixFilter != null) {
+            get.setFilter(_filter(get.getFilter()));
+        }
+        return get;
+    }
+
+    /**
+     * 在Scan上限制读取的列，会覆盖scan上对应列族的addFamily，已有的filter会保留
+     * @param scan Scan对象
+     * @return 传入的Scan对象
+     */
+    public Scan apply(Scan scan) {
+        for (byte[] family : families) {
+            scan.addFamily(family);
+        }
+        //addColumn会替换掉addFamily设置的整个列族
+        for (int i = 0; i < columns.length; i++) {
+            scan.addColumn(columnFamilies[i], columns[i]);
+        }
+        if (prefixFilter != null) {
+            scan.setFilter(_filter(scan.getFilter()));
+        }
+        return scan;
+    }
+
+    private Filter _filter(Filter filter) {
+        return filter == null ? prefixFilter : new FilterList(filter, prefixFilter);
+    }
+
+    @Override
+    public String toString() {
+        return "Projection" + fields;
+    }
+}
@@ -0,0 +1,204 @@
+package com.netease.hbase.model;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * rowKey构建工具，按给定长度一次性分配rowKey数组，各个部分直接写入该数组，不产生中间数组
+ * MD5摘要使用线程本地的MessageDigest，数字类型直接按十进制写入线程本地缓冲区后计算摘要，不需要先转成String，
+ * 结果与md5Bytes(String.valueOf(value))一致
+ * 非线程安全，每个rowKey使用一个新的builder
+ *
+ */
+public final class RowKeyBuilder {
+
+    public static final int MD5_LENGTH = 16;
+
+    private static final ThreadLocal<DigestHolder> digestHolder = new ThreadLocal<DigestHolder>() {
+        @Override
+        protected DigestHolder initialValue() {
+            return new DigestHolder();
+        }
+    };
+
+    private final byte[] key;
+    private int position;
+
+    /**
+     * @param length rowKey的总长度
+     */
+    public RowKeyBuilder(int length) {
+        this.key = new byte[length];
+    }
+
+    /**
+     * 写入value的MD5，long按十进制字符串计算摘要
+     */
+    public RowKeyBuilder md5(long value) {
+        DigestHolder holder = digestHolder.get();
+        int start = holder.writeDecimal(value);
+        return _md5(holder, holder.scratch, start, holder.scratch.length - start);
+    }
+
+    /**
+     * 写入value的MD5，字符串按UTF-8编码计算摘要
+     */
+    public RowKeyBuilder md5(String value) {
+        byte[] bytes = Bytes.toBytes(value);
+        return _md5(digestHolder.get(), bytes, 0, bytes.length);
+    }
+
+    /**
+     * 写入value的MD5，Long/Integer/Short直接按数字处理，其他对象按String.valueOf(value)处理
+     */
+    public RowKeyBuilder md5(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return md5(((Number) value).longValue());
+        }
+        return md5(String.valueOf(value));
+    }
+
+    public RowKeyBuilder putLong(long value) {
+        _checkRemaining(Bytes.SIZEOF_LONG);
+        position = Bytes.putLong(key, position, value);
+        return this;
+    }
+
+    public RowKeyBuilder putInt(int value) {
+        _checkRemaining(Bytes.SIZEOF_INT);
+        position = Bytes.putInt(key, position, value);
+        return this;
+    }
+
+    public RowKeyBuilder putShort(short value) {
+        _checkRemaining(Bytes.SIZEOF_SHORT);
+        position = Bytes.putShort(key, position, value);
+        return this;
+    }
+
+    public RowKeyBuilder putByte(byte value) {
+        _checkRemaining(1);
+        key[position++] = value;
+        return this;
+    }
+
+    public RowKeyBuilder putBytes(byte[] value) {
+        _checkRemaining(value.length);
+        position = Bytes.putBytes(key, position, value, 0, value.length);
+        return this;
+    }
+
+    /**
+     * 已写入的长度
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * 返回rowKey，要求所有字节都已写入
+     * @return rowKey
+     */
+    public byte[] build() {
+        if (position != key.length) {
+            throw new IllegalStateException("rowKey not complete, length = " + key.length + ", written = " + position);
+        }
+        return key;
+    }
+
+    /**
+     * 计算value的MD5摘要，复用线程本地的MessageDigest
+     * @param bytes 数据
+     * @return 16字节的摘要
+     */
+    public static byte[] md5(byte[] bytes) {
+        MessageDigest md = digestHolder.get().md5;
+        md.update(bytes, 0, bytes.length);
+        return md.digest();
+    }
+
+    /**
+     * 计算[offset, offset + length)的MD5，取前dstLength个字节写入dst
+     */
+    static void md5(byte[] src, int offset, int length, byte[] dst, int dstOffset, int dstLength) {
+        System.arraycopy(_digest(src, offset, length), 0, dst, dstOffset, dstLength);
+    }
+
+    /**
+     * 计算[offset, offset + length)的MD5，返回前4个字节组成的int，摘要写在线程本地的缓冲区中，不分配内存
+     */
+    static int md5Int(byte[] src, int offset, int length) {
+        return Bytes.toInt(_digest(src, offset, length), 0);
+    }
+
+    //摘要写入线程本地的digest缓冲区并返回该缓冲区，调用方只能在当前线程中立即使用
+    private static byte[] _digest(byte[] src, int offset, int length) {
+        DigestHolder holder = digestHolder.get();
+        MessageDigest md = holder.md5;
+        md.update(src, offset, length);
+        try {
+            md.digest(holder.digest, 0, MD5_LENGTH);
+        } catch (DigestException e) {
+            md.reset();
+            throw new RuntimeException("error while md5 hash", e);
+        }
+        return holder.digest;
+    }
+
+    private RowKeyBuilder _md5(DigestHolder holder, byte[] bytes, int offset, int length) {
+        _checkRemaining(MD5_LENGTH);
+        MessageDigest md = holder.md5;
+        md.update(bytes, offset, length);
+        try {
+            position += md.digest(key, position, MD5_LENGTH);
+        } catch (DigestException e) {
+            md.reset();
+            throw new RuntimeException("error while md5 hash", e);
+        }
+        return this;
+    }
+
+    private void _checkRemaining(int length) {
+        if (position + length > key.length) {
+            throw new IllegalStateException("rowKey overflow, length = " + key.length + ", required = " + (position + length));
+        }
+    }
+
+    //线程本地的摘要对象和十进制缓冲区
+    private static final class DigestHolder {
+
+        private final MessageDigest md5;
+        //long的十进制表示最多20个字符（含负号）
+        private final byte[] scratch = new byte[20];
+        private final byte[] digest = new byte[MD5_LENGTH];
+
+        DigestHolder() {
+            try {
+                md5 = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException("error while md5 hash", e);
+            }
+        }
+
+        //从缓冲区末尾开始写入十进制字符，返回起始位置
+        int writeDecimal(long value) {
+            int pos = scratch.length;
+            boolean negative = value < 0;
+            if (!negative) {
+                value = -value;
+            }
+            //统一按负数处理，避免Long.MIN_VALUE取反溢出
+            do {
+                scratch[--pos] = (byte) ('0' - (value % 10));
+                value /= 10;
+            } while (value != 0);
+            if (negative) {
+                scratch[--pos] = '-';
+            }
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.HBaseRowKey;
+import com.netease.hbase.model.annotation.HBaseRowKeyField;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 根据{@link HBaseRowKey}和{@link HBaseRowKeyField}生成rowKey，以及对应的前缀scan和范围scan
+ * rowKey的结构为 [salt/hash前缀] + 各key字段，数字类型按翻转符号位的大端序编码，保证字节序与数值顺序一致
+ * <ul>
+ *     <li>RAW：没有前缀</li>
+ *     <li>SALTED：1字节salt，由前hashFields个字段的MD5对buckets取模得到</li>
+ *     <li>HASH_PREFIX：前hashFields个字段MD5的前hashLength个字节</li>
+ * </ul>
+ * 前缀只由前hashFields个字段决定，所以这些字段相同的行是连续存储的，可以做前缀scan和范围scan
+ *
+ */
+public final class RowKeyCodec {
+
+    private static final ConcurrentMap<Class<?>, RowKeyCodec> codecMap = new ConcurrentHashMap<>();
+
+    private final HBaseRowKey.Strategy strategy;
+    private final int prefixLength;
+    private final int hashFields;
+    private final int buckets;
+    private final KeyPart[] parts;
+    //最后一个字段是变长字段时不为null
+    private final BytesPart tailPart;
+
+    /**
+     * 获取model class对应的RowKeyCodec
+     * @param clazz model class，需要有HBaseRowKey注解
+     * @return codec
+     */
+    public static RowKeyCodec of(Class<?> clazz) {
+        RowKeyCodec codec = codecMap.get(clazz);
+        if (codec == null) {
+            codec = new RowKeyCodec(clazz);
+            RowKeyCodec old = codecMap.putIfAbsent(clazz, codec);
+            if (old != null) {
+                codec = old;
+            }
+        }
+        return codec;
+    }
+
+    private RowKeyCodec(Class<?> clazz) {
+        HBaseRowKey annotation = clazz.getAnnotation(HBaseRowKey.class);
+        if (annotation == null) {
+            throw new RuntimeException("HBaseRowKey missing, class = " + clazz.getName());
+        }
+        TreeMap<Integer, Field> fieldMap = new TreeMap<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                HBaseRowKeyField keyField = field.getAnnotation(HBaseRowKeyField.class);
+                if (keyField != null && !fieldMap.containsKey(keyField.order())) {
+                    fieldMap.put(keyField.order(), field);
+                }
+            }
+        }
+        if (fieldMap.isEmpty()) {
+            throw new RuntimeException("HBaseRowKeyField missing, class = " + clazz.getName());
+        }
+        List<KeyPart> list = new ArrayList<>();
+        for (Field field : fieldMap.values()) {
+            if (!list.isEmpty() && list.get(list.size() - 1).length < 0) {
+                throw new RuntimeException("variable length rowKey field must be the last one, class = " + clazz.getName());
+            }
+            list.add(KeyPart.create(field));
+        }
+        this.parts = list.toArray(new KeyPart[list.size()]);
+        KeyPart last = parts[parts.length - 1];
+        this.tailPart = last instanceof BytesPart ? (BytesPart) last : null;
+        this.strategy = annotation.strategy();
+        this.buckets = annotation.buckets();
+        switch (strategy) {
+            case SALTED:
+                if (buckets < 1 || buckets > 256) {
+                    throw new RuntimeException("buckets should be in [1, 256], class = " + clazz.getName());
+                }
+                this.prefixLength = 1;
+                break;
+            case HASH_PREFIX:
+                if (annotation.hashLength() < 1 || annotation.hashLength() > RowKeyBuilder.MD5_LENGTH) {
+                    throw new RuntimeException("hashLength should be in [1, 16], class = " + clazz.getName());
+                }
+                this.prefixLength = annotation.hashLength();
+                break;
+            default:
+                this.prefixLength = 0;
+        }
+        this.hashFields = prefixLength == 0 ? 0 : annotation.hashFields();
+        if (hashFields < 0 || hashFields > parts.length || (prefixLength > 0 && hashFields == 0)) {
+            throw new RuntimeException("hashFields should be in [1, " + parts.length + "], class = " + clazz.getName());
+        }
+    }
+
+    /**
+     * 生成model的rowKey
+     * @param model model
+     * @return rowKey
+     */
+    public byte[] encode(Object model) {
+        int length = prefixLength;
+        byte[] tail = null;
+        for (KeyPart part : parts) {
+            if (part.length >= 0) {
+                length += part.length;
+            }
+        }
+        if (tailPart != null) {
+            tail = tailPart.bytes(tailPart.get(model));
+            length += tail.length;
+        }
+        byte[] key = new byte[length];
+        int pos = prefixLength;
+        int hashEnd = pos;
+        for (int i = 0; i < parts.length; i++) {
+            KeyPart part = parts[i];
+            if (part.length >= 0) {
+                pos = part.write(model, key, pos);
+            } else {
+                pos = Bytes.putBytes(key, pos, tail, 0, tail.length);
+            }
+            if (i + 1 == hashFields) {
+                hashEnd = pos;
+            }
+        }
+        _writePrefix(key, hashEnd);
+        return key;
+    }
+
+    /**
+     * 由前几个key字段的值生成rowKey前缀，非RAW策略下至少要给定前hashFields个字段
+     * @param values 字段值，按order顺序
+     * @return rowKey前缀
+     */
+    public byte[] prefix(Object... values) {
+        if (values.length < hashFields || values.length > parts.length) {
+            throw new IllegalArgumentException("rowKey prefix needs " + hashFields + " to " + parts.length + " values");
+        }
+        int length = prefixLength;
+        byte[] tail = null;
+        for (int i = 0; i < values.length; i++) {
+            KeyPart part = parts[i];
+            if (part.length >= 0) {
+                length += part.length;
+            } else {
+                //变长字段只能是最后一个
+                tail = tailPart.bytes(values[i]);
+                length += tail.length;
+            }
+        }
+        byte[] key = new byte[length];
+        int pos = prefixLength;
+        int hashEnd = pos;
+        for (int i = 0; i < values.length; i++) {
+            KeyPart part = parts[i];
+            if (part.length >= 0) {
+                pos = part.writeValue(values[i], key, pos);
+            } else {
+                pos = Bytes.putBytes(key, pos, tail, 0, tail.length);
+            }
+            if (i + 1 == hashFields) {
+                hashEnd = pos;
+            }
+        }
+        _writePrefix(key, hashEnd);
+        return key;
+    }
+
+    /**
+     * 前缀scan，返回前几个key字段等于给定值的所有行
+     * @param values 字段值，按order顺序
+     * @return Scan对象
+     */
+    public Scan prefixScan(Object... values) {
+        byte[] prefix = prefix(values);
+        return new Scan(prefix, stopRow(prefix));
+    }
+
+    /**
+     * 范围scan，[start, stop)，start和stop的hash字段必须相同
+     * @param start 起始key字段的值，按order顺序
+     * @param stop 结束key字段的值，按order顺序，不包含
+     * @return Scan对象
+     */
+    public Scan rangeScan(Object[] start, Object[] stop) {
+        byte[] startRow = prefix(start);
+        byte[] stopRow = prefix(stop);
+        if (prefixLength > 0 && !Bytes.equals(startRow, 0, prefixLength, stopRow, 0, prefixLength)) {
+            throw new IllegalArgumentException("start/stop should have the same hash fields");
+        }
+        return new Scan(startRow, stopRow);
+    }
+
+    /**
+     * rowKey的长度，有变长字段时返回-1
+     */
+    public int keyLength() {
+        int length = prefixLength;
+        for (KeyPart part : parts) {
+            if (part.length < 0) {
+                return -1;
+            }
+            length += part.length;
+        }
+        return length;
+    }
+
+    /**
+     * 前缀scan的stopRow，即前缀的下一个值
+     * @param prefix 前缀
+     * @return stopRow，前缀全是0xFF时返回空数组（扫描到表尾）
+     */
+    public static byte[] stopRow(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] stop = Arrays.copyOf(prefix, i + 1);
+                stop[i]++;
+                return stop;
+            }
+        }
+        return HConstants.EMPTY_END_ROW;
+    }
+
+    //根据[prefixLength, hashEnd)区间写入salt/hash前缀
+    private void _writePrefix(byte[] key, int hashEnd) {
+        switch (strategy) {
+            case SALTED:
+                int hash = RowKeyBuilder.md5Int(key, prefixLength, hashEnd - prefixLength);
+                key[0] = (byte) ((hash & Integer.MAX_VALUE) % buckets);
+                break;
+            case HASH_PREFIX:
+                RowKeyBuilder.md5(key, prefixLength, hashEnd - prefixLength, key, 0, prefixLength);
+                break;
+            default:
+        }
+    }
+
+    //rowKey中的一个字段
+    private static abstract class KeyPart {
+
+        final String name;
+        //定长字段的长度，变长为-1
+        final int length;
+        private final MethodHandle getter;
+
+        KeyPart(Field field, int length, Class<?> getterType) {
+            this.name = field.getName();
+            this.length = length;
+            try {
+                field.setAccessible(true);
+                this.getter = MethodHandles.lookup().unreflectGetter(field)
+                        .asType(MethodType.methodType(getterType, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("bind rowKey field " + name + " error", e);
+            }
+        }
+
+        static KeyPart create(Field field) {
+            Class<?> type = field.getType();
+            if (type == long.class) return new PrimitiveLongPart(field, Bytes.SIZEOF_LONG);
+            if (type == int.class) return new PrimitiveLongPart(field, Bytes.SIZEOF_INT);
+            if (type == short.class) return new PrimitiveLongPart(field, Bytes.SIZEOF_SHORT);
+            if (type == Long.class) return new NumberPart(field, Bytes.SIZEOF_LONG);
+            if (type == Integer.class) return new NumberPart(field, Bytes.SIZEOF_INT);
+            if (type == Short.class) return new NumberPart(field, Bytes.SIZEOF_SHORT);
+            if (type == String.class || type == byte[].class) return new BytesPart(field);
+            throw new RuntimeException("not support rowKey field type, field = " + field.getName());
+        }
+
+        MethodHandle getter() {
+            return getter;
+        }
+
+        Object get(Object model) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(model);
+            } catch (Throwable t) {
+                throw new IllegalStateException("get rowKey field " + name + " error", t);
+            }
+            return _checkNull(value);
+        }
+
+        Object _checkNull(Object value) {
+            if (value == null) {
+                throw new IllegalArgumentException("rowKey field " + name + " is null");
+            }
+            return value;
+        }
+
+        //写入model中的字段值，返回写入后的位置
+        int write(Object model, byte[] key, int pos) {
+            return writeValue(get(model), key, pos);
+        }
+
+        //写入给定的字段值，返回写入后的位置
+        int writeValue(Object value, byte[] key, int pos) {
+            if (!(_checkNull(value) instanceof Number)) {
+                throw new IllegalArgumentException("rowKey field " + name + " should be a number");
+            }
+            return writeLong(((Number) value).longValue(), key, pos);
+        }
+
+        //按翻转符号位的大端序写入
+        int writeLong(long value, byte[] key, int pos) {
+            switch (length) {
+                case Bytes.SIZEOF_LONG:
+                    return Bytes.putLong(key, pos, value ^ Long.MIN_VALUE);
+                case Bytes.SIZEOF_INT:
+                    return Bytes.putInt(key, pos, (int) value ^ Integer.MIN_VALUE);
+                default:
+                    return Bytes.putShort(key, pos, (short) ((short) value ^ Short.MIN_VALUE));
+            }
+        }
+    }
+
+    //基本类型字段，直接按long读取，不装箱
+    private static final class PrimitiveLongPart extends KeyPart {
+
+        PrimitiveLongPart(Field field, int length) {
+            super(field, length, long.class);
+        }
+
+        @Override
+        int write(Object model, byte[] key, int pos) {
+            long value;
+            try {
+                value = (long) getter().invokeExact(model);
+            } catch (Throwable t) {
+                throw new IllegalStateException("get rowKey field " + name + " error", t);
+            }
+            return writeLong(value, key, pos);
+        }
+    }
+
+    //包装类型字段
+    private static final class NumberPart extends KeyPart {
+
+        NumberPart(Field field, int length) {
+            super(field, length, Object.class);
+        }
+    }
+
+    //String/byte[]字段，变长，只能作为最后一个字段
+    private static final class BytesPart extends KeyPart {
+
+        BytesPart(Field field) {
+            super(field, -1, Object.class);
+        }
+
+        byte[] bytes(Object value) {
+            _checkNull(value);
+            if (value instanceof byte[]) {
+                return (byte[]) value;
+            }
+            return Bytes.toBytes(value.toString());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.netease.hbase.model;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * HBaseCompress字段的值编解码
+ * 格式：压缩值 [0x00][0x01][varint 原始长度][deflate数据]；以0x00开头的原始值 [0x00][0x00][原始值]；其他原始值不加头部
+ * 未加注解时写入的值（不以0x00开头）可以直接读取，开启压缩前已有的以0x00开头的值会被误判，这类字段不能直接开启压缩
+ * Deflater/Inflater和解压缓冲区按线程复用
+ *
+ */
+final class ValueCompressor {
+
+    private static final byte MARKER = 0x00;
+    private static final byte RAW = 0x00;
+    private static final byte DEFLATE = 0x01;
+    //超过该大小的解压缓冲区不在线程中保留
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    private static final ThreadLocal<Context> contexts = new ThreadLocal<Context>() {
+        @Override
+        protected Context initialValue() {
+            return new Context();
+        }
+    };
+
+    private final int threshold;
+    private final int level;
+
+    ValueCompressor(int threshold, int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("illegal compress level " + level);
+        }
+        this.threshold = Math.max(0, threshold);
+        this.level = level;
+    }
+
+    /**
+     * @param raw 编码后的原始值
+     * @return 写入HBase的值
+     */
+    byte[] compress(byte[] raw) {
+        if (raw.length >= threshold && raw.length > 0) {
+            byte[] compressed = _deflate(raw);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        if (raw.length > 0 && raw[0] == MARKER) {
+            byte[] escaped = new byte[raw.length + 2];
+            escaped[0] = MARKER;
+            escaped[1] = RAW;
+            System.arraycopy(raw, 0, escaped, 2, raw.length);
+            return escaped;
+        }
+        return raw;
+    }
+
+    /**
+     * 解码HBase中的值，返回的Context在当前线程下一次调用前有效，调用方需要立即读取（TypeCodec.decode会复制）
+     * @throws IllegalArgumentException 数据格式错误
+     */
+    Context decompress(byte[] bytes, int offset, int length) {
+        Context context = contexts.get();
+        if (length < 2 || bytes[offset] != MARKER) {
+            return context.set(bytes, offset, length);
+        }
+        if (bytes[offset + 1] == RAW) {
+            return context.set(bytes, offset + 2, length - 2);
+        }
+        if (bytes[offset + 1] != DEFLATE) {
+            throw new IllegalArgumentException("unknown compress header " + bytes[offset + 1]);
+        }
+        int pos = offset + 2;
+        int rawLength = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (pos >= offset + length || shift > 28) {
+                throw new IllegalArgumentException("malformed compressed value");
+            }
+            b = bytes[pos++];
+            rawLength |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        byte[] buffer = context.buffer(rawLength);
+        Inflater inflater = context.inflater;
+        inflater.reset();
+        inflater.setInput(bytes, pos, offset + length - pos);
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(buffer, n, rawLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != rawLength) {
+                throw new IllegalArgumentException("malformed compressed value, expect " + rawLength + " bytes, got " + n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("malformed compressed value", e);
+        }
+        return context.set(buffer, 0, rawLength);
+    }
+
+    //压缩后没有变小时返回null
+    private byte[] _deflate(byte[] raw) {
+        Context context = contexts.get();
+        Deflater deflater = context.deflater;
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(raw);
+        deflater.finish();
+        int header = 2 + _varIntSize(raw.length);
+        //输出不超过原始长度，否则放弃压缩
+        byte[] out = new byte[raw.length];
+        int pos = header;
+        while (!deflater.finished()) {
+            if (pos >= out.length) {
+                return null;
+            }
+            pos += deflater.deflate(out, pos, out.length - pos);
+        }
+        out[0] = MARKER;
+        out[1] = DEFLATE;
+        int p = 2;
+        int value = raw.length;
+        while ((value & ~0x7f) != 0) {
+            out[p++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out[p] = (byte) value;
+        byte[] result = new byte[pos];
+        System.arraycopy(out, 0, result, 0, pos);
+        return result;
+    }
+
+    private static int _varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * 线程内复用的压缩上下文，同时作为解码结果（array/offset/length）
+     */
+    static final class Context {
+
+        private final Deflater deflater = new Deflater();
+        private final Inflater inflater = new Inflater();
+        private byte[] buffer = new byte[1024];
+
+        byte[] array;
+        int offset;
+        int length;
+
+        private Context set(byte[] array, int offset, int length) {
+            this.array = array;
+            this.offset = offset;
+            this.length = length;
+            return this;
+        }
+
+        private byte[] buffer(int size) {
+            if (size <= buffer.length) {
+                return buffer;
+            }
+            if (size > MAX_RETAINED_BUFFER) {
+                return new byte[size];
+            }
+            buffer = new byte[Integer.highestOneBit(size - 1) << 1];
+            return buffer;
+        }
+    }
+}
@@ -13,4 +13,9 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface HBaseColumn {
     int id();
+
+    /**
+     * 列所在的列族，对应HBaseColumnFamily.id
+     */
+    int family() default 0;
 }
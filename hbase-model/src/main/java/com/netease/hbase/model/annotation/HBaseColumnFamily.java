@@ -12,4 +12,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface HBaseColumnFamily {
+
+    /**
+     * 列族id，HBaseColumn.family引用该id，只有一个列族时可以省略
+     */
+    int id() default 0;
 }
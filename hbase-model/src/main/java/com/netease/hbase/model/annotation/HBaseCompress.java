@@ -0,0 +1,27 @@
+package com.netease.hbase.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 字段值压缩，编码后的值不小于threshold时使用Deflater压缩，压缩后没有变小则按原值存储
+ * 值带有头部标识，parseResult可以同时读取压缩和未压缩的值；压缩后的列不能再使用服务端的值过滤（如SingleColumnValueFilter）
+ * 只支持对象类型的字段（String/byte[]/TypeCodec注册的类型）和packed的map字段
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface HBaseCompress {
+
+    /**
+     * 压缩阈值，单位字节
+     */
+    int threshold() default 256;
+
+    /**
+     * Deflater的压缩级别，1~9，越大压缩率越高、CPU消耗越多
+     */
+    int level() default 1;
+}
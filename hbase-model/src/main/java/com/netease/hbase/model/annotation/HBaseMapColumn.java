@@ -6,7 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- *
+ * 标记map字段对应的列，map字段由HBaseMapField识别，该注解只为兼容保留
  * Created by hzcaojiajun on 2017/3/29.
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -12,4 +12,11 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface HBaseMapField {
+
+    /**
+     * true时整个map存为一列（列名为HBaseMapColumn本身），key/value按长度前缀打包
+     * false时每个entry存为一列，列名为 column|key
+     * 读取时两种格式都支持，同时存在时以当前配置的格式为准
+     */
+    boolean packed() default false;
 }
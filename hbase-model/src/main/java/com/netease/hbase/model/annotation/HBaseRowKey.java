@@ -0,0 +1,43 @@
+package com.netease.hbase.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明model的rowKey由{@link HBaseRowKeyField}标注的字段按order顺序组成，getRowKey直接返回AbstractHBaseModel.encodeRowKey()即可，
+ * scan的范围也可以由RowKeyCodec自动生成
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface HBaseRowKey {
+
+    Strategy strategy() default Strategy.RAW;
+
+    /**
+     * 前几个key字段参与计算salt/hash前缀，scan时这些字段必须给定
+     */
+    int hashFields() default 1;
+
+    /**
+     * HASH_PREFIX策略下hash前缀的字节数，1-16
+     */
+    int hashLength() default 4;
+
+    /**
+     * SALTED策略下的分桶数，1-256
+     */
+    int buckets() default 16;
+
+    enum Strategy {
+        //各字段按保序编码直接拼接
+        RAW,
+        //1字节的分桶salt + 各字段
+        SALTED,
+        //hashLength字节的短hash + 各字段
+        HASH_PREFIX,
+        ;
+    }
+}
@@ -0,0 +1,16 @@
+package com.netease.hbase.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * rowKey的组成字段，支持long/int/short及其包装类型，String和byte[]只能作为最后一个字段
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface HBaseRowKeyField {
+    int order();
+}
@@ -0,0 +1,25 @@
+package com.netease.hbase.model.codec;
+
+/**
+ * 字段类型的编解码器，负责一个java类型和HBase中byte[]之间的转换
+ * 需要在model第一次使用之前通过{@link TypeCodecs#register(Class, TypeCodec)}注册
+ *
+ */
+public interface TypeCodec<V> {
+
+    /**
+     * 编码
+     * @param value 字段值，不为null
+     * @return 写入HBase的字节
+     */
+    byte[] encode(V value);
+
+    /**
+     * 解码，bytes可能是Cell底层共享的数组，实现时只能读取[offset, offset + length)区间，且不能持有该数组
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 字段值
+     */
+    V decode(byte[] bytes, int offset, int length);
+}
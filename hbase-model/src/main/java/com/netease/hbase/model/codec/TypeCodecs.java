@@ -0,0 +1,210 @@
+package com.netease.hbase.model.codec;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 字段类型编解码器的注册表
+ * 内置了Long/Integer/Short/Float/Double/Boolean/String/BigDecimal/byte[]以及枚举类型，
+ * 基本类型(long/int/short/float/double/boolean)的字段由model codec直接读写，不经过注册表，也不会装箱
+ * 自定义类型可以通过{@link #register(Class, TypeCodec)}注册，需要在对应model第一次使用之前完成注册
+ *
+ */
+public final class TypeCodecs {
+
+    private static final ConcurrentMap<Class<?>, TypeCodec<?>> codecMap = new ConcurrentHashMap<>();
+
+    static {
+        register(Long.class, new TypeCodec<Long>() {
+            @Override
+            public byte[] encode(Long value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Long decode(byte[] bytes, int offset, int length) {
+                return Bytes.toLong(bytes, offset, length);
+            }
+        });
+        register(Integer.class, new TypeCodec<Integer>() {
+            @Override
+            public byte[] encode(Integer value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Integer decode(byte[] bytes, int offset, int length) {
+                return Bytes.toInt(bytes, offset, length);
+            }
+        });
+        register(Short.class, new TypeCodec<Short>() {
+            @Override
+            public byte[] encode(Short value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Short decode(byte[] bytes, int offset, int length) {
+                return Bytes.toShort(bytes, offset, length);
+            }
+        });
+        register(Float.class, new TypeCodec<Float>() {
+            @Override
+            public byte[] encode(Float value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Float decode(byte[] bytes, int offset, int length) {
+                _checkLength(length, Bytes.SIZEOF_FLOAT);
+                return Bytes.toFloat(bytes, offset);
+            }
+        });
+        register(Double.class, new TypeCodec<Double>() {
+            @Override
+            public byte[] encode(Double value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Double decode(byte[] bytes, int offset, int length) {
+                _checkLength(length, Bytes.SIZEOF_DOUBLE);
+                return Bytes.toDouble(bytes, offset);
+            }
+        });
+        register(Boolean.class, new TypeCodec<Boolean>() {
+            @Override
+            public byte[] encode(Boolean value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public Boolean decode(byte[] bytes, int offset, int length) {
+                return toBoolean(bytes, offset, length);
+            }
+        });
+        register(String.class, new TypeCodec<String>() {
+            @Override
+            public byte[] encode(String value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public String decode(byte[] bytes, int offset, int length) {
+                return Bytes.toString(bytes, offset, length);
+            }
+        });
+        register(BigDecimal.class, new TypeCodec<BigDecimal>() {
+            @Override
+            public byte[] encode(BigDecimal value) {
+                return Bytes.toBytes(value);
+            }
+
+            @Override
+            public BigDecimal decode(byte[] bytes, int offset, int length) {
+                return Bytes.toBigDecimal(bytes, offset, length);
+            }
+        });
+        register(byte[].class, new TypeCodec<byte[]>() {
+            @Override
+            public byte[] encode(byte[] value) {
+                //复制一份，之后修改model中的数组不会影响已经生成的Put
+                return value.clone();
+            }
+
+            @Override
+            public byte[] decode(byte[] bytes, int offset, int length) {
+                return Arrays.copyOfRange(bytes, offset, offset + length);
+            }
+        });
+    }
+
+    private TypeCodecs() {
+    }
+
+    /**
+     * 注册自定义类型的编解码器，会覆盖已有的注册
+     * @param type 字段类型
+     * @param codec 编解码器
+     * @param <V> 字段类型
+     */
+    public static <V> void register(Class<V> type, TypeCodec<V> codec) {
+        if (type == null || codec == null) {
+            throw new IllegalArgumentException("type/codec not be null");
+        }
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("primitive type " + type + " is built in");
+        }
+        codecMap.put(type, codec);
+    }
+
+    /**
+     * 获取类型对应的编解码器，枚举类型未注册时自动创建
+     * @param type 字段类型
+     * @param <V> 字段类型
+     * @return 编解码器，不支持的类型返回null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <V> TypeCodec<V> get(Class<V> type) {
+        TypeCodec<V> codec = (TypeCodec<V>) codecMap.get(type);
+        if (codec == null && type.isEnum()) {
+            codec = new EnumCodec(type);
+            TypeCodec<V> old = (TypeCodec<V>) codecMap.putIfAbsent(type, codec);
+            if (old != null) {
+                codec = old;
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * 解析boolean，与Bytes.toBytes(boolean)对应
+     */
+    public static boolean toBoolean(byte[] bytes, int offset, int length) {
+        _checkLength(length, 1);
+        return bytes[offset] != (byte) 0;
+    }
+
+    private static void _checkLength(int length, int expected) {
+        if (length != expected) {
+            throw new IllegalArgumentException("wrong length " + length + ", expected " + expected);
+        }
+    }
+
+    //枚举按name存储，解码时直接比较字节，不需要先转成String
+    private static final class EnumCodec<E extends Enum<E>> implements TypeCodec<E> {
+
+        private final Class<E> type;
+        private final E[] constants;
+        private final byte[][] names;
+
+        EnumCodec(Class<E> type) {
+            this.type = type;
+            this.constants = type.getEnumConstants();
+            this.names = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                names[i] = Bytes.toBytes(constants[i].name());
+            }
+        }
+
+        @Override
+        public byte[] encode(E value) {
+            //names是所有调用方共享的，返回副本
+            return names[value.ordinal()].clone();
+        }
+
+        @Override
+        public E decode(byte[] bytes, int offset, int length) {
+            for (int i = 0; i < names.length; i++) {
+                if (Bytes.equals(names[i], 0, names[i].length, bytes, offset, length)) {
+                    return constants[i];
+                }
+            }
+            throw new IllegalArgumentException("unknown " + type.getSimpleName() + " constant " + Bytes.toString(bytes, offset, length));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.netease.hbase.sample;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.RowKeyCodec;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Map;
+
+/**
+ * 与MessageModel字段相同，rowKey由HBaseRowKey声明：4字节hash(fromUid, toUid) + fromUid + toUid + timestamp，共28字节
+ * rowKey格式与MessageModel不同，不能读写MessageModel的表
+ *
+ */
+@HBaseTableName(name = "message_hashed")
+@HBaseRowKey(strategy = HBaseRowKey.Strategy.HASH_PREFIX, hashFields = 2, hashLength = 4)
+public class HashedMessageModel extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long fromUid;
+
+    @HBaseField(id = 2)
+    @HBaseRowKeyField(order = 2)
+    public Long toUid;
+
+    @HBaseField(id = 3)
+    public String body;
+
+    @HBaseField(id = 4)
+    @HBaseRowKeyField(order = 3)
+    public Long timestamp;
+
+    @HBaseField(id = 5)
+    @HBaseMapField
+    public Map<String, String> extra;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_D_FROM_UID = Bytes.toBytes("fromUid");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_D_TO_UID = Bytes.toBytes("toUid");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_D_BODY = Bytes.toBytes("body");
+
+    @HBaseColumn(id = 4)
+    private static final byte[] COL_D_TIMESTAMP = Bytes.toBytes("timestamp");
+
+    @HBaseColumn(id = 5)
+    @HBaseMapColumn
+    private static final byte[] COL_D_EXTRA = Bytes.toBytes("extra");
+
+    @Override
+    public void check() {
+        if (fromUid == null || toUid == null || timestamp == null) {
+            throw new RuntimeException("fromUid/toUid/timestamp not be null");
+        }
+    }
+
+    public static Scan getScan(Long fromUid, Long toUid, Long startTimestamp, Long endTimestamp) {
+        Scan scan = RowKeyCodec.of(HashedMessageModel.class).rangeScan(
+                new Object[]{fromUid, toUid, startTimestamp}, new Object[]{fromUid, toUid, endTimestamp});
+        scan.setCaching(50);
+        scan.setSmall(true);
+        scan.addFamily(CF_D);
+        return scan;
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        check();
+        return encodeRowKey();
+    }
+}
@@ -1,10 +1,12 @@
 package com.netease.hbase.sample;
 
 import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.RowKeyBuilder;
 import com.netease.hbase.model.annotation.*;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -49,6 +51,9 @@ public class MessageModel extends AbstractHBaseModel {
     @HBaseMapColumn
     private static final byte[] COL_D_EXTRA = Bytes.toBytes("extra");
 
+    //md5(fromUid) + md5(toUid) + timestamp
+    private static final int ROW_KEY_LENGTH = RowKeyBuilder.MD5_LENGTH * 2 + Bytes.SIZEOF_LONG;
+
     @Override
     public void check() {
         if (fromUid == null || toUid == null || timestamp == null) {
@@ -57,8 +62,10 @@ public class MessageModel extends AbstractHBaseModel {
     }
 
     public static Scan getScan(Long fromUid, Long toUid, Long startTimestamp, Long endTimestamp) {
-        byte[] start = Bytes.add(md5Bytes(fromUid), md5Bytes(toUid), Bytes.toBytes(startTimestamp));
-        byte[] end = Bytes.add(md5Bytes(fromUid), md5Bytes(toUid), Bytes.toBytes(endTimestamp));
+        byte[] start = _rowKey(fromUid, toUid, startTimestamp);
+        //前缀相同，只替换timestamp部分
+        byte[] end = Arrays.copyOf(start, start.length);
+        Bytes.putLong(end, RowKeyBuilder.MD5_LENGTH * 2, endTimestamp);
 
         Scan scan = new Scan(start, end);
         scan.setCaching(50);
@@ -70,6 +77,10 @@ public class MessageModel extends AbstractHBaseModel {
     @Override
     public byte[] getRowKey() {
         check();
-        return Bytes.add(md5Bytes(fromUid), md5Bytes(toUid), Bytes.toBytes(timestamp));
+        return _rowKey(fromUid, toUid, timestamp);
+    }
+
+    private static byte[] _rowKey(long fromUid, long toUid, long timestamp) {
+        return new RowKeyBuilder(ROW_KEY_LENGTH).md5(fromUid).md5(toUid).putLong(timestamp).build();
     }
 }
@@ -0,0 +1,128 @@
+package com.netease.hbase.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class CRUDDaoBatchTest {
+
+    private FailingTable table;
+    private CRUDDao<ItemModel> dao;
+
+    @Before
+    public void setUp() {
+        table = new FailingTable("item");
+        CRUDDao.setTableProvider(table.provider());
+        dao = new CRUDDao<>(ItemModel.class);
+        dao.setBatchConfig(new BatchConfig().setRetryBackoffMs(1));
+        table.batchSizes.clear();
+    }
+
+    @After
+    public void tearDown() {
+        CRUDDao.setTableProvider(null);
+    }
+
+    @Test
+    public void testRetryFailedItemsOnly() throws Exception {
+        List<ItemModel> models = _models(5);
+        table.failOnce(models.get(1).getRowKey()).failOnce(models.get(3).getRowKey());
+
+        BatchResult result = dao.batchPutDetailed(models);
+        assertTrue(result.isAllSuccess());
+        for (int i = 0; i < models.size(); i++) {
+            assertEquals("index " + i, i == 1 || i == 3 ? 2 : 1, result.getAttempts(i));
+        }
+        //第二次只发送失败的两条
+        assertEquals(Arrays.asList(5, 2), table.batchSizes);
+        assertEquals(5, table.size());
+    }
+
+    @Test
+    public void testNonRetryableNotRetried() throws Exception {
+        List<ItemModel> models = _models(3);
+        table.failAlways(models.get(2).getRowKey());
+
+        BatchResult result = dao.batchPutDetailed(models);
+        assertTrue(result.isSuccess(0));
+        assertTrue(result.isSuccess(1));
+        assertEquals(BatchResult.Status.NON_RETRYABLE_FAILURE, result.getStatus(2));
+        assertEquals(1, result.getAttempts(2));
+        assertEquals(Arrays.asList(3), table.batchSizes);
+
+        boolean[] res = dao.batchPut(models);
+        assertTrue(res[0]);
+        assertFalse(res[2]);
+    }
+
+    @Test
+    public void testMaxRetries() throws Exception {
+        dao.setBatchConfig(new BatchConfig().setRetryBackoffMs(1).setMaxRetries(1));
+        List<ItemModel> models = _models(2);
+        //失败两次，只重试一次
+        table.failOnce(models.get(0).getRowKey());
+        BatchResult first = dao.batchPutDetailed(models.subList(0, 1));
+        assertTrue(first.isSuccess(0));
+        assertEquals(2, first.getAttempts(0));
+
+        table.batchSizes.clear();
+        table.failAlways(models.get(1).getRowKey());
+        BatchResult second = dao.batchPutDetailed(models.subList(1, 2));
+        assertFalse(second.isSuccess(0));
+        assertEquals(Arrays.asList(1), table.batchSizes);
+    }
+
+    @Test
+    public void testChunked() throws Exception {
+        dao.setBatchConfig(new BatchConfig().setRetryBackoffMs(1).setMaxBatchSize(4).setParallelism(2));
+        List<ItemModel> models = _models(10);
+        table.failOnce(models.get(9).getRowKey());
+
+        BatchResult result = dao.batchPutDetailed(models);
+        assertTrue(result.isAllSuccess());
+        assertEquals(2, result.getAttempts(9));
+        for (int size : table.batchSizes) {
+            assertTrue(size <= 4);
+        }
+        assertEquals(4, table.batchSizes.size());
+
+        List<ItemModel> read = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            read.add(new ItemModel(i));
+        }
+        boolean[] found = dao.batchGet(read);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(found[i]);
+            assertEquals("value" + i, read.get(i).value);
+        }
+    }
+
+    @Test
+    public void testBatchDelete() throws Exception {
+        List<ItemModel> models = _models(3);
+        dao.batchPut(models);
+        table.failOnce(models.get(0).getRowKey());
+
+        BatchResult result = dao.batchDeleteDetailed(models);
+        assertTrue(result.isAllSuccess());
+        assertEquals(2, result.getAttempts(0));
+        assertEquals(0, table.size());
+    }
+
+    private static List<ItemModel> _models(int count) {
+        List<ItemModel> models = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            models.add(new ItemModel(i, "value" + i));
+        }
+        return models;
+    }
+}
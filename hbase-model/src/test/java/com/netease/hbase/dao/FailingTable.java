@@ -0,0 +1,103 @@
+package com.netease.hbase.dao;
+
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.coprocessor.Batch;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 可以让指定行写入失败的InMemoryTable，并记录每次batch的条数
+ * failOnce的行第一次写入时失败（可重试），failAlways的行写入和读取都失败（不可重试），failBatch时整个batch失败
+ *
+ */
+class FailingTable extends InMemoryTable {
+
+    private final Set<byte[]> failOnce = Collections.synchronizedSet(new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR));
+    private final Set<byte[]> failAlways = Collections.synchronizedSet(new TreeSet<byte[]>(Bytes.BYTES_COMPARATOR));
+    //不为null时整个batch直接抛出该异常
+    private volatile IOException batchError;
+    //每次batch的条数
+    final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    FailingTable(String tableName) {
+        super(tableName);
+    }
+
+    FailingTable failOnce(byte[] row) {
+        failOnce.add(row);
+        return this;
+    }
+
+    FailingTable failAlways(byte[] row) {
+        failAlways.add(row);
+        return this;
+    }
+
+    FailingTable failBatch(IOException error) {
+        this.batchError = error;
+        return this;
+    }
+
+    /**
+     * @return 所有请求都从该表读写的provider
+     */
+    TableProvider provider() {
+        return new TableProvider() {
+            @Override
+            public FailingTable getTable(String tableName) {
+                return FailingTable.this;
+            }
+        };
+    }
+
+    @Override
+    public <R> void batchCallback(List<? extends Row> actions, Object[] results, Batch.Callback<R> callback) throws IOException, InterruptedException {
+        batchSizes.add(actions.size());
+        IOException failure = batchError;
+        if (failure != null) {
+            throw failure;
+        }
+        List<Throwable> errors = new ArrayList<>();
+        List<Row> failed = new ArrayList<>();
+        List<String> servers = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            Row action = actions.get(i);
+            IOException error = null;
+            if (failAlways.contains(action.getRow())) {
+                error = new DoNotRetryIOException("fail always");
+            } else if (failOnce.remove(action.getRow())) {
+                error = new IOException("fail once");
+            }
+            if (error == null) {
+                Object[] result = new Object[1];
+                super.batchCallback(Collections.singletonList(action), result, callback);
+                results[i] = result[0];
+            } else {
+                results[i] = error;
+                errors.add(error);
+                failed.add(action);
+                servers.add("localhost");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new RetriesExhaustedWithDetailsException(errors, failed, servers);
+        }
+    }
+
+    @Override
+    public Result[] get(List<Get> gets) throws IOException {
+        for (Get get : gets) {
+            if (failAlways.contains(get.getRow())) {
+                throw new DoNotRetryIOException("fail always");
+            }
+        }
+        return super.get(gets);
+    }
+}
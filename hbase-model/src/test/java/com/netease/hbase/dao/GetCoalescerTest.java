@@ -0,0 +1,114 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class GetCoalescerTest {
+
+    private static final int THREADS = 16;
+
+    private FailingTable table;
+    private CRUDDao<ItemModel> dao;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        table = new FailingTable("item");
+        CRUDDao.setTableProvider(table.provider());
+        dao = new CRUDDao<>(ItemModel.class);
+        for (int i = 0; i < THREADS; i++) {
+            dao.put(new ItemModel(i, "v" + i));
+        }
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        CRUDDao.setTableProvider(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testFanOut() throws Exception {
+        dao.enableGetCoalescing(new GetCoalescingConfig().setMaxBatchSize(THREADS).setMaxDelayMicros(20000));
+        List<Future<Object>> futures = _submit(THREADS, false);
+        for (int i = 0; i < futures.size(); i++) {
+            //每个调用方拿到自己那一行的结果
+            assertEquals("index " + i, "v" + i, futures.get(i).get());
+        }
+        GetCoalescingStats stats = dao.getGetCoalescingStats();
+        assertEquals(THREADS, stats.getRequestCount());
+        assertEquals(THREADS, stats.getBatchedGetCount());
+        assertTrue(stats.getBatchCount() < THREADS);
+    }
+
+    @Test(timeout = 10000)
+    public void testSingleFlight() throws Exception {
+        dao.enableGetCoalescing(new GetCoalescingConfig().setSingleFlight(true).setMaxBatchSize(THREADS).setMaxDelayMicros(20000));
+        List<Future<Object>> futures = _submit(THREADS, true);
+        for (Future<Object> future : futures) {
+            assertEquals("v0", future.get());
+        }
+        GetCoalescingStats stats = dao.getGetCoalescingStats();
+        //同一行的get共享读取，发送的get少于请求数
+        assertEquals(THREADS, stats.getRequestCount());
+        assertEquals(THREADS, stats.getSharedCount() + stats.getBatchedGetCount());
+        assertTrue(stats.getSharedCount() > 0);
+    }
+
+    @Test(timeout = 10000)
+    public void testFailureFanOut() throws Exception {
+        final int bad = 3;
+        table.failAlways(new ItemModel(bad).getRowKey());
+        dao.enableGetCoalescing(new GetCoalescingConfig().setMaxBatchSize(THREADS).setMaxDelayMicros(20000));
+        List<Future<Object>> futures = _submit(THREADS, false);
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Object result = futures.get(i).get();
+            if (result instanceof CRUDException) {
+                //与失败的行在同一个multi-get中的调用方收到同一个异常
+                assertEquals(CRUDException.Code.HBASE_NO_RETRY_ERROR, ((CRUDException) result).getCode());
+                failed++;
+            } else {
+                assertNotEquals(bad, i);
+                assertEquals("v" + i, result);
+            }
+        }
+        assertTrue(futures.get(bad).get() instanceof CRUDException);
+        assertTrue(failed >= 1);
+    }
+
+    //所有线程同时开始get，返回每个get读到的value或异常；sameRow时都读取第0行
+    private List<Future<Object>> _submit(int count, final boolean sameRow) {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int id = sameRow ? 0 : i;
+            futures.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    start.await();
+                    ItemModel model = new ItemModel(id);
+                    try {
+                        return dao.get(model) ? model.value : null;
+                    } catch (CRUDException e) {
+                        return e;
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+}
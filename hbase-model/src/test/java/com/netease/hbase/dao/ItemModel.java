@@ -0,0 +1,47 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.model.AbstractHBaseModel;
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * dao测试使用的model，rowKey为id
+ *
+ */
+@HBaseTableName(name = "item")
+@HBaseRowKey
+public class ItemModel extends AbstractHBaseModel {
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    public String value;
+
+    @HBaseColumnFamily
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_VALUE = Bytes.toBytes("value");
+
+    public ItemModel() {
+    }
+
+    public ItemModel(long id) {
+        this.id = id;
+    }
+
+    public ItemModel(long id, String value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    @Override
+    public byte[] getRowKey() {
+        return encodeRowKey();
+    }
+}
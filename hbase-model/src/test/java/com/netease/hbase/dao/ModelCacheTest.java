@@ -0,0 +1,113 @@
+package com.netease.hbase.dao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class ModelCacheTest {
+
+    private final ModelCache<ItemModel> cache = new ModelCache<>(new ModelCacheConfig().setMaximumSize(100).setTtlMs(60000).setSegments(4));
+    private final byte[] row = new ItemModel(1).getRowKey();
+
+    @Before
+    public void setUp() {
+        CRUDDao.setTableProvider(new InMemoryTableProvider());
+    }
+
+    @After
+    public void tearDown() {
+        CRUDDao.setTableProvider(null);
+    }
+
+    @Test
+    public void testPutAfterStamp() {
+        long stamp = cache.stamp(row);
+        ItemModel model = new ItemModel(1, "v");
+        cache.put(row, model, stamp);
+        assertSame(model, cache.get(row));
+        assertEquals(1, cache.stats().getHitCount());
+    }
+
+    @Test
+    public void testInvalidateBetweenStampAndPut() {
+        //读穿透期间有写操作，读到的旧值不能写入缓存
+        long stamp = cache.stamp(row);
+        cache.invalidate(row);
+        cache.put(row, new ItemModel(1, "stale"), stamp);
+        assertNull(cache.get(row));
+
+        cache.put(row, new ItemModel(1, "fresh"), cache.stamp(row));
+        assertEquals("fresh", cache.get(row).value);
+    }
+
+    @Test
+    public void testClearBetweenStampAndPut() {
+        long stamp = cache.stamp(row);
+        cache.clear();
+        cache.put(row, new ItemModel(1, "stale"), stamp);
+        assertNull(cache.get(row));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put(row, new ItemModel(1, "v"), cache.stamp(row));
+        cache.invalidate(row);
+        assertNull(cache.get(row));
+        assertEquals(1, cache.stats().getInvalidationCount());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void testEviction() {
+        ModelCache<ItemModel> small = new ModelCache<>(new ModelCacheConfig().setMaximumSize(2).setSegments(1).setTtlMs(60000));
+        for (int i = 0; i < 3; i++) {
+            byte[] key = new ItemModel(i).getRowKey();
+            small.put(key, new ItemModel(i, "v"), small.stamp(key));
+        }
+        //最早写入的被淘汰
+        assertNull(small.get(new ItemModel(0).getRowKey()));
+        assertNotNull(small.get(new ItemModel(2).getRowKey()));
+        assertEquals(1, small.stats().getEvictionCount());
+    }
+
+    @Test
+    public void testReadAfterWrite() throws Exception {
+        CRUDDao<ItemModel> dao = new CRUDDao<>(ItemModel.class);
+        dao.enableCache(new ModelCacheConfig().setMaximumSize(100).setTtlMs(60000));
+        dao.put(new ItemModel(1, "old"));
+
+        ItemModel first = new ItemModel(1);
+        assertTrue(dao.get(first));
+        assertEquals("old", first.value);
+
+        //通过dao写入后缓存失效，读到新值
+        dao.put(new ItemModel(1, "new"));
+        ItemModel second = new ItemModel(1);
+        assertTrue(dao.get(second));
+        assertEquals("new", second.value);
+
+        dao.delete(new ItemModel(1));
+        assertFalse(dao.get(new ItemModel(1)));
+    }
+
+    @Test
+    public void testCachedModelNotShared() throws Exception {
+        CRUDDao<ItemModel> dao = new CRUDDao<>(ItemModel.class);
+        dao.enableCache(new ModelCacheConfig().setMaximumSize(100).setTtlMs(60000));
+        dao.put(new ItemModel(1, "v"));
+        ItemModel first = new ItemModel(1);
+        dao.get(first);
+        first.value = "changed";
+
+        //修改读到的对象不影响缓存
+        ItemModel second = new ItemModel(1);
+        assertTrue(dao.get(second));
+        assertEquals("v", second.value);
+        assertTrue(dao.getCacheStats().getHitCount() > 0);
+    }
+}
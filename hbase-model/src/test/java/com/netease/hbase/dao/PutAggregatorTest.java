@@ -0,0 +1,96 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class PutAggregatorTest {
+
+    private static final int THREADS = 16;
+
+    private FailingTable table;
+    private CRUDDao<ItemModel> dao;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        table = new FailingTable("item");
+        CRUDDao.setTableProvider(table.provider());
+        dao = new CRUDDao<>(ItemModel.class);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        dao.closePutAggregation();
+        executor.shutdownNow();
+        CRUDDao.setTableProvider(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testFanOut() throws Exception {
+        dao.enablePutAggregation(new PutAggregationConfig().setDispatcherThreads(1).setLingerMicros(5000));
+        final int bad = 7;
+        table.failAlways(new ItemModel(bad).getRowKey());
+
+        List<Future<Object>> futures = _submit(THREADS);
+        for (int i = 0; i < futures.size(); i++) {
+            Object result = futures.get(i).get();
+            if (i == bad) {
+                assertTrue(result instanceof CRUDException);
+                assertEquals(CRUDException.Code.HBASE_NO_RETRY_ERROR, ((CRUDException) result).getCode());
+            } else {
+                assertEquals("index " + i, Boolean.TRUE, result);
+            }
+        }
+        assertEquals(THREADS - 1, table.size());
+
+        PutAggregationStats stats = dao.getPutAggregationStats();
+        assertEquals(THREADS, stats.getRequestCount());
+        assertEquals(1, stats.getFailedCount());
+        //并发的put被合并写入
+        assertTrue(stats.getBatchCount() < THREADS);
+    }
+
+    @Test(timeout = 10000)
+    public void testPutAfterClose() throws Exception {
+        dao.enablePutAggregation(new PutAggregationConfig());
+        dao.closePutAggregation();
+        //关闭之后直接写入
+        assertTrue(dao.put(new ItemModel(1, "v")));
+        assertEquals(1, table.size());
+        assertNull(dao.getPutAggregationStats());
+    }
+
+    //所有线程同时开始put，返回每个put的结果（Boolean或异常）
+    private List<Future<Object>> _submit(int count) {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int id = i;
+            futures.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    start.await();
+                    try {
+                        return dao.put(new ItemModel(id, "v" + id));
+                    } catch (CRUDException e) {
+                        return e;
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+}
@@ -0,0 +1,170 @@
+package com.netease.hbase.dao;
+
+import com.netease.hbase.exception.CRUDException;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class WriteBehindBufferTest {
+
+    private FailingTable table;
+    private CRUDDao<ItemModel> dao;
+    private final List<ItemModel> succeeded = new CopyOnWriteArrayList<>();
+    private final List<CRUDException> failed = new CopyOnWriteArrayList<>();
+    private final MutationCallback<ItemModel> callback = new MutationCallback<ItemModel>() {
+        @Override
+        public void onSuccess(ItemModel model) {
+            succeeded.add(model);
+        }
+
+        @Override
+        public void onFailure(ItemModel model, CRUDException e) {
+            failed.add(e);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        table = new FailingTable("item");
+        CRUDDao.setTableProvider(table.provider());
+        dao = new CRUDDao<>(ItemModel.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dao.closeWriteBuffer();
+        CRUDDao.setTableProvider(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testFlush() throws Exception {
+        //linger很长，只能靠flush写入
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(60000).setMaxBatchSize(1000));
+        for (int i = 0; i < 20; i++) {
+            assertTrue(dao.putBuffered(new ItemModel(i, "v" + i), callback));
+        }
+        dao.flush();
+        assertEquals(20, succeeded.size());
+        assertEquals(20, table.size());
+
+        dao.deleteBuffered(new ItemModel(0), callback);
+        dao.flush();
+        assertEquals(19, table.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchSize() throws Exception {
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(60000).setMaxBatchSize(4));
+        for (int i = 0; i < 10; i++) {
+            dao.putBuffered(new ItemModel(i, "v"), callback);
+        }
+        dao.flush();
+        assertEquals(10, table.size());
+        for (int size : table.batchSizes) {
+            assertTrue(size <= 4);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testClose() throws Exception {
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(60000));
+        for (int i = 0; i < 5; i++) {
+            dao.putBuffered(new ItemModel(i, "v"), callback);
+        }
+        //关闭时写完缓冲区中的数据
+        dao.closeWriteBuffer();
+        assertEquals(5, succeeded.size());
+        assertEquals(5, table.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testSubmitAfterClose() throws Exception {
+        WriteBehindBuffer<ItemModel> buffer = new WriteBehindBuffer<>(dao, "item", new WriteBufferConfig());
+        buffer.close();
+        ItemModel model = new ItemModel(1, "v");
+        try {
+            buffer.submit(model, model.toPut(), callback);
+            fail("submit after close should be rejected");
+        } catch (CRUDException e) {
+            assertEquals(CRUDException.Code.BUFFER_FULL, e.getCode());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFlushAfterClose() throws Exception {
+        WriteBehindBuffer<ItemModel> buffer = new WriteBehindBuffer<>(dao, "item", new WriteBufferConfig());
+        ItemModel model = new ItemModel(1, "v");
+        buffer.submit(model, model.toPut(), callback);
+        buffer.close();
+        //后台线程已经退出，flush不能一直等待
+        buffer.flush();
+        buffer.close();
+        assertEquals(1, succeeded.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailureReleasesBuffer() throws Exception {
+        ItemModel bad = new ItemModel(1, "v");
+        table.failAlways(bad.getRowKey());
+        //缓冲区只能放下一条，失败之后必须释放空间，否则下一条会超时
+        long size = bad.toPut().heapSize();
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(0).setBufferBytes(size).setBlockTimeoutMs(5000));
+        dao.putBuffered(bad, callback);
+        dao.putBuffered(new ItemModel(2, "v"), callback);
+        dao.flush();
+
+        assertEquals(1, failed.size());
+        assertEquals(CRUDException.Code.HBASE_NO_RETRY_ERROR, failed.get(0).getCode());
+        assertEquals(1, succeeded.size());
+        assertEquals(2L, (long) succeeded.get(0).id);
+    }
+
+    @Test(timeout = 10000)
+    public void testPartialFailure() throws Exception {
+        ItemModel bad = new ItemModel(1, "v");
+        table.failAlways(bad.getRowKey());
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(60000));
+        dao.putBuffered(bad, callback);
+        for (int i = 2; i < 6; i++) {
+            dao.putBuffered(new ItemModel(i, "v"), callback);
+        }
+        dao.flush();
+        //同一批中只有失败的那条收到onFailure
+        assertEquals(1, failed.size());
+        assertEquals(4, succeeded.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchFailureNotifiesAll() throws Exception {
+        ItemModel model = new ItemModel(1, "v");
+        long size = model.toPut().heapSize();
+        dao.enableWriteBuffer(new WriteBufferConfig().setLingerMs(60000).setBufferBytes(size * 4).setBlockTimeoutMs(5000));
+        table.failBatch(new DoNotRetryIOException("batch fail"));
+        for (int i = 0; i < 4; i++) {
+            dao.putBuffered(new ItemModel(i, "v"), callback);
+        }
+        dao.flush();
+        assertEquals(4, failed.size());
+        for (CRUDException e : failed) {
+            assertEquals(CRUDException.Code.HBASE_NO_RETRY_ERROR, e.getCode());
+        }
+        assertEquals(0, succeeded.size());
+
+        //失败的写入释放了缓冲区空间
+        table.failBatch(null);
+        for (int i = 0; i < 4; i++) {
+            dao.putBuffered(new ItemModel(i, "v"), callback);
+        }
+        dao.flush();
+        assertEquals(4, succeeded.size());
+    }
+}
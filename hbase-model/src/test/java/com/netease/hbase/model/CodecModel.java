@@ -0,0 +1,125 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 覆盖所有内置字段类型的model，两个列族，map字段按列和打包各一个
+ *
+ */
+@HBaseTableName(name = "codec")
+@HBaseRowKey
+public class CodecModel extends AbstractHBaseModel {
+
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    @HBaseField(id = 1)
+    @HBaseRowKeyField(order = 1)
+    public Long id;
+
+    @HBaseField(id = 2)
+    public long primitiveLong;
+
+    @HBaseField(id = 3)
+    public int primitiveInt;
+
+    @HBaseField(id = 4)
+    public short primitiveShort;
+
+    @HBaseField(id = 5)
+    public double primitiveDouble;
+
+    @HBaseField(id = 6)
+    public float primitiveFloat;
+
+    @HBaseField(id = 7)
+    public boolean primitiveBoolean;
+
+    @HBaseField(id = 8)
+    public Integer boxedInt;
+
+    @HBaseField(id = 9)
+    public String text;
+
+    @HBaseField(id = 10)
+    public BigDecimal decimal;
+
+    @HBaseField(id = 11)
+    public byte[] bytes;
+
+    @HBaseField(id = 12)
+    public Color color;
+
+    @HBaseField(id = 13)
+    @HBaseMapField
+    public Map<String, String> entries;
+
+    @HBaseField(id = 14)
+    @HBaseMapField(packed = true)
+    public Map<String, String> packed;
+
+    @HBaseField(id = 15)
+    @HBaseCompress(threshold = 64)
+    public String longText;
+
+    @HBaseColumnFamily(id = 0)
+    private static final byte[] CF_D = Bytes.toBytes("d");
+
+    @HBaseColumnFamily(id = 1)
+    private static final byte[] CF_X = Bytes.toBytes("x");
+
+    @HBaseColumn(id = 1)
+    private static final byte[] COL_ID = Bytes.toBytes("id");
+
+    @HBaseColumn(id = 2)
+    private static final byte[] COL_PRIMITIVE_LONG = Bytes.toBytes("pl");
+
+    @HBaseColumn(id = 3)
+    private static final byte[] COL_PRIMITIVE_INT = Bytes.toBytes("pi");
+
+    @HBaseColumn(id = 4)
+    private static final byte[] COL_PRIMITIVE_SHORT = Bytes.toBytes("ps");
+
+    @HBaseColumn(id = 5)
+    private static final byte[] COL_PRIMITIVE_DOUBLE = Bytes.toBytes("pd");
+
+    @HBaseColumn(id = 6)
+    private static final byte[] COL_PRIMITIVE_FLOAT = Bytes.toBytes("pf");
+
+    @HBaseColumn(id = 7)
+    private static final byte[] COL_PRIMITIVE_BOOLEAN = Bytes.toBytes("pb");
+
+    @HBaseColumn(id = 8)
+    private static final byte[] COL_BOXED_INT = Bytes.toBytes("bi");
+
+    @HBaseColumn(id = 9)
+    private static final byte[] COL_TEXT = Bytes.toBytes("text");
+
+    @HBaseColumn(id = 10)
+    private static final byte[] COL_DECIMAL = Bytes.toBytes("decimal");
+
+    @HBaseColumn(id = 11)
+    private static final byte[] COL_BYTES = Bytes.toBytes("bytes");
+
+    @HBaseColumn(id = 12)
+    private static final byte[] COL_COLOR = Bytes.toBytes("color");
+
+    @HBaseColumn(id = 13)
+    private static final byte[] COL_ENTRIES = Bytes.toBytes("entries");
+
+    @HBaseColumn(id = 14, family = 1)
+    private static final byte[] COL_PACKED = Bytes.toBytes("packed");
+
+    @HBaseColumn(id = 15, family = 1)
+    private static final byte[] COL_LONG_TEXT = Bytes.toBytes("longText");
+
+    @Override
+    public byte[] getRowKey() {
+        return encodeRowKey();
+    }
+}
@@ -0,0 +1,215 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.*;
+import com.netease.hbase.model.codec.TypeCodec;
+import com.netease.hbase.model.codec.TypeCodecs;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class ModelCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        CodecModel model = _newModel();
+        CodecModel parsed = new CodecModel();
+        assertTrue(parsed.parseResult(toResult(model.toPut())));
+
+        assertEquals(model.id, parsed.id);
+        assertEquals(model.primitiveLong, parsed.primitiveLong);
+        assertEquals(model.primitiveInt, parsed.primitiveInt);
+        assertEquals(model.primitiveShort, parsed.primitiveShort);
+        assertEquals(model.primitiveDouble, parsed.primitiveDouble, 0);
+        assertEquals(model.primitiveFloat, parsed.primitiveFloat, 0);
+        assertEquals(model.primitiveBoolean, parsed.primitiveBoolean);
+        assertEquals(model.boxedInt, parsed.boxedInt);
+        assertEquals(model.text, parsed.text);
+        assertEquals(model.decimal, parsed.decimal);
+        assertArrayEquals(model.bytes, parsed.bytes);
+        assertEquals(model.color, parsed.color);
+        assertEquals(model.entries, parsed.entries);
+        assertEquals(model.packed, parsed.packed);
+        assertEquals(model.longText, parsed.longText);
+    }
+
+    @Test
+    public void testNullFieldsNotWritten() {
+        CodecModel model = new CodecModel();
+        model.id = 1L;
+        Put put = model.toPut();
+        assertFalse(put.has(Bytes.toBytes("d"), Bytes.toBytes("text")));
+        assertFalse(put.has(Bytes.toBytes("x"), Bytes.toBytes("packed")));
+
+        CodecModel parsed = new CodecModel();
+        parsed.parseResult(toResult(put));
+        assertNull(parsed.text);
+        assertNull(parsed.entries);
+        assertNull(parsed.packed);
+    }
+
+    @Test
+    public void testColumnFamily() {
+        Put put = _newModel().toPut();
+        assertTrue(put.has(Bytes.toBytes("d"), Bytes.toBytes("text")));
+        assertTrue(put.has(Bytes.toBytes("x"), Bytes.toBytes("packed")));
+        assertTrue(put.has(Bytes.toBytes("d"), Bytes.toBytes("entries|k1")));
+        assertFalse(put.has(Bytes.toBytes("d"), Bytes.toBytes("packed")));
+    }
+
+    @Test
+    public void testCompressedValue() {
+        CodecModel model = _newModel();
+        Put put = model.toPut();
+        byte[] value = _value(put, "x", "longText");
+        //重复内容压缩后带有[0x00][0x01]头部
+        assertEquals(0, value[0]);
+        assertEquals(1, value[1]);
+        assertTrue(value.length < Bytes.toBytes(model.longText).length);
+    }
+
+    @Test
+    public void testBytesFieldCopied() {
+        CodecModel model = _newModel();
+        Put put = model.toPut();
+        //修改model不影响已经生成的Put
+        model.bytes[0] = 9;
+        byte[] value = _value(put, "d", "bytes");
+        assertEquals(1, value[0]);
+
+        CodecModel parsed = new CodecModel();
+        parsed.parseResult(toResult(put));
+        assertEquals(1, parsed.bytes[0]);
+    }
+
+    @Test
+    public void testCodecOutputNotShared() {
+        //修改编码结果不影响之后的编码，也不影响model中的值
+        TypeCodec<CodecModel.Color> enumCodec = TypeCodecs.get(CodecModel.Color.class);
+        byte[] first = enumCodec.encode(CodecModel.Color.GREEN);
+        first[0] = 'X';
+        byte[] second = enumCodec.encode(CodecModel.Color.GREEN);
+        assertEquals(CodecModel.Color.GREEN, enumCodec.decode(second, 0, second.length));
+
+        byte[] bytes = new byte[]{1, 2};
+        byte[] encoded = TypeCodecs.get(byte[].class).encode(bytes);
+        encoded[0] = 9;
+        assertEquals(1, bytes[0]);
+    }
+
+    @Test
+    public void testParseDoesNotOverwrite() {
+        CodecModel model = _newModel();
+        CodecModel parsed = new CodecModel();
+        parsed.text = "local";
+        parsed.parseResult(toResult(model.toPut()));
+        assertEquals("local", parsed.text);
+        assertEquals(model.boxedInt, parsed.boxedInt);
+    }
+
+    @Test
+    public void testCopyFrom() {
+        CodecModel model = _newModel();
+        CodecModel copy = new CodecModel();
+        assertTrue(copy.copyFrom(model));
+        assertEquals(model.text, copy.text);
+        assertEquals(model.entries, copy.entries);
+        assertEquals(model.primitiveLong, copy.primitiveLong);
+    }
+
+    @Test
+    public void testUntaggedMapRejected() {
+        UntaggedMapModel model = new UntaggedMapModel();
+        model.id = 1L;
+        model.extra = new HashMap<>();
+        try {
+            ModelCodec.of(UntaggedMapModel.class);
+            fail("untagged map field should be rejected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("extra"));
+        }
+        //toPut记录错误并返回null
+        assertNull(model.toPut());
+    }
+
+    /**
+     * 将同一行的Put合并成Result，cell按KeyValue.COMPARATOR排序，与服务端返回一致
+     */
+    static Result toResult(Put... puts) {
+        List<Cell> cells = new ArrayList<>();
+        for (Put put : puts) {
+            for (List<Cell> list : put.getFamilyCellMap().values()) {
+                cells.addAll(list);
+            }
+        }
+        Collections.sort(cells, KeyValue.COMPARATOR);
+        return Result.create(cells);
+    }
+
+    private static byte[] _value(Put put, String family, String column) {
+        return CellUtil.cloneValue(put.get(Bytes.toBytes(family), Bytes.toBytes(column)).get(0));
+    }
+
+    private static CodecModel _newModel() {
+        CodecModel model = new CodecModel();
+        model.id = -5L;
+        model.primitiveLong = Long.MIN_VALUE;
+        model.primitiveInt = -7;
+        model.primitiveShort = 300;
+        model.primitiveDouble = 3.5;
+        model.primitiveFloat = -1.25f;
+        model.primitiveBoolean = true;
+        model.boxedInt = 42;
+        model.text = "中文 text";
+        model.decimal = new BigDecimal("12345.6789");
+        model.bytes = new byte[]{1, 0, -1};
+        model.color = CodecModel.Color.GREEN;
+        model.entries = new HashMap<>();
+        model.entries.put("k1", "v1");
+        model.entries.put("k|2", "v2");
+        model.packed = new HashMap<>();
+        model.packed.put("a", "1");
+        model.packed.put("b", "");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            sb.append("repeated text ");
+        }
+        model.longText = sb.toString();
+        return model;
+    }
+
+    @HBaseTableName(name = "untagged")
+    public static class UntaggedMapModel extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        public Long id;
+
+        @HBaseField(id = 2)
+        public Map<String, String> extra;
+
+        @HBaseColumnFamily
+        private static final byte[] CF_D = Bytes.toBytes("d");
+
+        @HBaseColumn(id = 1)
+        private static final byte[] COL_ID = Bytes.toBytes("id");
+
+        @HBaseColumn(id = 2)
+        private static final byte[] COL_EXTRA = Bytes.toBytes("extra");
+
+        @Override
+        public byte[] getRowKey() {
+            return Bytes.toBytes(id);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.*;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class PackedMapTest {
+
+    @Test
+    public void testPackUnpack() {
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "1");
+        map.put("中文", "值");
+        map.put("empty", "");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append('x');
+        }
+        //超过一个字节的varint长度
+        map.put("long", sb.toString());
+
+        byte[] bytes = PackedMap.pack(map);
+        PackedMap packed = PackedMap.unpack(bytes, 0, bytes.length);
+        assertEquals(map.size(), packed.size());
+        assertEquals("1", packed.get("a"));
+        assertEquals("值", packed.get("中文"));
+        assertEquals("", packed.get("empty"));
+        assertEquals(sb.toString(), packed.get("long"));
+        assertTrue(packed.containsKey("empty"));
+        assertFalse(packed.containsKey("missing"));
+        assertNull(packed.get("missing"));
+        assertNull(packed.get(1));
+        assertEquals(map, packed);
+        assertEquals(map.entrySet(), packed.entrySet());
+    }
+
+    @Test
+    public void testUnpackWithOffset() {
+        Map<String, String> map = Collections.singletonMap("k", "v");
+        byte[] bytes = PackedMap.pack(map);
+        byte[] padded = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, padded, 2, bytes.length);
+        PackedMap packed = PackedMap.unpack(padded, 2, bytes.length);
+        //解码结果不依赖原数组
+        Arrays.fill(padded, (byte) 0);
+        assertEquals("v", packed.get("k"));
+    }
+
+    @Test
+    public void testIgnoreNonStringEntries() {
+        Map<Object, Object> map = new HashMap<>();
+        map.put("k", "v");
+        map.put("n", 1);
+        map.put(2, "x");
+        byte[] bytes = PackedMap.pack(map);
+        PackedMap packed = PackedMap.unpack(bytes, 0, bytes.length);
+        assertEquals(Collections.singletonMap("k", "v"), packed);
+    }
+
+    @Test
+    public void testModifyAfterUnpack() {
+        Map<String, String> map = new HashMap<>();
+        map.put("a", "1");
+        map.put("b", "2");
+        byte[] bytes = PackedMap.pack(map);
+        PackedMap packed = PackedMap.unpack(bytes, 0, bytes.length);
+        packed.put("c", "3");
+        packed.remove("a");
+        assertEquals(2, packed.size());
+        assertNull(packed.get("a"));
+        assertEquals("3", packed.get("c"));
+        packed.clear();
+        assertTrue(packed.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVersion() {
+        PackedMap.unpack(new byte[]{9, 0}, 0, 2);
+    }
+
+    @Test
+    public void testPackedReadsEntryRows() {
+        EntryModel legacy = _entryModel("k1", "v1", "k2", "v2");
+        PackedModel model = new PackedModel();
+        assertTrue(model.parseResult(ModelCodecTest.toResult(legacy.toPut())));
+        assertEquals(legacy.tags, model.tags);
+    }
+
+    @Test
+    public void testEntryReadsPackedRows() {
+        PackedModel packed = _packedModel("k1", "v1", "k2", "v2");
+        EntryModel model = new EntryModel();
+        assertTrue(model.parseResult(ModelCodecTest.toResult(packed.toPut())));
+        assertEquals(packed.tags, model.tags);
+    }
+
+    @Test
+    public void testBothFormatsPresent() {
+        //同一行里同时有两种格式时，以当前model配置的格式为准
+        Result result = ModelCodecTest.toResult(_packedModel("p", "packed").toPut(), _entryModel("e", "entry").toPut());
+
+        PackedModel packed = new PackedModel();
+        packed.parseResult(result);
+        assertEquals(Collections.singletonMap("p", "packed"), packed.tags);
+
+        EntryModel entry = new EntryModel();
+        entry.parseResult(result);
+        assertEquals(Collections.singletonMap("e", "entry"), entry.tags);
+    }
+
+    private static PackedModel _packedModel(String... kvs) {
+        PackedModel model = new PackedModel();
+        model.id = 1L;
+        model.tags = _map(kvs);
+        return model;
+    }
+
+    private static EntryModel _entryModel(String... kvs) {
+        EntryModel model = new EntryModel();
+        model.id = 1L;
+        model.tags = _map(kvs);
+        return model;
+    }
+
+    private static Map<String, String> _map(String... kvs) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < kvs.length; i += 2) {
+            map.put(kvs[i], kvs[i + 1]);
+        }
+        return map;
+    }
+
+    //与EntryModel使用相同的列，只是map的存储格式不同
+    @HBaseTableName(name = "tags")
+    public static class PackedModel extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        public Long id;
+
+        @HBaseField(id = 2)
+        @HBaseMapField(packed = true)
+        public Map<String, String> tags;
+
+        @HBaseColumnFamily
+        private static final byte[] CF_D = Bytes.toBytes("d");
+
+        @HBaseColumn(id = 1)
+        private static final byte[] COL_ID = Bytes.toBytes("id");
+
+        @HBaseColumn(id = 2)
+        private static final byte[] COL_TAGS = Bytes.toBytes("tags");
+
+        @Override
+        public byte[] getRowKey() {
+            return Bytes.toBytes(id);
+        }
+    }
+
+    @HBaseTableName(name = "tags")
+    public static class EntryModel extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        public Long id;
+
+        @HBaseField(id = 2)
+        @HBaseMapField
+        public Map<String, String> tags;
+
+        @HBaseColumnFamily
+        private static final byte[] CF_D = Bytes.toBytes("d");
+
+        @HBaseColumn(id = 1)
+        private static final byte[] COL_ID = Bytes.toBytes("id");
+
+        @HBaseColumn(id = 2)
+        private static final byte[] COL_TAGS = Bytes.toBytes("tags");
+
+        @Override
+        public byte[] getRowKey() {
+            return Bytes.toBytes(id);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.netease.hbase.model;
+
+import com.netease.hbase.model.annotation.*;
+import com.netease.hbase.sample.HashedMessageModel;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class RowKeyCodecTest {
+
+    private static final long[] LONGS = {Long.MIN_VALUE, -1000L, -1L, 0L, 1L, 1000L, Long.MAX_VALUE};
+    private static final int[] INTS = {Integer.MIN_VALUE, -1000, -1, 0, 1, 1000, Integer.MAX_VALUE};
+
+    @Test
+    public void testLongOrdering() {
+        RowKeyCodec codec = RowKeyCodec.of(RawKeyModel.class);
+        List<byte[]> keys = new ArrayList<>();
+        for (long value : LONGS) {
+            keys.add(codec.encode(_model(value, 0, "")));
+        }
+        _assertAscending(keys);
+    }
+
+    @Test
+    public void testIntOrdering() {
+        RowKeyCodec codec = RowKeyCodec.of(RawKeyModel.class);
+        List<byte[]> keys = new ArrayList<>();
+        for (int value : INTS) {
+            keys.add(codec.encode(_model(-1L, value, "")));
+        }
+        _assertAscending(keys);
+    }
+
+    @Test
+    public void testFieldOrder() {
+        RowKeyCodec codec = RowKeyCodec.of(RawKeyModel.class);
+        //前一个字段优先于后一个字段
+        assertTrue(Bytes.compareTo(codec.encode(_model(-1L, Integer.MAX_VALUE, "z")),
+                codec.encode(_model(0L, Integer.MIN_VALUE, "a"))) < 0);
+        assertTrue(Bytes.compareTo(codec.encode(_model(0L, -1, "z")),
+                codec.encode(_model(0L, 0, "a"))) < 0);
+        assertTrue(Bytes.compareTo(codec.encode(_model(0L, 0, "a")),
+                codec.encode(_model(0L, 0, "b"))) < 0);
+    }
+
+    @Test
+    public void testLayout() {
+        RowKeyCodec codec = RowKeyCodec.of(RawKeyModel.class);
+        byte[] key = codec.encode(_model(0L, 0, "tail"));
+        assertEquals(8 + 4 + 4, key.length);
+        assertEquals((byte) 0x80, key[0]);
+        assertEquals((byte) 0x80, key[8]);
+        assertEquals("tail", Bytes.toString(key, 12, 4));
+        //变长字段
+        assertEquals(-1, codec.keyLength());
+    }
+
+    @Test
+    public void testPrefixScan() {
+        RowKeyCodec codec = RowKeyCodec.of(RawKeyModel.class);
+        byte[] prefix = codec.prefix(-1L);
+        Scan scan = codec.prefixScan(-1L);
+        assertArrayEquals(prefix, scan.getStartRow());
+        for (int value : INTS) {
+            byte[] key = codec.encode(_model(-1L, value, "x"));
+            assertTrue(Bytes.compareTo(key, scan.getStartRow()) >= 0);
+            assertTrue(Bytes.compareTo(key, scan.getStopRow()) < 0);
+        }
+        assertTrue(Bytes.compareTo(codec.encode(_model(0L, Integer.MIN_VALUE, "")), scan.getStopRow()) >= 0);
+    }
+
+    @Test
+    public void testStopRow() {
+        assertArrayEquals(new byte[]{1, 3}, RowKeyCodec.stopRow(new byte[]{1, 2}));
+        assertArrayEquals(new byte[]{2}, RowKeyCodec.stopRow(new byte[]{1, (byte) 0xFF}));
+        assertEquals(0, RowKeyCodec.stopRow(new byte[]{(byte) 0xFF}).length);
+    }
+
+    @Test
+    public void testHashPrefix() {
+        RowKeyCodec codec = RowKeyCodec.of(HashedMessageModel.class);
+        assertEquals(4 + 8 + 8 + 8, codec.keyLength());
+
+        HashedMessageModel first = _message(1L, 2L, 100L);
+        HashedMessageModel second = _message(1L, 2L, 200L);
+        byte[] firstKey = first.getRowKey();
+        byte[] secondKey = second.getRowKey();
+        assertEquals(28, firstKey.length);
+        //同一会话的hash前缀相同，时间保序
+        assertTrue(Bytes.equals(firstKey, 0, 4, secondKey, 0, 4));
+        assertTrue(Bytes.compareTo(firstKey, secondKey) < 0);
+
+        Scan scan = HashedMessageModel.getScan(1L, 2L, 100L, 200L);
+        assertArrayEquals(firstKey, scan.getStartRow());
+        assertArrayEquals(secondKey, scan.getStopRow());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHashPrefixNeedsHashFields() {
+        RowKeyCodec.of(HashedMessageModel.class).prefix(1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullField() {
+        RawKeyModel model = new RawKeyModel();
+        RowKeyCodec.of(RawKeyModel.class).encode(model);
+    }
+
+    @Test
+    public void testMissingAnnotation() {
+        try {
+            RowKeyCodec.of(CodecModelWithoutKey.class);
+            fail("HBaseRowKey missing should be rejected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(CodecModelWithoutKey.class.getName()));
+        }
+    }
+
+    private static void _assertAscending(List<byte[]> keys) {
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue("index " + i, Bytes.compareTo(keys.get(i - 1), keys.get(i)) < 0);
+        }
+    }
+
+    private static RawKeyModel _model(Long id, int seq, String name) {
+        RawKeyModel model = new RawKeyModel();
+        model.id = id;
+        model.seq = seq;
+        model.name = name;
+        return model;
+    }
+
+    private static HashedMessageModel _message(Long fromUid, Long toUid, Long timestamp) {
+        HashedMessageModel model = new HashedMessageModel();
+        model.fromUid = fromUid;
+        model.toUid = toUid;
+        model.timestamp = timestamp;
+        return model;
+    }
+
+    @HBaseTableName(name = "raw_key")
+    @HBaseRowKey
+    public static class RawKeyModel extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        @HBaseRowKeyField(order = 1)
+        public Long id;
+
+        @HBaseField(id = 2)
+        @HBaseRowKeyField(order = 2)
+        public int seq;
+
+        @HBaseField(id = 3)
+        @HBaseRowKeyField(order = 3)
+        public String name;
+
+        @HBaseColumnFamily
+        private static final byte[] CF_D = Bytes.toBytes("d");
+
+        @HBaseColumn(id = 1)
+        private static final byte[] COL_ID = Bytes.toBytes("id");
+
+        @HBaseColumn(id = 2)
+        private static final byte[] COL_SEQ = Bytes.toBytes("seq");
+
+        @HBaseColumn(id = 3)
+        private static final byte[] COL_NAME = Bytes.toBytes("name");
+
+        @Override
+        public byte[] getRowKey() {
+            return encodeRowKey();
+        }
+    }
+
+    @HBaseTableName(name = "no_key")
+    public static class CodecModelWithoutKey extends AbstractHBaseModel {
+
+        @HBaseField(id = 1)
+        public Long id;
+
+        @Override
+        public byte[] getRowKey() {
+            return encodeRowKey();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.netease.hbase.model;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class ValueCompressorTest {
+
+    private final ValueCompressor compressor = new ValueCompressor(64, 1);
+
+    @Test
+    public void testSmallValueUnchanged() {
+        byte[] raw = Bytes.toBytes("small");
+        assertSame(raw, compressor.compress(raw));
+        assertArrayEquals(raw, _decompress(raw));
+    }
+
+    @Test
+    public void testSmallValueWithMarkerEscaped() {
+        byte[] raw = new byte[]{0, 1, 2};
+        byte[] value = compressor.compress(raw);
+        assertArrayEquals(new byte[]{0, 0, 0, 1, 2}, value);
+        assertArrayEquals(raw, _decompress(value));
+    }
+
+    @Test
+    public void testCompressible() {
+        byte[] raw = new byte[4096];
+        Arrays.fill(raw, (byte) 'a');
+        byte[] value = compressor.compress(raw);
+        assertEquals(0, value[0]);
+        assertEquals(1, value[1]);
+        assertTrue(value.length < raw.length);
+        assertArrayEquals(raw, _decompress(value));
+    }
+
+    @Test
+    public void testIncompressible() {
+        byte[] raw = new byte[1024];
+        new Random(1).nextBytes(raw);
+        raw[0] = 1;
+        //压缩后没有变小时按原值存储
+        byte[] value = compressor.compress(raw);
+        assertArrayEquals(raw, value);
+        assertArrayEquals(raw, _decompress(value));
+    }
+
+    @Test
+    public void testDecompressWithOffset() {
+        byte[] raw = new byte[256];
+        Arrays.fill(raw, (byte) 'b');
+        byte[] value = compressor.compress(raw);
+        byte[] padded = new byte[value.length + 3];
+        System.arraycopy(value, 0, padded, 1, value.length);
+        ValueCompressor.Context context = compressor.decompress(padded, 1, value.length);
+        assertArrayEquals(raw, Arrays.copyOfRange(context.array, context.offset, context.offset + context.length));
+    }
+
+    @Test
+    public void testLegacyValue() {
+        //开启压缩前写入的值没有头部，直接读取
+        byte[] legacy = Bytes.toBytes("written before compression");
+        assertArrayEquals(legacy, _decompress(legacy));
+        assertArrayEquals(new byte[]{0}, _decompress(new byte[]{0}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownHeader() {
+        compressor.decompress(new byte[]{0, 7, 1}, 0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() {
+        byte[] raw = new byte[256];
+        byte[] value = compressor.compress(raw);
+        //只保留头部、长度和deflate数据的第一个字节
+        compressor.decompress(value, 0, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalLevel() {
+        new ValueCompressor(64, 0);
+    }
+
+    private byte[] _decompress(byte[] value) {
+        ValueCompressor.Context context = compressor.decompress(value, 0, value.length);
+        return Arrays.copyOfRange(context.array, context.offset, context.offset + context.length);
+    }
+}